@@ -0,0 +1,118 @@
+package org.acme.bench;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import org.acme.dto.VendorQuoteDTO;
+import org.acme.entity.Line;
+import org.acme.entity.Product;
+import org.acme.entity.ProductVendorSourcing;
+import org.acme.entity.VendorQuote;
+import org.acme.entity.VendorQuoteStatus;
+
+/**
+ * Fully populated entities and requests shaped like production rows, so benchmarks
+ * measure realistic per-row cost rather than null-field shortcuts.
+ */
+public final class BenchmarkFixtures {
+
+    private BenchmarkFixtures() {}
+
+    public static Product product(int n) {
+        Line line = new Line();
+        line.id = UUID.randomUUID();
+        Product product = new Product();
+        product.id = UUID.randomUUID();
+        product.version = 3;
+        product.name = "Utility Jacket " + n;
+        product.line = line;
+        product.description = "Water-resistant shell with taped seams and four utility pockets.";
+        product.lifecycle = "DEVELOPMENT";
+        product.assortment = "CORE";
+        product.buyPlan = "Q3 replenishment";
+        product.storeCost = new BigDecimal("42.50");
+        product.retailCost = new BigDecimal("129.00");
+        product.margin = new BigDecimal("67.05");
+        product.buyer = "Alex Buyer";
+        product.setWeek = 12;
+        product.inspiration = "Street utility trend board.";
+        product.imageReference = "images/" + "ab".repeat(32) + "/original";
+        product.imageUrl = "http://localhost:9000/plm-files/" + product.imageReference;
+        product.price = new BigDecimal("129.00");
+        product.quantity = 250;
+        product.createdBy = "alice";
+        product.createdAt = LocalDateTime.of(2026, 3, 1, 9, 30);
+        product.updatedBy = "bob";
+        product.updatedAt = LocalDateTime.of(2026, 4, 2, 14, 5);
+        return product;
+    }
+
+    public static VendorQuote vendorQuote(int n) {
+        ProductVendorSourcing sourcing = new ProductVendorSourcing();
+        sourcing.id = UUID.randomUUID();
+        VendorQuote quote = new VendorQuote();
+        quote.id = UUID.randomUUID();
+        quote.version = 2;
+        quote.productVendorSourcing = sourcing;
+        quote.quoteNumber = "Q-2026-" + n;
+        quote.versionNumber = 1;
+        quote.currencyCode = "USD";
+        quote.incoterm = "FOB";
+        quote.unitCost = new BigDecimal("18.40");
+        quote.moq = 500;
+        quote.leadTimeDays = 45;
+        quote.sampleLeadTimeDays = 10;
+        quote.materialCost = new BigDecimal("9.10");
+        quote.laborCost = new BigDecimal("4.20");
+        quote.overheadCost = new BigDecimal("1.30");
+        quote.logisticsCost = new BigDecimal("1.80");
+        quote.dutyCost = new BigDecimal("1.20");
+        quote.packagingCost = new BigDecimal("0.80");
+        quote.marginPercent = new BigDecimal("12.50");
+        quote.totalCost = new BigDecimal("20.70");
+        quote.capacityPerMonth = 20000;
+        quote.paymentTerms = "NET60";
+        quote.validFrom = LocalDate.of(2026, 1, 1);
+        quote.validTo = LocalDate.of(2026, 12, 31);
+        quote.complianceNotes = "REACH compliant";
+        quote.sustainabilityNotes = "Recycled polyester shell";
+        quote.status = VendorQuoteStatus.SUBMITTED;
+        quote.submittedBy = "alice";
+        quote.submittedAt = LocalDateTime.of(2026, 3, 1, 10, 0);
+        quote.createdBy = "alice";
+        quote.createdAt = LocalDateTime.of(2026, 3, 1, 9, 30);
+        quote.updatedBy = "alice";
+        quote.updatedAt = LocalDateTime.of(2026, 3, 1, 10, 0);
+        return quote;
+    }
+
+    public static VendorQuoteDTO.Create vendorQuoteCreate(int n) {
+        return new VendorQuoteDTO.Create(
+                "Q-2026-" + n, 1, "USD", "FOB", new BigDecimal("18.40"), 500, 45, 10,
+                new BigDecimal("9.10"), new BigDecimal("4.20"), new BigDecimal("1.30"),
+                new BigDecimal("1.80"), new BigDecimal("1.20"), new BigDecimal("0.80"),
+                new BigDecimal("12.50"), new BigDecimal("20.70"), 20000, "NET60",
+                LocalDate.of(2026, 1, 1), LocalDate.of(2026, 12, 31),
+                "REACH compliant", "Recycled polyester shell"
+        );
+    }
+
+    public static List<Product> products(int count) {
+        List<Product> products = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            products.add(product(i));
+        }
+        return products;
+    }
+
+    public static List<VendorQuote> vendorQuotes(int count) {
+        List<VendorQuote> quotes = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            quotes.add(vendorQuote(i));
+        }
+        return quotes;
+    }
+}
@@ -0,0 +1,57 @@
+package org.acme.bench;
+
+import java.util.concurrent.TimeUnit;
+import org.acme.dto.ProductDTO;
+import org.acme.dto.VendorQuoteDTO;
+import org.acme.entity.Product;
+import org.acme.entity.VendorQuote;
+import org.acme.mapper.ProductMapper;
+import org.acme.mapper.VendorQuoteMapper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class MapperBenchmark {
+
+    private final ProductMapper productMapper = new ProductMapper();
+    private final VendorQuoteMapper vendorQuoteMapper = new VendorQuoteMapper();
+
+    private Product product;
+    private VendorQuote vendorQuote;
+    private VendorQuoteDTO.Create vendorQuoteCreate;
+
+    @Setup
+    public void setUp() {
+        product = BenchmarkFixtures.product(1);
+        vendorQuote = BenchmarkFixtures.vendorQuote(1);
+        vendorQuoteCreate = BenchmarkFixtures.vendorQuoteCreate(1);
+    }
+
+    @Benchmark
+    public ProductDTO.Response productToResponse() {
+        return productMapper.toResponse(product);
+    }
+
+    @Benchmark
+    public VendorQuoteDTO.Response vendorQuoteToResponse() {
+        return vendorQuoteMapper.toResponse(vendorQuote);
+    }
+
+    @Benchmark
+    public VendorQuote vendorQuoteToEntity() {
+        return vendorQuoteMapper.toEntity(vendorQuoteCreate);
+    }
+}
@@ -0,0 +1,66 @@
+package org.acme.bench;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.databind.json.JsonMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.acme.dto.ProductDTO;
+import org.acme.dto.VendorQuoteDTO;
+import org.acme.mapper.ProductMapper;
+import org.acme.mapper.VendorQuoteMapper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Serializes response lists with a mapper configured like the Quarkus default
+ * (JavaTimeModule, ISO dates).
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class SerializationBenchmark {
+
+    @Param({"20", "200"})
+    int rows;
+
+    private ObjectMapper objectMapper;
+    private List<ProductDTO.Response> products;
+    private List<VendorQuoteDTO.Response> vendorQuotes;
+
+    @Setup
+    public void setUp() {
+        objectMapper = JsonMapper.builder()
+                .addModule(new JavaTimeModule())
+                .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+                .build();
+        ProductMapper productMapper = new ProductMapper();
+        VendorQuoteMapper vendorQuoteMapper = new VendorQuoteMapper();
+        products = BenchmarkFixtures.products(rows).stream().map(productMapper::toResponse).toList();
+        vendorQuotes = BenchmarkFixtures.vendorQuotes(rows).stream().map(vendorQuoteMapper::toResponse).toList();
+    }
+
+    @Benchmark
+    public byte[] productResponses() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(products);
+    }
+
+    @Benchmark
+    public byte[] vendorQuoteResponses() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(vendorQuotes);
+    }
+}
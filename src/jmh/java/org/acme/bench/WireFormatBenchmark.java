@@ -0,0 +1,109 @@
+package org.acme.bench;
+
+import com.aayushatharva.brotli4j.Brotli4jLoader;
+import com.aayushatharva.brotli4j.encoder.Encoder;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.databind.json.JsonMapper;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.GZIPOutputStream;
+import org.acme.mapper.ProductMapper;
+import org.acme.mapper.VendorQuoteMapper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Encode cost of product and vendor quote response lists per wire format, with and without
+ * the gzip/brotli levels the server uses. Payload sizes for each combination are printed
+ * once per trial, so one run gives both columns of the comparison.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class WireFormatBenchmark {
+
+    private static final int COMPRESSION_LEVEL = 4;
+
+    @Param({"20", "200"})
+    int rows;
+
+    @Param({"json", "smile", "cbor"})
+    String format;
+
+    @Param({"none", "gzip", "br"})
+    String compression;
+
+    private ObjectMapper mapper;
+    private List<?> products;
+    private List<?> vendorQuotes;
+
+    @Setup
+    public void setUp() throws IOException {
+        ObjectMapper json = JsonMapper.builder()
+                .addModule(new JavaTimeModule())
+                .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+                .build();
+        mapper = switch (format) {
+            case "smile" -> json.copyWith(new SmileFactory());
+            case "cbor" -> json.copyWith(new CBORFactory());
+            default -> json;
+        };
+        if ("br".equals(compression)) {
+            Brotli4jLoader.ensureAvailability();
+        }
+        ProductMapper productMapper = new ProductMapper();
+        VendorQuoteMapper vendorQuoteMapper = new VendorQuoteMapper();
+        products = BenchmarkFixtures.products(rows).stream().map(productMapper::toResponse).toList();
+        vendorQuotes = BenchmarkFixtures.vendorQuotes(rows).stream().map(vendorQuoteMapper::toResponse).toList();
+        System.out.printf("%nPAYLOAD rows=%d format=%s compression=%s products=%dB vendorQuotes=%dB%n",
+                rows, format, compression, productResponses().length, vendorQuoteResponses().length);
+    }
+
+    @Benchmark
+    public byte[] productResponses() throws IOException {
+        return compress(mapper.writeValueAsBytes(products));
+    }
+
+    @Benchmark
+    public byte[] vendorQuoteResponses() throws IOException {
+        return compress(mapper.writeValueAsBytes(vendorQuotes));
+    }
+
+    private byte[] compress(byte[] body) throws IOException {
+        return switch (compression) {
+            case "gzip" -> gzip(body);
+            case "br" -> Encoder.compress(body, new Encoder.Parameters().setQuality(COMPRESSION_LEVEL));
+            default -> body;
+        };
+    }
+
+    private static byte[] gzip(byte[] body) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(body.length / 4 + 64);
+        try (GZIPOutputStream gzip = new GZIPOutputStream(out) {
+            {
+                def.setLevel(COMPRESSION_LEVEL);
+            }
+        }) {
+            gzip.write(body);
+        }
+        return out.toByteArray();
+    }
+}
@@ -0,0 +1,58 @@
+package org.acme.service;
+
+import java.util.concurrent.TimeUnit;
+import org.acme.util.PathEncoder;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Public-URL path of {@link ProductImageStorageService#imageUrl} (presigning off) and the
+ * path encoder it uses. Lives in the service package to configure the bean's fields
+ * without CDI.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ImageUrlBenchmark {
+
+    private static final String CONTENT_KEY = "images/" + "ab".repeat(32) + "/original";
+    private static final String ESCAPED_KEY = "products/Ünïcode jacket (v2)/image.bin";
+
+    private ProductImageStorageService storage;
+
+    @Setup
+    public void setUp() {
+        storage = new ProductImageStorageService();
+        storage.endpoint = "http://localhost:9000/";
+        storage.bucket = "plm-files";
+        storage.bufferPoolSize = 1;
+        storage.presignEnabled = false;
+        storage.init();
+    }
+
+    @Benchmark
+    public String imageUrl() {
+        return storage.imageUrl(CONTENT_KEY);
+    }
+
+    @Benchmark
+    public String encodePathSafe() {
+        return PathEncoder.encode(CONTENT_KEY);
+    }
+
+    @Benchmark
+    public String encodePathEscaped() {
+        return PathEncoder.encode(ESCAPED_KEY);
+    }
+}
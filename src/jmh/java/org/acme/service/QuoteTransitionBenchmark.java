@@ -0,0 +1,38 @@
+package org.acme.service;
+
+import java.util.concurrent.TimeUnit;
+import org.acme.entity.VendorQuoteStatus;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Every (current, target) pair through {@link VendorQuoteService#isAllowedTransition},
+ * i.e. the ALLOWED_TRANSITIONS lookup used by status updates.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class QuoteTransitionBenchmark {
+
+    private final VendorQuoteStatus[] statuses = VendorQuoteStatus.values();
+
+    @Benchmark
+    public void allTransitions(Blackhole blackhole) {
+        for (VendorQuoteStatus current : statuses) {
+            for (VendorQuoteStatus target : statuses) {
+                blackhole.consume(VendorQuoteService.isAllowedTransition(current, target));
+            }
+        }
+    }
+}
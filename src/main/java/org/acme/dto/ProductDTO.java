@@ -1,45 +1,47 @@
 package org.acme.dto;
 
+import jakarta.validation.constraints.Digits;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
 import java.util.UUID;
 
 public class ProductDTO {
     public record Create(
-        @NotBlank(message = "Name is required") String name,
+        @NotBlank(message = "Name is required") @Size(max = 255, message = "Name must be at most 255 characters") String name,
         @NotNull(message = "Line ID is required") UUID lineId,
-        String description,
-        String lifecycle,
-        String assortment,
-        String buyPlan,
-        BigDecimal storeCost,
-        BigDecimal retailCost,
-        BigDecimal margin,
-        String buyer,
+        @Size(max = 1000, message = "Description must be at most 1000 characters") String description,
+        @Size(max = 255, message = "Lifecycle must be at most 255 characters") String lifecycle,
+        @Size(max = 255, message = "Assortment must be at most 255 characters") String assortment,
+        @Size(max = 255, message = "Buy plan must be at most 255 characters") String buyPlan,
+        @Digits(integer = 17, fraction = 2, message = "Store cost must have at most 17 integer and 2 fraction digits") BigDecimal storeCost,
+        @Digits(integer = 17, fraction = 2, message = "Retail cost must have at most 17 integer and 2 fraction digits") BigDecimal retailCost,
+        @Digits(integer = 17, fraction = 2, message = "Margin must have at most 17 integer and 2 fraction digits") BigDecimal margin,
+        @Size(max = 255, message = "Buyer must be at most 255 characters") String buyer,
         Integer setWeek,
-        String inspiration,
+        @Size(max = 1000, message = "Inspiration must be at most 1000 characters") String inspiration,
         String imageUrl,
-        BigDecimal price,
+        @Digits(integer = 17, fraction = 2, message = "Price must have at most 17 integer and 2 fraction digits") BigDecimal price,
         int quantity
     ) {}
 
     public record Update(
-        @NotBlank(message = "Name is required") String name,
+        @NotBlank(message = "Name is required") @Size(max = 255, message = "Name must be at most 255 characters") String name,
         @NotNull(message = "Line ID is required") UUID lineId,
-        String description,
-        String lifecycle,
-        String assortment,
-        String buyPlan,
-        BigDecimal storeCost,
-        BigDecimal retailCost,
-        BigDecimal margin,
-        String buyer,
+        @Size(max = 1000, message = "Description must be at most 1000 characters") String description,
+        @Size(max = 255, message = "Lifecycle must be at most 255 characters") String lifecycle,
+        @Size(max = 255, message = "Assortment must be at most 255 characters") String assortment,
+        @Size(max = 255, message = "Buy plan must be at most 255 characters") String buyPlan,
+        @Digits(integer = 17, fraction = 2, message = "Store cost must have at most 17 integer and 2 fraction digits") BigDecimal storeCost,
+        @Digits(integer = 17, fraction = 2, message = "Retail cost must have at most 17 integer and 2 fraction digits") BigDecimal retailCost,
+        @Digits(integer = 17, fraction = 2, message = "Margin must have at most 17 integer and 2 fraction digits") BigDecimal margin,
+        @Size(max = 255, message = "Buyer must be at most 255 characters") String buyer,
         Integer setWeek,
-        String inspiration,
+        @Size(max = 1000, message = "Inspiration must be at most 1000 characters") String inspiration,
         String imageUrl,
-        BigDecimal price,
+        @Digits(integer = 17, fraction = 2, message = "Price must have at most 17 integer and 2 fraction digits") BigDecimal price,
         int quantity,
         long version
     ) {}
@@ -61,6 +63,8 @@ public class ProductDTO {
         String inspiration,
         String imageReference,
         String imageUrl,
+        String thumbnailUrl,
+        String previewUrl,
         BigDecimal price,
         int quantity,
         String createdBy,
@@ -68,4 +72,11 @@ public class ProductDTO {
         String updatedBy,
         LocalDateTime updatedAt
     ) {}
+
+    public record BatchItemResult(
+        int index,
+        UUID id,
+        String status,
+        String error
+    ) {}
 }
@@ -0,0 +1,31 @@
+package org.acme.dto;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.UUID;
+import org.acme.entity.VendorQuoteStatus;
+
+public record ProductQuoteResponse(
+    UUID id,
+    UUID productId,
+    UUID productVendorSourcingId,
+    UUID vendorId,
+    String vendorName,
+    String quoteNumber,
+    int versionNumber,
+    String currencyCode,
+    BigDecimal unitCost,
+    int moq,
+    int leadTimeDays,
+    BigDecimal totalCost,
+    LocalDate validFrom,
+    LocalDate validTo,
+    VendorQuoteStatus status,
+    boolean deleted,
+    LocalDateTime createdAt,
+    LocalDateTime updatedAt,
+    String normalizedCurrencyCode,
+    BigDecimal normalizedUnitCost,
+    BigDecimal normalizedTotalCost
+) {}
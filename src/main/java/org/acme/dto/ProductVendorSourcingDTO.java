@@ -1,8 +1,10 @@
 package org.acme.dto;
 
 import jakarta.validation.constraints.NotNull;
+import java.math.BigDecimal;
 import java.time.LocalDateTime;
 import java.util.UUID;
+import org.acme.entity.VendorQuoteStatus;
 
 public class ProductVendorSourcingDTO {
     public record Create(
@@ -49,6 +51,19 @@ public class ProductVendorSourcingDTO {
         String createdBy,
         LocalDateTime createdAt,
         String updatedBy,
+        LocalDateTime updatedAt,
+        QuoteSummary quoteSummary
+    ) {}
+
+    public record QuoteSummary(
+        int quoteCount,
+        UUID latestQuoteId,
+        String latestQuoteNumber,
+        Integer latestVersionNumber,
+        VendorQuoteStatus latestStatus,
+        UUID bestApprovedQuoteId,
+        BigDecimal bestApprovedUnitCost,
+        String bestApprovedCurrencyCode,
         LocalDateTime updatedAt
     ) {}
 }
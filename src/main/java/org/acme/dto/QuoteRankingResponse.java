@@ -0,0 +1,27 @@
+package org.acme.dto;
+
+import java.math.BigDecimal;
+import java.util.UUID;
+import org.acme.entity.VendorQuoteStatus;
+
+public record QuoteRankingResponse(
+    UUID productId,
+    int rank,
+    UUID quoteId,
+    UUID productVendorSourcingId,
+    UUID vendorId,
+    String vendorName,
+    String quoteNumber,
+    int versionNumber,
+    VendorQuoteStatus status,
+    String currencyCode,
+    BigDecimal unitCost,
+    BigDecimal landedCost,
+    String normalizedCurrencyCode,
+    BigDecimal normalizedLandedCost,
+    int moq,
+    Integer productQuantity,
+    BigDecimal effectiveUnitCost,
+    int leadTimeDays,
+    BigDecimal score
+) {}
@@ -0,0 +1,12 @@
+package org.acme.dto;
+
+import com.fasterxml.jackson.annotation.JsonValue;
+import java.time.LocalDateTime;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * One row of a {@code ?fields=} projection. Serializes as just the requested fields, in
+ * request order; id and updatedAt are kept for keyset cursors and ETags.
+ */
+public record SparseRow(UUID id, LocalDateTime updatedAt, @JsonValue Map<String, Object> fields) {}
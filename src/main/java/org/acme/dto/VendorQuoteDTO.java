@@ -2,10 +2,12 @@ package org.acme.dto;
 
 import jakarta.validation.constraints.Min;
 import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotEmpty;
 import jakarta.validation.constraints.NotNull;
 import java.math.BigDecimal;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.util.List;
 import java.util.UUID;
 import org.acme.entity.VendorQuoteStatus;
 
@@ -67,6 +69,20 @@ public class VendorQuoteDTO {
         long version
     ) {}
 
+    public record BatchUpdateStatus(
+        @NotEmpty(message = "Quote ids are required") List<@NotNull UUID> quoteIds,
+        @NotNull(message = "Status is required") VendorQuoteStatus status,
+        String comment
+    ) {}
+
+    public record BatchStatusResult(
+        UUID quoteId,
+        String outcome,
+        VendorQuoteStatus status,
+        Long version,
+        String error
+    ) {}
+
     public record Response(
         UUID id,
         long version,
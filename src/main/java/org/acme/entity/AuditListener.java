@@ -23,7 +23,8 @@ public class AuditListener {
         }
     }
 
-    private String getCurrentActor() {
+    /** The actor stamped into created_by/updated_by, for writes that bypass entity callbacks. */
+    public static String getCurrentActor() {
         try {
             SecurityIdentity securityIdentity = Arc.container().instance(SecurityIdentity.class).get();
             if (securityIdentity == null || securityIdentity.isAnonymous()) {
@@ -7,6 +7,7 @@ import jakarta.persistence.JoinColumn;
 import jakarta.persistence.ManyToOne;
 import jakarta.persistence.Transient;
 import java.math.BigDecimal;
+import org.hibernate.annotations.Formula;
 
 @Entity
 public class Product extends CoreEntity implements PanacheEntity.Managed {
@@ -45,9 +46,25 @@ public class Product extends CoreEntity implements PanacheEntity.Managed {
     @Column(name = "image_reference")
     public String imageReference;
 
+    /**
+     * Derivative keys live on image_asset and are resolved through image_reference on read,
+     * so the background derivative job never writes product rows or bumps their version.
+     */
+    @Formula("(select a.thumbnail_key from image_asset a where a.object_key = image_reference)")
+    public String imageThumbnailReference;
+
+    @Formula("(select a.preview_key from image_asset a where a.object_key = image_reference)")
+    public String imagePreviewReference;
+
     @Transient
     public String imageUrl;
 
+    @Transient
+    public String thumbnailUrl;
+
+    @Transient
+    public String previewUrl;
+
     public BigDecimal price;
 
     public int quantity;
@@ -5,5 +5,6 @@ public enum VendorQuoteStatus {
     SUBMITTED,
     UNDER_REVIEW,
     APPROVED,
-    REJECTED
+    REJECTED,
+    EXPIRED
 }
@@ -0,0 +1,66 @@
+package org.acme.mapper;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import jakarta.inject.Inject;
+import jakarta.ws.rs.Produces;
+import jakarta.ws.rs.core.MediaType;
+import jakarta.ws.rs.core.MultivaluedMap;
+import jakarta.ws.rs.core.StreamingOutput;
+import jakarta.ws.rs.ext.MessageBodyWriter;
+import jakarta.ws.rs.ext.Provider;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.lang.annotation.Annotation;
+import java.lang.reflect.Type;
+
+/**
+ * Writes response DTOs as Smile or CBOR for clients that ask for them in Accept. Both
+ * mappers are copies of the application ObjectMapper, so modules, date handling and
+ * inclusion rules match the JSON output field for field.
+ */
+@Provider
+@Produces({BinaryJsonWriter.SMILE, BinaryJsonWriter.CBOR})
+public class BinaryJsonWriter implements MessageBodyWriter<Object> {
+
+    public static final String SMILE = "application/x-jackson-smile";
+    public static final String CBOR = "application/cbor";
+
+    private static final MediaType SMILE_TYPE = MediaType.valueOf(SMILE);
+
+    private final ObjectWriter smileWriter;
+    private final ObjectWriter cborWriter;
+
+    @Inject
+    public BinaryJsonWriter(ObjectMapper objectMapper) {
+        this.smileWriter = objectMapper.copyWith(new SmileFactory()).writer()
+                .without(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+        this.cborWriter = objectMapper.copyWith(new CBORFactory()).writer()
+                .without(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+    }
+
+    @Override
+    public boolean isWriteable(Class<?> type, Type genericType, Annotation[] annotations, MediaType mediaType) {
+        return !CharSequence.class.isAssignableFrom(type)
+                && type != byte[].class
+                && !InputStream.class.isAssignableFrom(type)
+                && !StreamingOutput.class.isAssignableFrom(type);
+    }
+
+    @Override
+    public void writeTo(
+            Object value,
+            Class<?> type,
+            Type genericType,
+            Annotation[] annotations,
+            MediaType mediaType,
+            MultivaluedMap<String, Object> httpHeaders,
+            OutputStream entityStream) throws IOException {
+        ObjectWriter writer = mediaType.isCompatible(SMILE_TYPE) ? smileWriter : cborWriter;
+        writer.writeValue(entityStream, value);
+    }
+}
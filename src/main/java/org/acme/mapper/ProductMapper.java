@@ -18,7 +18,9 @@ public class ProductMapper {
         Product product = new Product();
         product.name = request.name();
         if (request.lineId() != null) {
-            product.line = lineRepository.findById(request.lineId());
+            // Id-only reference; ProductService resolves and validates the line.
+            product.line = new Line();
+            product.line.id = request.lineId();
         }
         product.description = request.description();
         product.lifecycle = request.lifecycle();
@@ -76,6 +78,8 @@ public class ProductMapper {
             entity.inspiration,
             entity.imageReference,
             entity.imageUrl,
+            entity.thumbnailUrl,
+            entity.previewUrl,
             entity.price,
             entity.quantity,
             entity.createdBy,
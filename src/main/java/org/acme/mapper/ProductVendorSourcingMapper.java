@@ -44,6 +44,10 @@ public class ProductVendorSourcingMapper {
     }
 
     public ProductVendorSourcingDTO.Response toResponse(ProductVendorSourcing entity) {
+        return toResponse(entity, null);
+    }
+
+    public ProductVendorSourcingDTO.Response toResponse(ProductVendorSourcing entity, ProductVendorSourcingDTO.QuoteSummary quoteSummary) {
         if (entity == null) return null;
         return new ProductVendorSourcingDTO.Response(
             entity.id,
@@ -63,7 +67,8 @@ public class ProductVendorSourcingMapper {
             entity.createdBy,
             entity.createdAt,
             entity.updatedBy,
-            entity.updatedAt
+            entity.updatedAt,
+            quoteSummary
         );
     }
 }
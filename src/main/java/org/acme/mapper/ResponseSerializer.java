@@ -0,0 +1,23 @@
+package org.acme.mapper;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+import java.io.UncheckedIOException;
+
+@ApplicationScoped
+public class ResponseSerializer {
+
+    @Inject
+    ObjectMapper objectMapper;
+
+    public byte[] toJson(Object response) {
+        if (response == null) return null;
+        try {
+            return objectMapper.writeValueAsBytes(response);
+        } catch (JsonProcessingException exception) {
+            throw new UncheckedIOException(exception);
+        }
+    }
+}
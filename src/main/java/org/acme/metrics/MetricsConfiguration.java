@@ -0,0 +1,39 @@
+package org.acme.metrics;
+
+import io.micrometer.core.instrument.Meter;
+import io.micrometer.core.instrument.config.MeterFilter;
+import io.micrometer.core.instrument.distribution.DistributionStatisticConfig;
+import jakarta.enterprise.inject.Produces;
+import jakarta.inject.Singleton;
+import java.util.Set;
+
+@Singleton
+public class MetricsConfiguration {
+
+    private static final Set<String> HISTOGRAMS = Set.of(
+            "http.server.requests",
+            "plm.http.server.queries",
+            "plm.s3.requests"
+    );
+
+    /**
+     * Publishes histogram buckets for request latency, queries per request and S3 calls,
+     * so percentiles can be aggregated across instances in Prometheus.
+     */
+    @Produces
+    @Singleton
+    public MeterFilter histogramBuckets() {
+        return new MeterFilter() {
+            @Override
+            public DistributionStatisticConfig configure(Meter.Id id, DistributionStatisticConfig config) {
+                if (!HISTOGRAMS.contains(id.getName())) {
+                    return config;
+                }
+                return DistributionStatisticConfig.builder()
+                        .percentilesHistogram(true)
+                        .build()
+                        .merge(config);
+            }
+        };
+    }
+}
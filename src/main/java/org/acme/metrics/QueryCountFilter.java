@@ -0,0 +1,33 @@
+package org.acme.metrics;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.inject.Inject;
+import org.jboss.resteasy.reactive.server.ServerResponseFilter;
+import org.jboss.resteasy.reactive.server.SimpleResourceInfo;
+
+/**
+ * Publishes {@code plm.http.server.queries}: SQL statements per request, per resource
+ * method. Catches N+1 regressions that latency alone hides on a small dataset.
+ */
+public class QueryCountFilter {
+
+    @Inject
+    MeterRegistry meterRegistry;
+
+    @Inject
+    RequestQueryCounter requestQueryCounter;
+
+    @ServerResponseFilter
+    public void recordQueryCount(SimpleResourceInfo resourceInfo) {
+        if (resourceInfo == null || resourceInfo.getResourceClass() == null) {
+            return;
+        }
+        DistributionSummary.builder("plm.http.server.queries")
+                .description("SQL statements prepared per request")
+                .tag("resource", resourceInfo.getResourceClass().getSimpleName())
+                .tag("method", resourceInfo.getMethodName())
+                .register(meterRegistry)
+                .record(requestQueryCounter.count());
+    }
+}
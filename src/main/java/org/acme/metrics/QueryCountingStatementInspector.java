@@ -0,0 +1,25 @@
+package org.acme.metrics;
+
+import io.quarkus.arc.Arc;
+import io.quarkus.hibernate.orm.PersistenceUnitExtension;
+import jakarta.inject.Inject;
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+
+/**
+ * Counts every statement Hibernate prepares against the current request; statements
+ * outside a request (scheduled jobs, startup) are not counted.
+ */
+@PersistenceUnitExtension
+public class QueryCountingStatementInspector implements StatementInspector {
+
+    @Inject
+    RequestQueryCounter requestQueryCounter;
+
+    @Override
+    public String inspect(String sql) {
+        if (Arc.container().requestContext().isActive()) {
+            requestQueryCounter.increment();
+        }
+        return sql;
+    }
+}
@@ -0,0 +1,20 @@
+package org.acme.metrics;
+
+import jakarta.enterprise.context.RequestScoped;
+
+/**
+ * Number of SQL statements Hibernate prepared while serving the current request.
+ */
+@RequestScoped
+public class RequestQueryCounter {
+
+    private int count;
+
+    void increment() {
+        count++;
+    }
+
+    public int count() {
+        return count;
+    }
+}
@@ -0,0 +1,63 @@
+package org.acme.repository;
+
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+import jakarta.persistence.EntityManager;
+import java.math.BigDecimal;
+import java.sql.Date;
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * Dated FX rates. Like {@link ImageAssetRepository} the table is not mapped as an entity:
+ * rates are upserted in bulk by the loader and read whole into an in-memory snapshot.
+ */
+@ApplicationScoped
+public class FxRateRepository {
+
+    @Inject
+    EntityManager entityManager;
+
+    public record FxRateRow(String baseCurrency, String quoteCurrency, LocalDate rateDate, BigDecimal rate) {}
+
+    public int upsert(List<FxRateRow> rows, String source) {
+        int written = 0;
+        for (FxRateRow row : rows) {
+            written += entityManager.createNativeQuery("""
+                            INSERT INTO fx_rate (base_currency, quote_currency, rate_date, rate, source)
+                            VALUES (?1, ?2, ?3, ?4, ?5)
+                            ON CONFLICT (base_currency, quote_currency, rate_date) DO UPDATE
+                                SET rate = EXCLUDED.rate, source = EXCLUDED.source, updated_at = LOCALTIMESTAMP
+                                WHERE fx_rate.rate <> EXCLUDED.rate
+                            """)
+                    .setParameter(1, row.baseCurrency())
+                    .setParameter(2, row.quoteCurrency())
+                    .setParameter(3, row.rateDate())
+                    .setParameter(4, row.rate())
+                    .setParameter(5, source)
+                    .executeUpdate();
+        }
+        return written;
+    }
+
+    @SuppressWarnings("unchecked")
+    public List<FxRateRow> listAll() {
+        List<Object[]> rows = entityManager.createNativeQuery("""
+                        SELECT base_currency, quote_currency, rate_date, rate
+                        FROM fx_rate
+                        ORDER BY base_currency, quote_currency, rate_date
+                        """)
+                .getResultList();
+        return rows.stream()
+                .map(row -> new FxRateRow(
+                        (String) row[0],
+                        (String) row[1],
+                        toLocalDate(row[2]),
+                        (BigDecimal) row[3]))
+                .toList();
+    }
+
+    private static LocalDate toLocalDate(Object value) {
+        return value instanceof Date date ? date.toLocalDate() : (LocalDate) value;
+    }
+}
@@ -0,0 +1,193 @@
+package org.acme.repository;
+
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+import jakarta.persistence.EntityManager;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Bookkeeping for content-addressed image objects. The table is not mapped as an entity:
+ * every operation is a single atomic statement so concurrent uploads of the same content
+ * serialize on the row instead of racing in the persistence context.
+ */
+@ApplicationScoped
+public class ImageAssetRepository {
+
+    @Inject
+    EntityManager entityManager;
+
+    public record Acquired(boolean created, String thumbnailKey, String previewKey) {}
+
+    public record UnreferencedAsset(String contentHash, String objectKey, String thumbnailKey, String previewKey) {}
+
+    public record PendingAsset(String contentHash, String objectKey, String contentType) {}
+
+    public record PendingPromotion(String contentHash, String stagingKey, String contentType, long sizeBytes) {}
+
+    /**
+     * Inserts the asset with one reference or, when the content already exists, adds a
+     * reference to it. {@code created} tells the caller whether the object must be stored.
+     * A new asset records {@code stagingKey} until {@link #markPromoted} confirms the copy.
+     */
+    public Acquired acquire(String contentHash, String objectKey, String contentType, long sizeBytes, String stagingKey) {
+        Object[] row = (Object[]) entityManager.createNativeQuery("""
+                        INSERT INTO image_asset (content_hash, object_key, content_type, size_bytes, ref_count, staging_key)
+                        VALUES (?1, ?2, ?3, ?4, 1, ?5)
+                        ON CONFLICT (content_hash) DO UPDATE
+                            SET ref_count = image_asset.ref_count + 1, updated_at = LOCALTIMESTAMP
+                        RETURNING (xmax = 0), thumbnail_key, preview_key
+                        """)
+                .setParameter(1, contentHash)
+                .setParameter(2, objectKey)
+                .setParameter(3, contentType)
+                .setParameter(4, sizeBytes)
+                .setParameter(5, stagingKey)
+                .getSingleResult();
+        return new Acquired((Boolean) row[0], (String) row[1], (String) row[2]);
+    }
+
+    /**
+     * Drops one reference to the asset stored at {@code objectKey}. Keys that are not
+     * content-addressed assets (pre-dedup per-product uploads) match no row.
+     */
+    public void release(String objectKey) {
+        entityManager.createNativeQuery("""
+                        UPDATE image_asset
+                        SET ref_count = ref_count - 1, updated_at = LOCALTIMESTAMP
+                        WHERE object_key = ?1
+                        """)
+                .setParameter(1, objectKey)
+                .executeUpdate();
+    }
+
+    /**
+     * Locks assets that have had no references for at least {@code graceSeconds}. The
+     * locks are held until the caller deletes the rows, so an upload of the same content
+     * waits instead of re-acquiring an object that is being removed.
+     */
+    @SuppressWarnings("unchecked")
+    public List<UnreferencedAsset> lockUnreferenced(int graceSeconds, int limit) {
+        List<Object[]> rows = entityManager.createNativeQuery("""
+                        SELECT content_hash, object_key, thumbnail_key, preview_key
+                        FROM image_asset
+                        WHERE ref_count <= 0 AND updated_at < LOCALTIMESTAMP - make_interval(secs => ?1)
+                        ORDER BY updated_at
+                        LIMIT ?2
+                        FOR UPDATE SKIP LOCKED
+                        """)
+                .setParameter(1, graceSeconds)
+                .setParameter(2, limit)
+                .getResultList();
+        return rows.stream()
+                .map(row -> new UnreferencedAsset((String) row[0], (String) row[1], (String) row[2], (String) row[3]))
+                .toList();
+    }
+
+    public void deleteByHashes(Collection<String> contentHashes) {
+        entityManager.createNativeQuery("DELETE FROM image_asset WHERE content_hash IN (:hashes) AND ref_count <= 0")
+                .setParameter("hashes", contentHashes)
+                .executeUpdate();
+    }
+
+    @SuppressWarnings("unchecked")
+    public List<String> findExistingHashes(Collection<String> contentHashes) {
+        return entityManager.createNativeQuery("SELECT content_hash FROM image_asset WHERE content_hash IN (:hashes)")
+                .setParameter("hashes", contentHashes)
+                .getResultList();
+    }
+
+    @SuppressWarnings("unchecked")
+    public List<String> findReferencedProductImages(Collection<String> objectKeys) {
+        return entityManager.createNativeQuery("SELECT image_reference FROM product WHERE image_reference IN (:keys)")
+                .setParameter("keys", objectKeys)
+                .getResultList();
+    }
+
+    /**
+     * Claims up to {@code limit} assets awaiting derivatives, skipping rows another node has
+     * locked and assets whose original is not promoted yet. Assets stuck in PROCESSING
+     * longer than {@code staleAfterSeconds} are retried.
+     */
+    @SuppressWarnings("unchecked")
+    public List<PendingAsset> claimPending(int limit, int staleAfterSeconds) {
+        List<Object[]> rows = entityManager.createNativeQuery("""
+                        UPDATE image_asset
+                        SET derivative_status = 'PROCESSING', updated_at = LOCALTIMESTAMP
+                        WHERE content_hash IN (
+                            SELECT content_hash FROM image_asset
+                            WHERE staging_key IS NULL
+                              AND (derivative_status = 'PENDING'
+                                   OR (derivative_status = 'PROCESSING'
+                                       AND updated_at < LOCALTIMESTAMP - make_interval(secs => ?2)))
+                            ORDER BY created_at
+                            LIMIT ?1
+                            FOR UPDATE SKIP LOCKED)
+                        RETURNING content_hash, object_key, content_type
+                        """)
+                .setParameter(1, limit)
+                .setParameter(2, staleAfterSeconds)
+                .getResultList();
+        return rows.stream()
+                .map(row -> new PendingAsset((String) row[0], (String) row[1], (String) row[2]))
+                .toList();
+    }
+
+    /**
+     * Records the derivative status and keys. Products pick the keys up through their
+     * image_reference when read, so no product row is touched here.
+     */
+    public void completeDerivatives(String contentHash, String status, String thumbnailKey, String previewKey) {
+        entityManager.createNativeQuery("""
+                        UPDATE image_asset
+                        SET derivative_status = ?2, thumbnail_key = ?3, preview_key = ?4, updated_at = LOCALTIMESTAMP
+                        WHERE content_hash = ?1
+                        """)
+                .setParameter(1, contentHash)
+                .setParameter(2, status)
+                .setParameter(3, thumbnailKey)
+                .setParameter(4, previewKey)
+                .executeUpdate();
+    }
+
+    /**
+     * Clears the staging key once the content object is known to exist.
+     */
+    public void markPromoted(String contentHash) {
+        entityManager.createNativeQuery("""
+                        UPDATE image_asset
+                        SET staging_key = NULL, updated_at = LOCALTIMESTAMP
+                        WHERE content_hash = ?1 AND staging_key IS NOT NULL
+                        """)
+                .setParameter(1, contentHash)
+                .executeUpdate();
+    }
+
+    /**
+     * Assets still waiting for their staged upload to be copied, untouched for at least
+     * {@code afterSeconds} so a promotion still running in the request is left to finish.
+     */
+    @SuppressWarnings("unchecked")
+    public List<PendingPromotion> findPendingPromotions(int afterSeconds, int limit) {
+        List<Object[]> rows = entityManager.createNativeQuery("""
+                        SELECT content_hash, staging_key, content_type, size_bytes
+                        FROM image_asset
+                        WHERE staging_key IS NOT NULL AND updated_at < LOCALTIMESTAMP - make_interval(secs => ?1)
+                        ORDER BY updated_at
+                        LIMIT ?2
+                        """)
+                .setParameter(1, afterSeconds)
+                .setParameter(2, limit)
+                .getResultList();
+        return rows.stream()
+                .map(row -> new PendingPromotion((String) row[0], (String) row[1], (String) row[2], ((Number) row[3]).longValue()))
+                .toList();
+    }
+
+    @SuppressWarnings("unchecked")
+    public List<String> findPendingStagingKeys(Collection<String> stagingKeys) {
+        return entityManager.createNativeQuery("SELECT staging_key FROM image_asset WHERE staging_key IN (:keys)")
+                .setParameter("keys", stagingKeys)
+                .getResultList();
+    }
+}
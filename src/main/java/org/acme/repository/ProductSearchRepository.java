@@ -0,0 +1,73 @@
+package org.acme.repository;
+
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+import jakarta.persistence.EntityManager;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Full-text product search over the generated {@code product.search_vector} plus the line
+ * code. Every term has to match somewhere in the combined document, so a query may mix
+ * product words with a line code. Candidates come from index scans on any one term
+ * (product_search_vector_idx, and line_code_search_idx feeding product_line_idx, combined in
+ * a bitmap OR), and only those rows are checked against all terms.
+ */
+@ApplicationScoped
+public class ProductSearchRepository {
+
+    private static final String MATCHES = """
+            FROM product p
+            JOIN line l ON l.id = p.line_id
+            CROSS JOIN LATERAL (
+                SELECT p.search_vector || setweight(to_tsvector('english', l.line_code), 'B') AS document
+            ) d
+            CROSS JOIN (
+                SELECT to_tsquery('english', :allTerms) AS doc_all,
+                       to_tsquery('english', :anyTerm) AS doc_any,
+                       to_tsquery('simple', :anyTerm) AS code_any
+            ) q
+            WHERE (p.search_vector @@ q.doc_any
+                   OR p.line_id IN (SELECT lc.id FROM line lc WHERE to_tsvector('simple', lc.line_code) @@ q.code_any))
+              AND d.document @@ q.doc_all
+            """;
+
+    @Inject
+    EntityManager entityManager;
+
+    public record SearchPage(List<UUID> ids, long total) {}
+
+    /**
+     * One page of product ids, best match first. {@code allTerms} and {@code anyTerm} are the
+     * same terms joined with {@code &} and {@code |}, already valid to_tsquery expressions.
+     * The total comes from a window count over the same scan; it is counted separately only
+     * when the page lies past the last match.
+     */
+    @SuppressWarnings("unchecked")
+    public SearchPage search(String allTerms, String anyTerm, int offset, int limit) {
+        List<Object[]> rows = entityManager.createNativeQuery("""
+                        SELECT p.id, ts_rank(d.document, q.doc_all) AS rank, count(*) OVER () AS total
+                        """ + MATCHES + """
+                        ORDER BY rank DESC, p.id
+                        LIMIT :limit OFFSET :offset
+                        """)
+                .setParameter("allTerms", allTerms)
+                .setParameter("anyTerm", anyTerm)
+                .setParameter("limit", limit)
+                .setParameter("offset", offset)
+                .getResultList();
+        if (rows.isEmpty()) {
+            long total = offset == 0 ? 0 : ((Number) entityManager.createNativeQuery("SELECT count(*) " + MATCHES)
+                    .setParameter("allTerms", allTerms)
+                    .setParameter("anyTerm", anyTerm)
+                    .getSingleResult()).longValue();
+            return new SearchPage(List.of(), total);
+        }
+        List<UUID> ids = new ArrayList<>(rows.size());
+        for (Object[] row : rows) {
+            ids.add((UUID) row[0]);
+        }
+        return new SearchPage(ids, ((Number) rows.getFirst()[2]).longValue());
+    }
+}
@@ -9,12 +9,15 @@ import org.acme.entity.ProductVendorSourcing;
 @ApplicationScoped
 public class ProductVendorSourcingRepository implements PanacheRepository.Managed<ProductVendorSourcing, UUID> {
 
+    /** Fetches the eager product, line and vendor associations in the same round trip. */
+    static final String FETCH_PATH = "from ProductVendorSourcing s join fetch s.product p join fetch p.line join fetch s.vendor ";
+
     public List<ProductVendorSourcing> listByProductId(UUID productId) {
-        return list("product.id", productId);
+        return list(FETCH_PATH + "where p.id = ?1", productId);
     }
 
     public ProductVendorSourcing findByProductIdAndId(UUID productId, UUID id) {
-        return find("product.id = ?1 and id = ?2", productId, id).firstResult();
+        return find(FETCH_PATH + "where p.id = ?1 and s.id = ?2", productId, id).firstResult();
     }
 
     public ProductVendorSourcing findByProductIdAndVendorId(UUID productId, UUID vendorId) {
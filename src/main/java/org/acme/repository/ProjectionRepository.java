@@ -0,0 +1,54 @@
+package org.acme.repository;
+
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.TypedQuery;
+import java.util.List;
+import java.util.UUID;
+import org.acme.dto.SparseRow;
+import org.acme.util.Cursor;
+import org.acme.util.FieldSet;
+
+/**
+ * {@code ?fields=} list queries. Only the requested columns (plus id and updatedAt) are
+ * selected, and no entity or association is loaded; {@code lineId} and
+ * {@code productVendorSourcingId} read the foreign key column without a join.
+ */
+@ApplicationScoped
+public class ProjectionRepository {
+
+    @Inject
+    EntityManager entityManager;
+
+    /**
+     * One keyset slice of products: after the cursor id ascending, before it descending,
+     * or from the start when {@code position} is null.
+     */
+    public List<SparseRow> products(FieldSet fields, Cursor position, int limit) {
+        String where = "";
+        String order = " order by p.id";
+        if (position != null) {
+            where = position.forward() ? " where p.id > :cursor" : " where p.id < :cursor";
+            order = position.forward() ? order : " order by p.id desc";
+        }
+        TypedQuery<Object[]> query = entityManager.createQuery(
+                "select p.id, p.updatedAt" + fields.selectList() + " from Product p" + where + order, Object[].class);
+        if (position != null) {
+            query.setParameter("cursor", position.id());
+        }
+        return fields.toRows(query.setMaxResults(limit).getResultList());
+    }
+
+    /** Live (not soft-deleted) quotes of a product vendor link, newest first. */
+    public List<SparseRow> vendorQuotesByLink(FieldSet fields, UUID productId, UUID linkId) {
+        return fields.toRows(entityManager.createQuery(
+                        "select q.id, q.updatedAt" + fields.selectList() + " from VendorQuote q"
+                                + " where q.productVendorSourcing.id = :linkId"
+                                + " and q.productVendorSourcing.product.id = :productId"
+                                + " and q.deleted = false order by q.createdAt desc", Object[].class)
+                .setParameter("linkId", linkId)
+                .setParameter("productId", productId)
+                .getResultList());
+    }
+}
@@ -0,0 +1,25 @@
+package org.acme.repository;
+
+public enum QuoteComparisonSort {
+    UNIT_COST("normalized_unit_cost asc nulls last"),
+    LEAD_TIME("q.lead_time_days asc"),
+    CREATED_AT("q.created_at desc");
+
+    final String sqlOrderBy;
+
+    QuoteComparisonSort(String sqlOrderBy) {
+        this.sqlOrderBy = sqlOrderBy;
+    }
+
+    public static QuoteComparisonSort parse(String value) {
+        if (value == null || value.isBlank()) {
+            return CREATED_AT;
+        }
+        return switch (value) {
+            case "unitCost" -> UNIT_COST;
+            case "leadTime" -> LEAD_TIME;
+            case "createdAt" -> CREATED_AT;
+            default -> throw new IllegalArgumentException("Unsupported sort: " + value);
+        };
+    }
+}
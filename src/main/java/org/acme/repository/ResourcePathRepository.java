@@ -0,0 +1,68 @@
+package org.acme.repository;
+
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.Query;
+import java.util.NoSuchElementException;
+import java.util.UUID;
+
+/**
+ * Checks every level of a nested {@code /products/{productId}/vendors/{linkId}/quotes/{quoteId}}
+ * path in one query. Services load the target with a single fetch-joined query first and only
+ * call this on a miss, to tell which level of the path is missing.
+ */
+@ApplicationScoped
+public class ResourcePathRepository {
+
+    @Inject
+    EntityManager entityManager;
+
+    public record ResolvedPath(boolean productFound, boolean linkFound, boolean quoteFound) {
+
+        /** The 404 for the outermost missing level, or null when the whole path exists. */
+        public NoSuchElementException notFound() {
+            if (!productFound) {
+                return new NoSuchElementException("Product not found.");
+            }
+            if (!linkFound) {
+                return new NoSuchElementException("Product vendor link not found.");
+            }
+            if (!quoteFound) {
+                return new NoSuchElementException("Vendor quote not found.");
+            }
+            return null;
+        }
+    }
+
+    /**
+     * Resolves the path down to the deepest non-null id. {@code includeDeleted} also accepts
+     * soft-deleted and archived quotes.
+     */
+    public ResolvedPath resolve(UUID productId, UUID linkId, UUID quoteId, boolean includeDeleted) {
+        String linkCheck = linkId == null
+                ? "TRUE"
+                : "EXISTS (SELECT 1 FROM product_vendor_sourcing WHERE id = :linkId AND product_id = :productId)";
+        String quoteCheck;
+        if (quoteId == null) {
+            quoteCheck = "TRUE";
+        } else if (includeDeleted) {
+            quoteCheck = """
+                    (EXISTS (SELECT 1 FROM vendor_quote WHERE id = :quoteId AND product_vendor_sourcing_id = :linkId)
+                     OR EXISTS (SELECT 1 FROM vendor_quote_archive WHERE id = :quoteId AND product_vendor_sourcing_id = :linkId))""";
+        } else {
+            quoteCheck = "EXISTS (SELECT 1 FROM vendor_quote WHERE id = :quoteId AND product_vendor_sourcing_id = :linkId AND deleted = FALSE)";
+        }
+        Query query = entityManager.createNativeQuery("SELECT EXISTS (SELECT 1 FROM product WHERE id = :productId), "
+                        + linkCheck + ", " + quoteCheck)
+                .setParameter("productId", productId);
+        if (linkId != null) {
+            query.setParameter("linkId", linkId);
+        }
+        if (quoteId != null) {
+            query.setParameter("quoteId", quoteId);
+        }
+        Object[] row = (Object[]) query.getSingleResult();
+        return new ResolvedPath((Boolean) row[0], (Boolean) row[1], (Boolean) row[2]);
+    }
+}
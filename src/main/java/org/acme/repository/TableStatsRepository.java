@@ -0,0 +1,29 @@
+package org.acme.repository;
+
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+import jakarta.persistence.EntityManager;
+import java.util.List;
+import java.util.function.LongSupplier;
+
+@ApplicationScoped
+public class TableStatsRepository {
+
+    @Inject
+    EntityManager entityManager;
+
+    /**
+     * Planner row estimate from pg_class. Falls back to the exact count when the
+     * table has not been analyzed yet.
+     */
+    public long estimateRowCount(String tableName, LongSupplier exactCount) {
+        List<?> rows = entityManager.createNativeQuery(
+                        "SELECT reltuples::bigint FROM pg_class WHERE oid = to_regclass(?1)")
+                .setParameter(1, tableName)
+                .getResultList();
+        if (!rows.isEmpty() && rows.getFirst() instanceof Number number && number.longValue() >= 0) {
+            return number.longValue();
+        }
+        return exactCount.getAsLong();
+    }
+}
@@ -2,44 +2,464 @@ package org.acme.repository;
 
 import io.quarkus.hibernate.panache.PanacheRepository;
 import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+import jakarta.persistence.EntityManager;
+import java.math.BigDecimal;
+import java.sql.Date;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.UUID;
+import java.util.stream.Collectors;
+import org.acme.dto.ProductQuoteResponse;
+import org.acme.dto.QuoteRankingResponse;
 import org.acme.entity.VendorQuote;
+import org.acme.entity.VendorQuoteStatus;
+import org.hibernate.jpa.HibernateHints;
 
 @ApplicationScoped
 public class VendorQuoteRepository implements PanacheRepository.Managed<VendorQuote, UUID> {
 
+    /** vendor_quote columns in table order; vendor_quote_archive starts with the same columns. */
+    private static final String QUOTE_COLUMNS = """
+            id, version, created_at, updated_at, created_by, updated_by, product_vendor_sourcing_id, quote_number, \
+            version_number, currency_code, incoterm, unit_cost, moq, lead_time_days, sample_lead_time_days, \
+            material_cost, labor_cost, overhead_cost, logistics_cost, duty_cost, packaging_cost, margin_percent, \
+            total_cost, capacity_per_month, payment_terms, valid_from, valid_to, compliance_notes, \
+            sustainability_notes, status, submitted_by, submitted_at, reviewed_by, reviewed_at, approval_comment, \
+            deleted, deleted_at, deleted_by""";
+
+    /** Fetches the quote's eager link, product, line and vendor associations in the same round trip. */
+    private static final String FETCH_PATH = "from VendorQuote q join fetch q.productVendorSourcing s "
+            + "join fetch s.product p join fetch p.line join fetch s.vendor ";
+
+    private static final String PRODUCT_LINKS = "SELECT id FROM product_vendor_sourcing WHERE product_id = :scopeId";
+
+    @Inject
+    EntityManager entityManager;
+
+    public record ArchivedQuote(UUID linkId, String reason) {}
+
+    public record ExpiredQuote(UUID quoteId, UUID linkId, VendorQuoteStatus previousStatus) {}
+
+    public record QuoteStatusRow(UUID quoteId, UUID linkId, VendorQuoteStatus status, LocalDate validTo) {}
+
     public List<VendorQuote> listByLinkId(UUID linkId, boolean includeDeleted) {
         if (includeDeleted) {
-            return list("productVendorSourcing.id = ?1 order by createdAt desc", linkId);
+            return listWithArchive("product_vendor_sourcing_id = :scopeId", linkId);
         }
-        return list("productVendorSourcing.id = ?1 and deleted = false order by createdAt desc", linkId);
+        return list(FETCH_PATH + "where s.id = ?1 and q.deleted = false order by q.createdAt desc", linkId);
+    }
+
+    public List<VendorQuote> listByProductAndLinkId(UUID productId, UUID linkId) {
+        return list(FETCH_PATH + "where p.id = ?1 and s.id = ?2 and q.deleted = false order by q.createdAt desc", productId, linkId);
     }
 
     public List<VendorQuote> listByProductId(UUID productId, boolean includeDeleted) {
         if (includeDeleted) {
-            return list("productVendorSourcing.product.id = ?1 order by createdAt desc", productId);
+            return listWithArchive("product_vendor_sourcing_id IN (" + PRODUCT_LINKS + ")", productId);
         }
-        return list("productVendorSourcing.product.id = ?1 and deleted = false order by createdAt desc", productId);
+        return list(FETCH_PATH + "where p.id = ?1 and q.deleted = false order by q.createdAt desc", productId);
     }
 
+    /**
+     * Hot and archived quotes matching {@code where}, newest first. Archived rows come back as
+     * read-only entities so they are never flushed against vendor_quote.
+     */
+    @SuppressWarnings("unchecked")
+    private List<VendorQuote> listWithArchive(String where, UUID scopeId) {
+        return entityManager.createNativeQuery("""
+                        SELECT %1$s FROM vendor_quote WHERE %2$s
+                        UNION ALL
+                        SELECT %1$s FROM vendor_quote_archive WHERE %2$s
+                        ORDER BY created_at DESC
+                        """.formatted(QUOTE_COLUMNS, where), VendorQuote.class)
+                .setParameter("scopeId", scopeId)
+                .setHint(HibernateHints.HINT_READ_ONLY, true)
+                .getResultList();
+    }
+
+    /** Whether the link has any quote, live, soft-deleted or archived. */
+    public boolean existsForLink(UUID linkId) {
+        return (Boolean) entityManager.createNativeQuery("""
+                        SELECT EXISTS (SELECT 1 FROM vendor_quote WHERE product_vendor_sourcing_id = ?1)
+                            OR EXISTS (SELECT 1 FROM vendor_quote_archive WHERE product_vendor_sourcing_id = ?1)
+                        """)
+                .setParameter(1, linkId)
+                .getSingleResult();
+    }
+
+    /**
+     * Cross-vendor comparison rows for a product, built by a single join over
+     * vendor_quote, product_vendor_sourcing and vendor without loading entities. Costs are
+     * normalized with {@code ratesInto} (bound as two parallel lists, like
+     * {@link #rankByLandedCost}) in the same statement, so sorting by unit cost orders and
+     * pages on the normalized amount. Quotes in a currency without a rate sort last.
+     */
+    @SuppressWarnings("unchecked")
+    public List<ProductQuoteResponse> listComparisonByProductId(
+            UUID productId,
+            boolean includeDeleted,
+            QuoteComparisonSort sort,
+            int page,
+            int size,
+            String normalizedCurrency,
+            Map<String, BigDecimal> ratesInto
+    ) {
+        String source = includeDeleted
+                ? """
+                  SELECT %1$s FROM vendor_quote WHERE product_vendor_sourcing_id IN (%2$s)
+                  UNION ALL
+                  SELECT %1$s FROM vendor_quote_archive WHERE product_vendor_sourcing_id IN (%2$s)
+                  """.formatted(QUOTE_COLUMNS, PRODUCT_LINKS)
+                : "SELECT %s FROM vendor_quote WHERE deleted = false AND product_vendor_sourcing_id IN (%s)"
+                        .formatted(QUOTE_COLUMNS, PRODUCT_LINKS);
+        String fxCurrencies = String.join(",", ratesInto.keySet());
+        String fxRates = ratesInto.values().stream().map(BigDecimal::toPlainString).collect(Collectors.joining(","));
+        List<Object[]> rows = entityManager.createNativeQuery("""
+                        SELECT q.id, s.product_id, s.id, v.id, v.name, q.quote_number, q.version_number, q.currency_code,
+                               q.unit_cost, q.moq, q.lead_time_days, q.total_cost, q.valid_from, q.valid_to, q.status,
+                               q.deleted, q.created_at, q.updated_at,
+                               round(q.unit_cost * fx.rate, 4) AS normalized_unit_cost,
+                               round(q.total_cost * fx.rate, 4) AS normalized_total_cost
+                        FROM (%s) q
+                        JOIN product_vendor_sourcing s ON s.id = q.product_vendor_sourcing_id
+                        JOIN vendor v ON v.id = s.vendor_id
+                        LEFT JOIN unnest(string_to_array(:fxCurrencies, ','), string_to_array(:fxRates, ',')::numeric[])
+                                AS fx(currency_code, rate) ON fx.currency_code = q.currency_code
+                        ORDER BY %s, q.id
+                        LIMIT :size OFFSET :offset
+                        """.formatted(source, sort.sqlOrderBy))
+                .setParameter("scopeId", productId)
+                .setParameter("fxCurrencies", fxCurrencies)
+                .setParameter("fxRates", fxRates)
+                .setParameter("size", size)
+                .setParameter("offset", page * size)
+                .getResultList();
+        return rows.stream()
+                .map(row -> new ProductQuoteResponse(
+                        (UUID) row[0],
+                        (UUID) row[1],
+                        (UUID) row[2],
+                        (UUID) row[3],
+                        (String) row[4],
+                        (String) row[5],
+                        ((Number) row[6]).intValue(),
+                        (String) row[7],
+                        (BigDecimal) row[8],
+                        ((Number) row[9]).intValue(),
+                        ((Number) row[10]).intValue(),
+                        (BigDecimal) row[11],
+                        toLocalDate(row[12]),
+                        toLocalDate(row[13]),
+                        VendorQuoteStatus.valueOf((String) row[14]),
+                        (Boolean) row[15],
+                        toLocalDateTime(row[16]),
+                        toLocalDateTime(row[17]),
+                        normalizedCurrency,
+                        (BigDecimal) row[18],
+                        (BigDecimal) row[19]))
+                .toList();
+    }
+
+    /**
+     * Top-{@code topN} non-deleted quotes per product by landed-cost score, ranked in SQL
+     * with ROW_NUMBER so only the winning rows leave the database. Landed cost is unit
+     * cost plus logistics, duty and packaging, converted with {@code ratesInto} (quote
+     * currency to normalized currency, bound as two parallel lists). When the product's planned
+     * quantity is below the MOQ the whole MOQ must be bought, so the landed cost is spread
+     * over the planned quantity. The score adds {@code leadTimeWeight} per lead-time day.
+     * Quotes in a currency without a rate have no score and rank last.
+     * Pass exactly one of {@code productId} or {@code lineId}.
+     */
+    @SuppressWarnings("unchecked")
+    public List<QuoteRankingResponse> rankByLandedCost(
+            UUID productId,
+            UUID lineId,
+            int topN,
+            BigDecimal leadTimeWeight,
+            String normalizedCurrency,
+            Map<String, BigDecimal> ratesInto
+    ) {
+        String scope = productId != null ? "p.id = :scopeId" : "p.line_id = :scopeId";
+        String fxCurrencies = String.join(",", ratesInto.keySet());
+        String fxRates = ratesInto.values().stream().map(BigDecimal::toPlainString).collect(Collectors.joining(","));
+        List<Object[]> rows = entityManager.createNativeQuery("""
+                        SELECT product_id, rank, quote_id, link_id, vendor_id, vendor_name, quote_number, version_number,
+                               status, currency_code, unit_cost, landed_cost, normalized_landed_cost, moq, quantity,
+                               effective_unit_cost, lead_time_days, score
+                        FROM (
+                            SELECT p.id AS product_id, q.id AS quote_id, s.id AS link_id, v.id AS vendor_id,
+                                   v.name AS vendor_name, q.quote_number, q.version_number, q.status, q.currency_code,
+                                   q.unit_cost, lc.landed_cost, nc.normalized_landed_cost, q.moq, p.quantity,
+                                   ec.effective_unit_cost, q.lead_time_days, sc.score,
+                                   ROW_NUMBER() OVER (PARTITION BY p.id ORDER BY sc.score NULLS LAST, q.id) AS rank
+                            FROM vendor_quote q
+                            JOIN product_vendor_sourcing s ON s.id = q.product_vendor_sourcing_id
+                            JOIN product p ON p.id = s.product_id
+                            JOIN vendor v ON v.id = s.vendor_id
+                            CROSS JOIN LATERAL (SELECT q.unit_cost + COALESCE(q.logistics_cost, 0)
+                                    + COALESCE(q.duty_cost, 0) + COALESCE(q.packaging_cost, 0) AS landed_cost) lc
+                            LEFT JOIN unnest(string_to_array(:fxCurrencies, ','), string_to_array(:fxRates, ',')::numeric[])
+                                    AS fx(currency_code, rate) ON fx.currency_code = q.currency_code
+                            CROSS JOIN LATERAL (SELECT round(lc.landed_cost * fx.rate, 4) AS normalized_landed_cost) nc
+                            CROSS JOIN LATERAL (SELECT CASE WHEN p.quantity > 0 AND q.moq > p.quantity
+                                    THEN round(nc.normalized_landed_cost * q.moq / p.quantity, 4)
+                                    ELSE nc.normalized_landed_cost END AS effective_unit_cost) ec
+                            CROSS JOIN LATERAL (SELECT ec.effective_unit_cost + :leadTimeWeight * q.lead_time_days AS score) sc
+                            WHERE q.deleted = false AND q.status <> 'EXPIRED' AND %s
+                        ) ranked
+                        WHERE rank <= :topN
+                        ORDER BY product_id, rank
+                        """.formatted(scope))
+                .setParameter("scopeId", productId != null ? productId : lineId)
+                .setParameter("leadTimeWeight", leadTimeWeight)
+                .setParameter("topN", topN)
+                .setParameter("fxCurrencies", fxCurrencies)
+                .setParameter("fxRates", fxRates)
+                .getResultList();
+        return rows.stream()
+                .map(row -> new QuoteRankingResponse(
+                        (UUID) row[0],
+                        ((Number) row[1]).intValue(),
+                        (UUID) row[2],
+                        (UUID) row[3],
+                        (UUID) row[4],
+                        (String) row[5],
+                        (String) row[6],
+                        ((Number) row[7]).intValue(),
+                        VendorQuoteStatus.valueOf((String) row[8]),
+                        (String) row[9],
+                        (BigDecimal) row[10],
+                        (BigDecimal) row[11],
+                        normalizedCurrency,
+                        (BigDecimal) row[12],
+                        ((Number) row[13]).intValue(),
+                        row[14] == null ? null : ((Number) row[14]).intValue(),
+                        (BigDecimal) row[15],
+                        ((Number) row[16]).intValue(),
+                        (BigDecimal) row[17]))
+                .toList();
+    }
+
+    @SuppressWarnings("unchecked")
     public VendorQuote findByProductAndLinkAndId(UUID productId, UUID linkId, UUID quoteId, boolean includeDeleted) {
         if (includeDeleted) {
-            return find(
-                    "productVendorSourcing.product.id = ?1 and productVendorSourcing.id = ?2 and id = ?3",
+            VendorQuote quote = find(
+                    FETCH_PATH + "where p.id = ?1 and s.id = ?2 and q.id = ?3",
                     productId,
                     linkId,
                     quoteId
             ).firstResult();
+            if (quote != null) {
+                return quote;
+            }
+            List<VendorQuote> archived = entityManager.createNativeQuery("""
+                            SELECT %s FROM vendor_quote_archive a
+                            WHERE a.id = ?1 AND a.product_vendor_sourcing_id = ?2
+                              AND EXISTS (SELECT 1 FROM product_vendor_sourcing s WHERE s.id = ?2 AND s.product_id = ?3)
+                            """.formatted(QUOTE_COLUMNS), VendorQuote.class)
+                    .setParameter(1, quoteId)
+                    .setParameter(2, linkId)
+                    .setParameter(3, productId)
+                    .setHint(HibernateHints.HINT_READ_ONLY, true)
+                    .getResultList();
+            return archived.isEmpty() ? null : archived.getFirst();
         }
         return find(
-                "productVendorSourcing.product.id = ?1 and productVendorSourcing.id = ?2 and id = ?3 and deleted = false",
+                FETCH_PATH + "where p.id = ?1 and s.id = ?2 and q.id = ?3 and q.deleted = false",
                 productId,
                 linkId,
                 quoteId
         ).firstResult();
     }
 
+    public boolean existsInArchive(UUID linkId, String quoteNumber, int versionNumber) {
+        return !entityManager.createNativeQuery("""
+                        SELECT 1 FROM vendor_quote_archive
+                        WHERE product_vendor_sourcing_id = ?1 AND quote_number = ?2 AND version_number = ?3
+                        """)
+                .setParameter(1, linkId)
+                .setParameter(2, quoteNumber)
+                .setParameter(3, versionNumber)
+                .getResultList()
+                .isEmpty();
+    }
+
+    /**
+     * Moves up to {@code limit} quotes soft-deleted before {@code deletedBefore} into
+     * vendor_quote_archive in one statement. Rows locked by in-flight writers are skipped and
+     * picked up by a later batch.
+     */
+    public List<ArchivedQuote> archiveDeleted(LocalDateTime deletedBefore, int limit) {
+        return archive("""
+                q.deleted = TRUE AND q.deleted_at < :cutoff
+                """, deletedBefore, limit);
+    }
+
+    /**
+     * Moves up to {@code limit} live quotes untouched since {@code updatedBefore} that have a
+     * newer live version of the same quote number. Approved versions stay hot.
+     */
+    public List<ArchivedQuote> archiveSuperseded(LocalDateTime updatedBefore, int limit) {
+        return archive("""
+                q.deleted = FALSE AND q.status <> 'APPROVED' AND q.updated_at < :cutoff
+                AND EXISTS (
+                    SELECT 1 FROM vendor_quote n
+                    WHERE n.product_vendor_sourcing_id = q.product_vendor_sourcing_id
+                      AND n.quote_number = q.quote_number
+                      AND n.version_number > q.version_number
+                      AND n.deleted = FALSE)
+                """, updatedBefore, limit);
+    }
+
+    @SuppressWarnings("unchecked")
+    private List<ArchivedQuote> archive(String candidates, LocalDateTime cutoff, int limit) {
+        List<Object[]> rows = entityManager.createNativeQuery("""
+                        WITH candidate AS (
+                            SELECT q.id FROM vendor_quote q
+                            WHERE %s
+                            LIMIT :limit
+                            FOR UPDATE SKIP LOCKED
+                        ), moved AS (
+                            DELETE FROM vendor_quote q USING candidate c
+                            WHERE q.id = c.id
+                            RETURNING q.*
+                        ), archived AS (
+                            INSERT INTO vendor_quote_archive
+                            SELECT moved.*, LOCALTIMESTAMP, CASE WHEN moved.deleted THEN 'DELETED' ELSE 'SUPERSEDED' END
+                            FROM moved
+                            RETURNING product_vendor_sourcing_id, archive_reason
+                        )
+                        SELECT product_vendor_sourcing_id, archive_reason FROM archived
+                        """.formatted(candidates))
+                .setParameter("cutoff", cutoff)
+                .setParameter("limit", limit)
+                .getResultList();
+        return rows.stream()
+                .map(row -> new ArchivedQuote((UUID) row[0], (String) row[1]))
+                .toList();
+    }
+
+    /**
+     * Locks the live quotes among {@code quoteIds} in id order, so concurrent batches over
+     * overlapping ids cannot deadlock, and returns what the transition rules need.
+     */
+    @SuppressWarnings("unchecked")
+    public List<QuoteStatusRow> lockForStatusChange(Collection<UUID> quoteIds) {
+        List<Object[]> rows = entityManager.createNativeQuery("""
+                        SELECT id, product_vendor_sourcing_id, status, valid_to
+                        FROM vendor_quote
+                        WHERE id IN (:ids) AND deleted = FALSE
+                        ORDER BY id
+                        FOR UPDATE
+                        """)
+                .setParameter("ids", quoteIds)
+                .getResultList();
+        return rows.stream()
+                .map(row -> new QuoteStatusRow(
+                        (UUID) row[0],
+                        (UUID) row[1],
+                        VendorQuoteStatus.valueOf((String) row[2]),
+                        toLocalDate(row[3])))
+                .toList();
+    }
+
+    /**
+     * Sets {@code target} on every quote in {@code quoteIds} in one UPDATE, stamping the
+     * submission or review columns the same way a single transition does. Returns the new
+     * row version per quote.
+     */
+    @SuppressWarnings("unchecked")
+    public Map<UUID, Long> applyStatus(Collection<UUID> quoteIds, VendorQuoteStatus target, String actor, String comment) {
+        String stamp = "";
+        if (target == VendorQuoteStatus.SUBMITTED) {
+            stamp = ", submitted_at = LOCALTIMESTAMP, submitted_by = :actor";
+        } else if (target == VendorQuoteStatus.UNDER_REVIEW || target == VendorQuoteStatus.APPROVED || target == VendorQuoteStatus.REJECTED) {
+            stamp = ", reviewed_at = LOCALTIMESTAMP, reviewed_by = :actor";
+        }
+        List<Object[]> rows = entityManager.createNativeQuery("""
+                        UPDATE vendor_quote
+                        SET status = :status, approval_comment = :comment, version = version + 1,
+                            updated_at = LOCALTIMESTAMP, updated_by = :actor%s
+                        WHERE id IN (:ids)
+                        RETURNING id, version
+                        """.formatted(stamp))
+                .setParameter("status", target.name())
+                .setParameter("comment", comment)
+                .setParameter("actor", actor)
+                .setParameter("ids", quoteIds)
+                .getResultList();
+        Map<UUID, Long> versions = new HashMap<>();
+        for (Object[] row : rows) {
+            versions.put((UUID) row[0], ((Number) row[1]).longValue());
+        }
+        return versions;
+    }
+
+    /**
+     * Moves up to {@code limit} live SUBMITTED or UNDER_REVIEW quotes whose validTo is before
+     * {@code today} to EXPIRED in one UPDATE over a FOR UPDATE SKIP LOCKED candidate set, so
+     * concurrent runs on other nodes take disjoint batches. The per-row UPDATE audit is
+     * suppressed for the transaction and the batch writes one BATCH_UPDATE audit row instead.
+     * Returns one element per expired quote.
+     */
+    @SuppressWarnings("unchecked")
+    public List<ExpiredQuote> expireBatch(LocalDate today, String actor, int limit) {
+        entityManager.createNativeQuery("SELECT set_config('app.audit_suppress', 'vendor_quote', true)")
+                .getSingleResult();
+        List<Object[]> rows = entityManager.createNativeQuery("""
+                        WITH candidate AS (
+                            SELECT q.id, q.status
+                            FROM vendor_quote q
+                            WHERE q.deleted = FALSE AND q.status IN ('SUBMITTED', 'UNDER_REVIEW') AND q.valid_to < :today
+                            LIMIT :limit
+                            FOR UPDATE SKIP LOCKED
+                        ), expired AS (
+                            UPDATE vendor_quote q
+                            SET status = 'EXPIRED', version = q.version + 1, updated_at = LOCALTIMESTAMP, updated_by = :actor
+                            FROM candidate c
+                            WHERE q.id = c.id
+                            RETURNING q.id, q.product_vendor_sourcing_id, c.status AS previous_status
+                        ), audit AS (
+                            INSERT INTO vendor_quote_audit (operation, new_data, changed_at)
+                            SELECT 'BATCH_UPDATE',
+                                   jsonb_build_object(
+                                       'event', 'QUOTE_EXPIRY',
+                                       'status', 'EXPIRED',
+                                       'validToBefore', CAST(:today AS date),
+                                       'actor', CAST(:actor AS text),
+                                       'count', count(*),
+                                       'quotes', jsonb_agg(jsonb_build_object('id', id, 'previousStatus', previous_status))),
+                                   LOCALTIMESTAMP
+                            FROM expired
+                            HAVING count(*) > 0
+                        )
+                        SELECT id, product_vendor_sourcing_id, previous_status FROM expired
+                        """)
+                .setParameter("today", today)
+                .setParameter("actor", actor)
+                .setParameter("limit", limit)
+                .getResultList();
+        entityManager.createNativeQuery("SELECT set_config('app.audit_suppress', '', true)")
+                .getSingleResult();
+        return rows.stream()
+                .map(row -> new ExpiredQuote((UUID) row[0], (UUID) row[1], VendorQuoteStatus.valueOf((String) row[2])))
+                .toList();
+    }
+
+    private static LocalDate toLocalDate(Object value) {
+        return value instanceof Date date ? date.toLocalDate() : (LocalDate) value;
+    }
+
+    private static LocalDateTime toLocalDateTime(Object value) {
+        return value instanceof Timestamp timestamp ? timestamp.toLocalDateTime() : (LocalDateTime) value;
+    }
+
     public VendorQuote findByLinkAndQuoteAndVersion(UUID linkId, String quoteNumber, int versionNumber) {
         return find(
                 "productVendorSourcing.id = ?1 and quoteNumber = ?2 and versionNumber = ?3",
@@ -0,0 +1,92 @@
+package org.acme.repository;
+
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+import jakarta.persistence.EntityManager;
+import java.math.BigDecimal;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import org.acme.dto.ProductVendorSourcingDTO;
+import org.acme.entity.VendorQuoteStatus;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+
+/**
+ * Per-link quote summary maintained by the refresh_vendor_quote_summary() database function.
+ * Not mapped as an entity: rows are only ever rewritten wholesale from vendor_quote. The best
+ * approved quote is picked after converting into {@code app.fx.base-currency}.
+ */
+@ApplicationScoped
+public class VendorQuoteSummaryRepository {
+
+    @Inject
+    EntityManager entityManager;
+
+    @ConfigProperty(name = "app.fx.base-currency", defaultValue = "USD")
+    String baseCurrency;
+
+    /**
+     * Recomputes the link's summary inside the current transaction. Pending quote changes are
+     * flushed first so the function sees them.
+     */
+    public void refresh(UUID linkId) {
+        entityManager.flush();
+        entityManager.createNativeQuery("SELECT refresh_vendor_quote_summary(?1, ?2)")
+                .setParameter(1, linkId)
+                .setParameter(2, baseCurrency)
+                .getSingleResult();
+    }
+
+    /** Recomputes several links in one statement, locking them in id order. */
+    public void refresh(Collection<UUID> linkIds) {
+        if (linkIds.isEmpty()) {
+            return;
+        }
+        entityManager.flush();
+        entityManager.createNativeQuery("""
+                        SELECT count(*) FROM (
+                            SELECT refresh_vendor_quote_summary(l.id, :baseCurrency)
+                            FROM (SELECT id FROM product_vendor_sourcing WHERE id IN (:ids) ORDER BY id) l
+                        ) refreshed
+                        """)
+                .setParameter("ids", linkIds)
+                .setParameter("baseCurrency", baseCurrency)
+                .getSingleResult();
+    }
+
+    @SuppressWarnings("unchecked")
+    public Map<UUID, ProductVendorSourcingDTO.QuoteSummary> findByProductId(UUID productId) {
+        List<Object[]> rows = entityManager.createNativeQuery("""
+                        SELECT qs.product_vendor_sourcing_id, qs.quote_count, qs.latest_quote_id, qs.latest_quote_number,
+                               qs.latest_version_number, qs.latest_status, qs.best_approved_quote_id,
+                               qs.best_approved_unit_cost, qs.best_approved_currency_code, qs.updated_at
+                        FROM vendor_quote_summary qs
+                        JOIN product_vendor_sourcing s ON s.id = qs.product_vendor_sourcing_id
+                        WHERE s.product_id = ?1
+                        """)
+                .setParameter(1, productId)
+                .getResultList();
+        Map<UUID, ProductVendorSourcingDTO.QuoteSummary> summaries = new HashMap<>();
+        for (Object[] row : rows) {
+            summaries.put((UUID) row[0], new ProductVendorSourcingDTO.QuoteSummary(
+                    ((Number) row[1]).intValue(),
+                    (UUID) row[2],
+                    (String) row[3],
+                    row[4] == null ? null : ((Number) row[4]).intValue(),
+                    row[5] == null ? null : VendorQuoteStatus.valueOf((String) row[5]),
+                    (UUID) row[6],
+                    (BigDecimal) row[7],
+                    (String) row[8],
+                    toLocalDateTime(row[9])));
+        }
+        return summaries;
+    }
+
+    private static LocalDateTime toLocalDateTime(Object value) {
+        return value instanceof Timestamp timestamp ? timestamp.toLocalDateTime() : (LocalDateTime) value;
+    }
+}
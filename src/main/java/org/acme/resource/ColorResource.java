@@ -6,13 +6,17 @@ import jakarta.persistence.OptimisticLockException;
 import jakarta.validation.Valid;
 import jakarta.ws.rs.Consumes;
 import jakarta.ws.rs.DELETE;
+import jakarta.ws.rs.DefaultValue;
 import jakarta.ws.rs.GET;
+import jakarta.ws.rs.HeaderParam;
 import jakarta.ws.rs.POST;
 import jakarta.ws.rs.PUT;
 import jakarta.ws.rs.Path;
 import jakarta.ws.rs.PathParam;
 import jakarta.ws.rs.Produces;
+import jakarta.ws.rs.QueryParam;
 import jakarta.ws.rs.core.Context;
+import jakarta.ws.rs.core.HttpHeaders;
 import jakarta.ws.rs.core.MediaType;
 import jakarta.ws.rs.core.Response;
 import jakarta.ws.rs.core.UriInfo;
@@ -22,6 +26,9 @@ import org.acme.dto.ColorDTO;
 import org.acme.entity.Color;
 import org.acme.mapper.ColorMapper;
 import org.acme.service.ColorService;
+import org.acme.util.ETags;
+import org.acme.util.EventLog;
+import org.acme.util.TaggedJson;
 import org.eclipse.microprofile.openapi.annotations.Operation;
 import org.eclipse.microprofile.openapi.annotations.responses.APIResponse;
 import org.eclipse.microprofile.openapi.annotations.tags.Tag;
@@ -44,24 +51,34 @@ public class ColorResource {
 
     @GET
     @Operation(summary = "List colors")
-    @APIResponse(responseCode = "200", description = "Colors list")
-    public java.util.List<ColorDTO.Response> list() {
-        return colorService.list().stream()
-                .map(colorMapper::toResponse)
-                .toList();
+    @APIResponse(responseCode = "200", description = "Colors page")
+    @APIResponse(responseCode = "304", description = "Page unchanged since the If-None-Match tag")
+    @APIResponse(responseCode = "400", description = "Invalid cursor")
+    public Response list(
+            @QueryParam("cursor") String cursor,
+            @QueryParam("size") Integer size,
+            @QueryParam("withTotal") @DefaultValue("false") boolean withTotal,
+            @HeaderParam(HttpHeaders.IF_NONE_MATCH) String ifNoneMatch
+    ) {
+        try {
+            return colorService.listJson(cursor == null ? "" : cursor, size == null ? 0 : size, withTotal).toResponse(ifNoneMatch);
+        } catch (IllegalArgumentException exception) {
+            return Response.status(Response.Status.BAD_REQUEST).entity(exception.getMessage()).build();
+        }
     }
 
     @GET
     @Path("/{id}")
     @Operation(summary = "Get a color by id")
     @APIResponse(responseCode = "200", description = "Color found")
+    @APIResponse(responseCode = "304", description = "Color unchanged since the If-None-Match tag")
     @APIResponse(responseCode = "404", description = "Color not found")
-    public Response get(@PathParam("id") UUID id) {
-        Color color = colorService.findById(id);
-        if (color == null) {
+    public Response get(@PathParam("id") UUID id, @HeaderParam(HttpHeaders.IF_NONE_MATCH) String ifNoneMatch) {
+        TaggedJson json = colorService.findJson(id);
+        if (json == null) {
             return Response.status(Response.Status.NOT_FOUND).build();
         }
-        return Response.ok(colorMapper.toResponse(color)).build();
+        return json.toResponse(ifNoneMatch);
     }
 
     @POST
@@ -69,7 +86,7 @@ public class ColorResource {
     @APIResponse(responseCode = "201", description = "Color created")
     @APIResponse(responseCode = "400", description = "Invalid color payload")
     public Response create(@Valid ColorDTO.Create request, @Context UriInfo uriInfo) {
-        LOG.infof("COLOR_CREATE_ATTEMPT name=%s", request.name());
+        EventLog.info(LOG, "COLOR_CREATE_ATTEMPT", "name", request.name());
         Color created;
         try {
             created = colorService.create(colorMapper.toEntity(request));
@@ -87,24 +104,30 @@ public class ColorResource {
     @APIResponse(responseCode = "400", description = "Invalid color payload")
     @APIResponse(responseCode = "404", description = "Color not found")
     @APIResponse(responseCode = "409", description = "Optimistic lock failure (version mismatch)")
-    public Response update(@PathParam("id") UUID id, @Valid ColorDTO.Update request) {
-        LOG.infof("COLOR_UPDATE_ATTEMPT id=%s", id);
+    @APIResponse(responseCode = "412", description = "If-Match does not match the current version")
+    public Response update(
+            @PathParam("id") UUID id,
+            @HeaderParam(HttpHeaders.IF_MATCH) String ifMatch,
+            @Valid ColorDTO.Update request
+    ) {
+        EventLog.info(LOG, "COLOR_UPDATE_ATTEMPT", "id", id);
+        Long ifMatchVersion = ETags.ifMatchVersion(ifMatch, id);
         Color updated;
         try {
             Color updateData = new Color();
             colorMapper.updateEntity(updateData, request);
             
-            updated = colorService.update(id, updateData, request.version());
+            updated = colorService.update(id, updateData, ifMatchVersion != null ? ifMatchVersion : request.version());
         } catch (IllegalArgumentException exception) {
             return Response.status(Response.Status.BAD_REQUEST).entity(exception.getMessage()).build();
         } catch (OptimisticLockException e) {
-            return Response.status(Response.Status.CONFLICT).entity(e.getMessage()).build();
+            return Response.status(ETags.lockFailure(ifMatchVersion)).entity(e.getMessage()).build();
         }
         
         if (updated == null) {
             return Response.status(Response.Status.NOT_FOUND).build();
         }
-        return Response.ok(colorMapper.toResponse(updated)).build();
+        return Response.ok(colorMapper.toResponse(updated)).tag(ETags.of(updated)).build();
     }
 
     @DELETE
@@ -112,9 +135,15 @@ public class ColorResource {
     @Operation(summary = "Delete a color")
     @APIResponse(responseCode = "204", description = "Color deleted")
     @APIResponse(responseCode = "404", description = "Color not found")
-    public Response delete(@PathParam("id") UUID id) {
-        LOG.infof("COLOR_DELETE_ATTEMPT id=%s", id);
-        boolean deleted = colorService.delete(id);
+    @APIResponse(responseCode = "412", description = "If-Match does not match the current version")
+    public Response delete(@PathParam("id") UUID id, @HeaderParam(HttpHeaders.IF_MATCH) String ifMatch) {
+        EventLog.info(LOG, "COLOR_DELETE_ATTEMPT", "id", id);
+        boolean deleted;
+        try {
+            deleted = colorService.delete(id, ETags.ifMatchVersion(ifMatch, id));
+        } catch (OptimisticLockException e) {
+            return Response.status(Response.Status.PRECONDITION_FAILED).entity(e.getMessage()).build();
+        }
         if (!deleted) {
             return Response.status(Response.Status.NOT_FOUND).build();
         }
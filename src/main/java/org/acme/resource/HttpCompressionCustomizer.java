@@ -0,0 +1,28 @@
+package org.acme.resource;
+
+import io.quarkus.vertx.http.HttpServerOptionsCustomizer;
+import io.vertx.core.http.HttpServerOptions;
+import jakarta.enterprise.context.ApplicationScoped;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+
+/**
+ * Skips compression for small bodies (single entities, empty pages), where the encoder
+ * costs more CPU than the bytes it saves. Quarkus exposes the compressors and media types
+ * as config but not the size threshold.
+ */
+@ApplicationScoped
+public class HttpCompressionCustomizer implements HttpServerOptionsCustomizer {
+
+    @ConfigProperty(name = "app.http.compression.min-bytes", defaultValue = "1024")
+    int minBytes;
+
+    @Override
+    public void customizeHttpServer(HttpServerOptions options) {
+        options.setCompressionContentSizeThreshold(minBytes);
+    }
+
+    @Override
+    public void customizeHttpsServer(HttpServerOptions options) {
+        options.setCompressionContentSizeThreshold(minBytes);
+    }
+}
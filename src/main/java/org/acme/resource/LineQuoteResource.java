@@ -0,0 +1,62 @@
+package org.acme.resource;
+
+import io.smallrye.common.annotation.RunOnVirtualThread;
+import jakarta.inject.Inject;
+import jakarta.ws.rs.GET;
+import jakarta.ws.rs.HeaderParam;
+import jakarta.ws.rs.Path;
+import jakarta.ws.rs.PathParam;
+import jakarta.ws.rs.Produces;
+import jakarta.ws.rs.QueryParam;
+import jakarta.ws.rs.core.Context;
+import jakarta.ws.rs.core.HttpHeaders;
+import jakarta.ws.rs.core.MediaType;
+import jakarta.ws.rs.core.Request;
+import jakarta.ws.rs.core.Response;
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.UUID;
+import org.acme.dto.QuoteRankingResponse;
+import org.acme.mapper.BinaryJsonWriter;
+import org.acme.service.VendorQuoteService;
+import org.acme.util.ETags;
+import org.eclipse.microprofile.openapi.annotations.Operation;
+import org.eclipse.microprofile.openapi.annotations.responses.APIResponse;
+import org.eclipse.microprofile.openapi.annotations.tags.Tag;
+
+@Path("/lines/{lineId}/quotes")
+@Produces({MediaType.APPLICATION_JSON, BinaryJsonWriter.SMILE, BinaryJsonWriter.CBOR})
+@Tag(name = "Line Quotes", description = "Quote ranking across every product in a line")
+@RunOnVirtualThread
+public class LineQuoteResource {
+
+    @Inject
+    VendorQuoteService vendorQuoteService;
+
+    @GET
+    @Path("/ranking")
+    @Operation(summary = "Rank quotes by landed cost for every product in a line",
+            description = "Returns the top-N quotes per product, ordered by product then rank. Costs are converted at today's rate.")
+    @APIResponse(responseCode = "200", description = "Top-N quotes per product by landed-cost score")
+    @APIResponse(responseCode = "304", description = "Ranking unchanged since the If-None-Match tag")
+    @APIResponse(responseCode = "400", description = "Invalid topN, leadTimeWeight or currency")
+    @APIResponse(responseCode = "404", description = "Line not found")
+    public Response rankByLandedCost(
+            @PathParam("lineId") UUID lineId,
+            @QueryParam("topN") Integer topN,
+            @QueryParam("leadTimeWeight") BigDecimal leadTimeWeight,
+            @QueryParam("currency") String currency,
+            @HeaderParam(HttpHeaders.IF_NONE_MATCH) String ifNoneMatch,
+            @Context Request request
+    ) {
+        try {
+            List<QuoteRankingResponse> ranking = vendorQuoteService.rankByLine(lineId, topN, leadTimeWeight, currency);
+            return ETags.ok(request, ifNoneMatch, ETags.ofContent(ranking), () -> ranking);
+        } catch (IllegalArgumentException exception) {
+            return Response.status(Response.Status.BAD_REQUEST).entity(exception.getMessage()).build();
+        } catch (NoSuchElementException exception) {
+            return Response.status(Response.Status.NOT_FOUND).build();
+        }
+    }
+}
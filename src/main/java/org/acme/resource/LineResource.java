@@ -6,13 +6,17 @@ import jakarta.persistence.OptimisticLockException;
 import jakarta.validation.Valid;
 import jakarta.ws.rs.Consumes;
 import jakarta.ws.rs.DELETE;
+import jakarta.ws.rs.DefaultValue;
 import jakarta.ws.rs.GET;
+import jakarta.ws.rs.HeaderParam;
 import jakarta.ws.rs.POST;
 import jakarta.ws.rs.PUT;
 import jakarta.ws.rs.Path;
 import jakarta.ws.rs.PathParam;
 import jakarta.ws.rs.Produces;
+import jakarta.ws.rs.QueryParam;
 import jakarta.ws.rs.core.Context;
+import jakarta.ws.rs.core.HttpHeaders;
 import jakarta.ws.rs.core.MediaType;
 import jakarta.ws.rs.core.Response;
 import jakarta.ws.rs.core.UriInfo;
@@ -22,6 +26,9 @@ import org.acme.dto.LineDTO;
 import org.acme.entity.Line;
 import org.acme.mapper.LineMapper;
 import org.acme.service.LineService;
+import org.acme.util.ETags;
+import org.acme.util.EventLog;
+import org.acme.util.TaggedJson;
 import org.eclipse.microprofile.openapi.annotations.Operation;
 import org.eclipse.microprofile.openapi.annotations.responses.APIResponse;
 import org.eclipse.microprofile.openapi.annotations.tags.Tag;
@@ -44,24 +51,34 @@ public class LineResource {
 
     @GET
     @Operation(summary = "List lines")
-    @APIResponse(responseCode = "200", description = "Lines list")
-    public java.util.List<LineDTO.Response> list() {
-        return lineService.list().stream()
-                .map(lineMapper::toResponse)
-                .toList();
+    @APIResponse(responseCode = "200", description = "Lines page")
+    @APIResponse(responseCode = "304", description = "Page unchanged since the If-None-Match tag")
+    @APIResponse(responseCode = "400", description = "Invalid cursor")
+    public Response list(
+            @QueryParam("cursor") String cursor,
+            @QueryParam("size") Integer size,
+            @QueryParam("withTotal") @DefaultValue("false") boolean withTotal,
+            @HeaderParam(HttpHeaders.IF_NONE_MATCH) String ifNoneMatch
+    ) {
+        try {
+            return lineService.listJson(cursor == null ? "" : cursor, size == null ? 0 : size, withTotal).toResponse(ifNoneMatch);
+        } catch (IllegalArgumentException exception) {
+            return Response.status(Response.Status.BAD_REQUEST).entity(exception.getMessage()).build();
+        }
     }
 
     @GET
     @Path("/{id}")
     @Operation(summary = "Get a line by id")
     @APIResponse(responseCode = "200", description = "Line found")
+    @APIResponse(responseCode = "304", description = "Line unchanged since the If-None-Match tag")
     @APIResponse(responseCode = "404", description = "Line not found")
-    public Response get(@PathParam("id") UUID id) {
-        Line line = lineService.findById(id);
-        if (line == null) {
+    public Response get(@PathParam("id") UUID id, @HeaderParam(HttpHeaders.IF_NONE_MATCH) String ifNoneMatch) {
+        TaggedJson json = lineService.findJson(id);
+        if (json == null) {
             return Response.status(Response.Status.NOT_FOUND).build();
         }
-        return Response.ok(lineMapper.toResponse(line)).build();
+        return json.toResponse(ifNoneMatch);
     }
 
     @POST
@@ -69,7 +86,7 @@ public class LineResource {
     @APIResponse(responseCode = "201", description = "Line created")
     @APIResponse(responseCode = "400", description = "Invalid line payload")
     public Response create(@Valid LineDTO.Create request, @Context UriInfo uriInfo) {
-        LOG.infof("LINE_CREATE_ATTEMPT lineCode=%s", request.lineCode());
+        EventLog.info(LOG, "LINE_CREATE_ATTEMPT", "lineCode", request.lineCode());
         Line created;
         try {
             created = lineService.create(lineMapper.toEntity(request));
@@ -87,24 +104,30 @@ public class LineResource {
     @APIResponse(responseCode = "400", description = "Invalid line payload")
     @APIResponse(responseCode = "404", description = "Line not found")
     @APIResponse(responseCode = "409", description = "Optimistic lock failure (version mismatch)")
-    public Response update(@PathParam("id") UUID id, @Valid LineDTO.Update request) {
-        LOG.infof("LINE_UPDATE_ATTEMPT id=%s", id);
+    @APIResponse(responseCode = "412", description = "If-Match does not match the current version")
+    public Response update(
+            @PathParam("id") UUID id,
+            @HeaderParam(HttpHeaders.IF_MATCH) String ifMatch,
+            @Valid LineDTO.Update request
+    ) {
+        EventLog.info(LOG, "LINE_UPDATE_ATTEMPT", "id", id);
+        Long ifMatchVersion = ETags.ifMatchVersion(ifMatch, id);
         Line updated;
         try {
             Line updateData = new Line();
             lineMapper.updateEntity(updateData, request);
             
-            updated = lineService.update(id, updateData, request.version());
+            updated = lineService.update(id, updateData, ifMatchVersion != null ? ifMatchVersion : request.version());
         } catch (IllegalArgumentException exception) {
             return Response.status(Response.Status.BAD_REQUEST).entity(exception.getMessage()).build();
         } catch (OptimisticLockException e) {
-            return Response.status(Response.Status.CONFLICT).entity(e.getMessage()).build();
+            return Response.status(ETags.lockFailure(ifMatchVersion)).entity(e.getMessage()).build();
         }
         
         if (updated == null) {
             return Response.status(Response.Status.NOT_FOUND).build();
         }
-        return Response.ok(lineMapper.toResponse(updated)).build();
+        return Response.ok(lineMapper.toResponse(updated)).tag(ETags.of(updated)).build();
     }
 
     @DELETE
@@ -112,9 +135,15 @@ public class LineResource {
     @Operation(summary = "Delete a line")
     @APIResponse(responseCode = "204", description = "Line deleted")
     @APIResponse(responseCode = "404", description = "Line not found")
-    public Response delete(@PathParam("id") UUID id) {
-        LOG.infof("LINE_DELETE_ATTEMPT id=%s", id);
-        boolean deleted = lineService.delete(id);
+    @APIResponse(responseCode = "412", description = "If-Match does not match the current version")
+    public Response delete(@PathParam("id") UUID id, @HeaderParam(HttpHeaders.IF_MATCH) String ifMatch) {
+        EventLog.info(LOG, "LINE_DELETE_ATTEMPT", "id", id);
+        boolean deleted;
+        try {
+            deleted = lineService.delete(id, ETags.ifMatchVersion(ifMatch, id));
+        } catch (OptimisticLockException e) {
+            return Response.status(Response.Status.PRECONDITION_FAILED).entity(e.getMessage()).build();
+        }
         if (!deleted) {
             return Response.status(Response.Status.NOT_FOUND).build();
         }
@@ -4,26 +4,31 @@ import io.smallrye.common.annotation.RunOnVirtualThread;
 import jakarta.inject.Inject;
 import jakarta.ws.rs.DefaultValue;
 import jakarta.ws.rs.GET;
+import jakarta.ws.rs.HeaderParam;
 import jakarta.ws.rs.Path;
 import jakarta.ws.rs.PathParam;
 import jakarta.ws.rs.Produces;
 import jakarta.ws.rs.QueryParam;
+import jakarta.ws.rs.core.Context;
+import jakarta.ws.rs.core.HttpHeaders;
 import jakarta.ws.rs.core.MediaType;
+import jakarta.ws.rs.core.Request;
 import jakarta.ws.rs.core.Response;
-import java.time.LocalDate;
-import java.time.LocalDateTime;
+import java.math.BigDecimal;
 import java.util.List;
 import java.util.NoSuchElementException;
 import java.util.UUID;
-import org.acme.entity.VendorQuote;
-import org.acme.entity.VendorQuoteStatus;
+import org.acme.dto.ProductQuoteResponse;
+import org.acme.dto.QuoteRankingResponse;
+import org.acme.mapper.BinaryJsonWriter;
 import org.acme.service.VendorQuoteService;
+import org.acme.util.ETags;
 import org.eclipse.microprofile.openapi.annotations.Operation;
 import org.eclipse.microprofile.openapi.annotations.responses.APIResponse;
 import org.eclipse.microprofile.openapi.annotations.tags.Tag;
 
 @Path("/products/{productId}/quotes")
-@Produces(MediaType.APPLICATION_JSON)
+@Produces({MediaType.APPLICATION_JSON, BinaryJsonWriter.SMILE, BinaryJsonWriter.CBOR})
 @Tag(name = "Product Quotes", description = "Cross-vendor quote comparison for a product")
 @RunOnVirtualThread
 public class ProductQuoteResource {
@@ -32,66 +37,55 @@ public class ProductQuoteResource {
     VendorQuoteService vendorQuoteService;
 
     @GET
-    @Operation(summary = "List all quotes for a product across vendors")
+    @Operation(summary = "List all quotes for a product across vendors",
+            description = "Costs are also reported in currency (default: the FX base currency) at today's rate; sort=unitCost orders and pages by that normalized cost.")
     @APIResponse(responseCode = "200", description = "Product quotes list")
+    @APIResponse(responseCode = "304", description = "Quotes unchanged since the If-None-Match tag")
+    @APIResponse(responseCode = "400", description = "Unsupported sort or currency")
     @APIResponse(responseCode = "404", description = "Product not found")
     public Response listByProduct(
             @PathParam("productId") UUID productId,
-            @QueryParam("includeDeleted") @DefaultValue("false") boolean includeDeleted
+            @QueryParam("includeDeleted") @DefaultValue("false") boolean includeDeleted,
+            @QueryParam("sort") String sort,
+            @QueryParam("page") Integer page,
+            @QueryParam("size") Integer size,
+            @QueryParam("currency") String currency,
+            @HeaderParam(HttpHeaders.IF_NONE_MATCH) String ifNoneMatch,
+            @Context Request request
     ) {
         try {
-            List<VendorQuote> quotes = vendorQuoteService.listByProduct(productId, includeDeleted);
-            return Response.ok(toResponseList(quotes)).build();
+            List<ProductQuoteResponse> quotes = vendorQuoteService.compareByProduct(productId, includeDeleted, sort, page, size, currency);
+            return ETags.ok(request, ifNoneMatch, ETags.ofContent(quotes), () -> quotes);
+        } catch (IllegalArgumentException exception) {
+            return Response.status(Response.Status.BAD_REQUEST).entity(exception.getMessage()).build();
         } catch (NoSuchElementException exception) {
             return Response.status(Response.Status.NOT_FOUND).build();
         }
     }
 
-    private List<ProductQuoteResponse> toResponseList(List<VendorQuote> quotes) {
-        return quotes.stream().map(this::toResponse).toList();
-    }
-
-    private ProductQuoteResponse toResponse(VendorQuote quote) {
-        return new ProductQuoteResponse(
-                quote.id,
-                quote.productVendorSourcing.product.id,
-                quote.productVendorSourcing.id,
-                quote.productVendorSourcing.vendor.id,
-                quote.productVendorSourcing.vendor.name,
-                quote.quoteNumber,
-                quote.versionNumber,
-                quote.currencyCode,
-                quote.unitCost,
-                quote.moq,
-                quote.leadTimeDays,
-                quote.totalCost,
-                quote.validFrom,
-                quote.validTo,
-                quote.status,
-                quote.deleted,
-                quote.createdAt,
-                quote.updatedAt
-        );
+    @GET
+    @Path("/ranking")
+    @Operation(summary = "Rank a product's quotes by landed cost",
+            description = "Landed cost is unit cost plus logistics, duty and packaging, converted into currency (default: the FX base currency) at today's rate, spread over the product quantity when below MOQ, plus leadTimeWeight per lead-time day.")
+    @APIResponse(responseCode = "200", description = "Top-N quotes by landed-cost score")
+    @APIResponse(responseCode = "304", description = "Ranking unchanged since the If-None-Match tag")
+    @APIResponse(responseCode = "400", description = "Invalid topN, leadTimeWeight or currency")
+    @APIResponse(responseCode = "404", description = "Product not found")
+    public Response rankByLandedCost(
+            @PathParam("productId") UUID productId,
+            @QueryParam("topN") Integer topN,
+            @QueryParam("leadTimeWeight") BigDecimal leadTimeWeight,
+            @QueryParam("currency") String currency,
+            @HeaderParam(HttpHeaders.IF_NONE_MATCH) String ifNoneMatch,
+            @Context Request request
+    ) {
+        try {
+            List<QuoteRankingResponse> ranking = vendorQuoteService.rankByProduct(productId, topN, leadTimeWeight, currency);
+            return ETags.ok(request, ifNoneMatch, ETags.ofContent(ranking), () -> ranking);
+        } catch (IllegalArgumentException exception) {
+            return Response.status(Response.Status.BAD_REQUEST).entity(exception.getMessage()).build();
+        } catch (NoSuchElementException exception) {
+            return Response.status(Response.Status.NOT_FOUND).build();
+        }
     }
-
-    public record ProductQuoteResponse(
-            UUID id,
-            UUID productId,
-            UUID productVendorSourcingId,
-            UUID vendorId,
-            String vendorName,
-            String quoteNumber,
-            int versionNumber,
-            String currencyCode,
-            java.math.BigDecimal unitCost,
-            int moq,
-            int leadTimeDays,
-            java.math.BigDecimal totalCost,
-            LocalDate validFrom,
-            LocalDate validTo,
-            VendorQuoteStatus status,
-            boolean deleted,
-            LocalDateTime createdAt,
-            LocalDateTime updatedAt
-    ) {}
 }
@@ -1,29 +1,58 @@
 package org.acme.resource;
 
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
 import io.smallrye.common.annotation.RunOnVirtualThread;
 import jakarta.inject.Inject;
 import jakarta.persistence.OptimisticLockException;
+import jakarta.validation.ConstraintViolation;
 import jakarta.validation.Valid;
+import jakarta.validation.Validator;
 import jakarta.ws.rs.Consumes;
 import jakarta.ws.rs.DELETE;
+import jakarta.ws.rs.DefaultValue;
 import jakarta.ws.rs.GET;
+import jakarta.ws.rs.HeaderParam;
 import jakarta.ws.rs.POST;
 import jakarta.ws.rs.PUT;
 import jakarta.ws.rs.Path;
 import jakarta.ws.rs.PathParam;
 import jakarta.ws.rs.Produces;
+import jakarta.ws.rs.QueryParam;
 import jakarta.ws.rs.core.Context;
+import jakarta.ws.rs.core.EntityTag;
+import jakarta.ws.rs.core.HttpHeaders;
 import jakarta.ws.rs.core.MediaType;
+import jakarta.ws.rs.core.Request;
 import jakarta.ws.rs.core.Response;
+import jakarta.ws.rs.core.StreamingOutput;
 import jakarta.ws.rs.core.UriInfo;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
 import java.net.URI;
+import java.nio.charset.StandardCharsets;
 import java.util.List;
+import java.util.Map;
 import java.util.NoSuchElementException;
 import java.util.UUID;
 import org.acme.dto.ProductDTO;
+import org.acme.dto.SparseRow;
 import org.acme.entity.Product;
+import org.acme.mapper.BinaryJsonWriter;
 import org.acme.mapper.ProductMapper;
 import org.acme.service.ProductService;
+import org.acme.util.Csv;
+import org.acme.util.CursorPage;
+import org.acme.util.ETags;
+import org.acme.util.EventLog;
+import org.acme.util.PageResult;
 import org.eclipse.microprofile.openapi.annotations.Operation;
 import org.eclipse.microprofile.openapi.annotations.responses.APIResponse;
 import org.eclipse.microprofile.openapi.annotations.tags.Tag;
@@ -38,32 +67,114 @@ public class ProductResource {
     
     private static final Logger LOG = Logger.getLogger(ProductResource.class);
 
+    private static final String NDJSON = "application/x-ndjson";
+    private static final String CSV = "text/csv";
+
     @Inject
     ProductService productService;
 
     @Inject
     ProductMapper productMapper;
 
+    @Inject
+    ObjectMapper objectMapper;
+
+    @Inject
+    Validator validator;
+
     @GET
-    @Operation(summary = "List products")
-    @APIResponse(responseCode = "200", description = "Products list")
-    public List<ProductDTO.Response> list() {
-        return productService.list().stream()
-                .map(productMapper::toResponse)
-                .toList();
+    @Produces({MediaType.APPLICATION_JSON, BinaryJsonWriter.SMILE, BinaryJsonWriter.CBOR})
+    @Operation(summary = "List products",
+            description = "fields (e.g. id,name,price,lineId) limits the columns read and the properties returned per item.")
+    @APIResponse(responseCode = "200", description = "Products page")
+    @APIResponse(responseCode = "304", description = "Page unchanged since the If-None-Match tag")
+    @APIResponse(responseCode = "400", description = "Invalid cursor or unknown field")
+    public Response list(
+            @QueryParam("cursor") String cursor,
+            @QueryParam("size") Integer size,
+            @QueryParam("withTotal") @DefaultValue("false") boolean withTotal,
+            @QueryParam("fields") String fields,
+            @HeaderParam(HttpHeaders.IF_NONE_MATCH) String ifNoneMatch,
+            @Context Request request
+    ) {
+        try {
+            if (fields != null && !fields.isBlank()) {
+                CursorPage<SparseRow> sparse = productService.listFields(cursor, size, withTotal, fields);
+                EntityTag tag = ETags.ofList(sparse.items(), SparseRow::id, SparseRow::updatedAt,
+                        sparse.nextCursor(), sparse.estimatedTotal(),
+                        sparse.items().stream().map(row -> imageUrls(row.fields())).toList());
+                return ETags.ok(request, ifNoneMatch, tag, () -> sparse);
+            }
+            CursorPage<Product> page = productService.list(cursor, size, withTotal);
+            EntityTag tag = ETags.ofEntities(page.items(), page.nextCursor(), page.estimatedTotal(),
+                    page.items().stream().map(ProductResource::imageUrls).toList());
+            return ETags.ok(request, ifNoneMatch, tag, () -> page.map(productMapper::toResponse));
+        } catch (IllegalArgumentException exception) {
+            return Response.status(Response.Status.BAD_REQUEST).entity(exception.getMessage()).build();
+        }
+    }
+
+    @GET
+    @Path("/search")
+    @Produces({MediaType.APPLICATION_JSON, BinaryJsonWriter.SMILE, BinaryJsonWriter.CBOR})
+    @Operation(summary = "Search products",
+            description = "Full-text search over name, description, inspiration, buyer and line code. Every term must match and may be a prefix; results are ranked by relevance.")
+    @APIResponse(responseCode = "200", description = "Ranked products page")
+    @APIResponse(responseCode = "304", description = "Results unchanged since the If-None-Match tag")
+    @APIResponse(responseCode = "400", description = "Missing or empty search query")
+    public Response search(
+            @QueryParam("q") String q,
+            @QueryParam("page") Integer page,
+            @QueryParam("size") Integer size,
+            @HeaderParam(HttpHeaders.IF_NONE_MATCH) String ifNoneMatch,
+            @Context Request request
+    ) {
+        try {
+            PageResult<Product> result = productService.search(q, page, size);
+            EntityTag tag = ETags.ofEntities(result.items(), q, result.page(), result.size(), result.totalElements(),
+                    result.items().stream().map(ProductResource::imageUrls).toList());
+            return ETags.ok(request, ifNoneMatch, tag, () -> PageResult.of(
+                    result.items().stream().map(productMapper::toResponse).toList(),
+                    result.page(), result.size(), result.totalElements()));
+        } catch (IllegalArgumentException exception) {
+            return Response.status(Response.Status.BAD_REQUEST).entity(exception.getMessage()).build();
+        }
+    }
+
+    @GET
+    @Path("/export")
+    @Produces({NDJSON, CSV})
+    @Operation(summary = "Stream all products as NDJSON or CSV")
+    @APIResponse(responseCode = "200", description = "Product export stream")
+    @APIResponse(responseCode = "400", description = "Unsupported export format")
+    public Response export(@QueryParam("format") @DefaultValue("ndjson") String format) {
+        EventLog.info(LOG, "PRODUCT_EXPORT_ATTEMPT", "format", format);
+        if ("ndjson".equalsIgnoreCase(format)) {
+            StreamingOutput body = this::writeNdjson;
+            return Response.ok(body, NDJSON).build();
+        }
+        if ("csv".equalsIgnoreCase(format)) {
+            StreamingOutput body = this::writeCsv;
+            return Response.ok(body, CSV).build();
+        }
+        return Response.status(Response.Status.BAD_REQUEST)
+                .type(MediaType.TEXT_PLAIN)
+                .entity("Unsupported export format.")
+                .build();
     }
 
     @GET
     @Path("/{id}")
     @Operation(summary = "Get a product by id")
     @APIResponse(responseCode = "200", description = "Product found")
+    @APIResponse(responseCode = "304", description = "Product unchanged since the If-None-Match tag")
     @APIResponse(responseCode = "404", description = "Product not found")
-    public Response get(@PathParam("id") UUID id) {
+    public Response get(@PathParam("id") UUID id, @HeaderParam(HttpHeaders.IF_NONE_MATCH) String ifNoneMatch) {
         Product product = productService.findById(id);
         if (product == null) {
             return Response.status(Response.Status.NOT_FOUND).build();
         }
-        return Response.ok(productMapper.toResponse(product)).build();
+        return ETags.ok(ifNoneMatch, ETags.of(product, imageUrls(product)), () -> productMapper.toResponse(product));
     }
 
     @POST
@@ -71,7 +182,7 @@ public class ProductResource {
     @APIResponse(responseCode = "201", description = "Product created")
     @APIResponse(responseCode = "400", description = "Invalid product payload")
     public Response create(@Valid ProductDTO.Create request, @Context UriInfo uriInfo) {
-        LOG.infof("PRODUCT_CREATE_ATTEMPT name=%s", request.name());
+        EventLog.info(LOG, "PRODUCT_CREATE_ATTEMPT", "name", request.name());
         Product created;
         try {
             created = productService.create(productMapper.toEntity(request));
@@ -82,6 +193,26 @@ public class ProductResource {
         return Response.created(location).entity(productMapper.toResponse(created)).build();
     }
 
+    @POST
+    @Path("/batch")
+    @Operation(summary = "Create products in bulk")
+    @APIResponse(responseCode = "200", description = "Per-item batch results")
+    @APIResponse(responseCode = "400", description = "Empty or oversized batch")
+    public Response createBatch(List<ProductDTO.Create> requests) {
+        EventLog.info(LOG, "PRODUCT_BATCH_CREATE_ATTEMPT", "size", requests == null ? 0 : requests.size());
+        try {
+            List<Product> products = requests == null
+                    ? List.of()
+                    : requests.stream().map(productMapper::toEntity).toList();
+            List<String> violations = requests == null
+                    ? List.of()
+                    : requests.stream().map(this::firstViolation).toList();
+            return Response.ok(productService.createBatch(products, violations)).build();
+        } catch (IllegalArgumentException exception) {
+            return Response.status(Response.Status.BAD_REQUEST).entity(exception.getMessage()).build();
+        }
+    }
+
     @PUT
     @Path("/{id}")
     @Operation(summary = "Update a product")
@@ -89,24 +220,30 @@ public class ProductResource {
     @APIResponse(responseCode = "400", description = "Invalid product payload")
     @APIResponse(responseCode = "404", description = "Product not found")
     @APIResponse(responseCode = "409", description = "Optimistic lock failure (version mismatch)")
-    public Response update(@PathParam("id") UUID id, @Valid ProductDTO.Update request) {
-        LOG.infof("PRODUCT_UPDATE_ATTEMPT id=%s", id);
+    @APIResponse(responseCode = "412", description = "If-Match does not match the current version")
+    public Response update(
+            @PathParam("id") UUID id,
+            @HeaderParam(HttpHeaders.IF_MATCH) String ifMatch,
+            @Valid ProductDTO.Update request
+    ) {
+        EventLog.info(LOG, "PRODUCT_UPDATE_ATTEMPT", "id", id);
+        Long ifMatchVersion = ETags.ifMatchVersion(ifMatch, id);
         Product updated;
         try {
             Product updateData = new Product();
             productMapper.updateEntity(updateData, request);
             
-            updated = productService.update(id, updateData, request.version());
+            updated = productService.update(id, updateData, ifMatchVersion != null ? ifMatchVersion : request.version());
         } catch (IllegalArgumentException exception) {
             return Response.status(Response.Status.BAD_REQUEST).entity(exception.getMessage()).build();
         } catch (OptimisticLockException e) {
-            return Response.status(Response.Status.CONFLICT).entity(e.getMessage()).build();
+            return Response.status(ETags.lockFailure(ifMatchVersion)).entity(e.getMessage()).build();
         }
         
         if (updated == null) {
             return Response.status(Response.Status.NOT_FOUND).build();
         }
-        return Response.ok(productMapper.toResponse(updated)).build();
+        return Response.ok(productMapper.toResponse(updated)).tag(ETags.of(updated, imageUrls(updated))).build();
     }
 
     @DELETE
@@ -114,9 +251,15 @@ public class ProductResource {
     @Operation(summary = "Delete a product")
     @APIResponse(responseCode = "204", description = "Product deleted")
     @APIResponse(responseCode = "404", description = "Product not found")
-    public Response delete(@PathParam("id") UUID id) {
-        LOG.infof("PRODUCT_DELETE_ATTEMPT id=%s", id);
-        boolean deleted = productService.delete(id);
+    @APIResponse(responseCode = "412", description = "If-Match does not match the current version")
+    public Response delete(@PathParam("id") UUID id, @HeaderParam(HttpHeaders.IF_MATCH) String ifMatch) {
+        EventLog.info(LOG, "PRODUCT_DELETE_ATTEMPT", "id", id);
+        boolean deleted;
+        try {
+            deleted = productService.delete(id, ETags.ifMatchVersion(ifMatch, id));
+        } catch (OptimisticLockException e) {
+            return Response.status(Response.Status.PRECONDITION_FAILED).entity(e.getMessage()).build();
+        }
         if (!deleted) {
             return Response.status(Response.Status.NOT_FOUND).build();
         }
@@ -130,10 +273,10 @@ public class ProductResource {
     @APIResponse(responseCode = "200", description = "Product image uploaded")
     @APIResponse(responseCode = "400", description = "Invalid image payload or image already exists")
     @APIResponse(responseCode = "404", description = "Product not found")
-    public Response addImage(@PathParam("id") UUID id, byte[] imageBytes) {
-        LOG.infof("PRODUCT_IMAGE_ADD_ATTEMPT id=%s", id);
+    public Response addImage(@PathParam("id") UUID id, InputStream imageStream) {
+        EventLog.info(LOG, "PRODUCT_IMAGE_ADD_ATTEMPT", "id", id);
         try {
-            Product product = productService.addImage(id, imageBytes);
+            Product product = productService.addImage(id, imageStream);
             return Response.ok(productMapper.toResponse(product)).build();
         } catch (IllegalArgumentException exception) {
             return Response.status(Response.Status.BAD_REQUEST).entity(exception.getMessage()).build();
@@ -149,10 +292,10 @@ public class ProductResource {
     @APIResponse(responseCode = "200", description = "Product image replaced")
     @APIResponse(responseCode = "400", description = "Invalid image payload")
     @APIResponse(responseCode = "404", description = "Product not found")
-    public Response updateImage(@PathParam("id") UUID id, byte[] imageBytes) {
-        LOG.infof("PRODUCT_IMAGE_UPDATE_ATTEMPT id=%s", id);
+    public Response updateImage(@PathParam("id") UUID id, InputStream imageStream) {
+        EventLog.info(LOG, "PRODUCT_IMAGE_UPDATE_ATTEMPT", "id", id);
         try {
-            Product product = productService.updateImage(id, imageBytes);
+            Product product = productService.updateImage(id, imageStream);
             return Response.ok(productMapper.toResponse(product)).build();
         } catch (IllegalArgumentException exception) {
             return Response.status(Response.Status.BAD_REQUEST).entity(exception.getMessage()).build();
@@ -167,7 +310,7 @@ public class ProductResource {
     @APIResponse(responseCode = "204", description = "Product image removed")
     @APIResponse(responseCode = "404", description = "Product or image not found")
     public Response removeImage(@PathParam("id") UUID id) {
-        LOG.infof("PRODUCT_IMAGE_REMOVE_ATTEMPT id=%s", id);
+        EventLog.info(LOG, "PRODUCT_IMAGE_REMOVE_ATTEMPT", "id", id);
         try {
             boolean removed = productService.removeImage(id);
             if (!removed) {
@@ -178,4 +321,68 @@ public class ProductResource {
             return Response.status(Response.Status.NOT_FOUND).build();
         }
     }
+
+    private void writeNdjson(OutputStream output) throws IOException {
+        ObjectWriter rowWriter = objectMapper.writerFor(ProductDTO.Response.class)
+                .without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+        try (JsonGenerator generator = objectMapper.createGenerator(output)) {
+            generator.setRootValueSeparator(null);
+            productService.exportAll(product -> {
+                try {
+                    rowWriter.writeValue(generator, productMapper.toResponse(product));
+                    generator.writeRaw('\n');
+                } catch (IOException exception) {
+                    throw new UncheckedIOException(exception);
+                }
+            });
+        }
+    }
+
+    private void writeCsv(OutputStream output) throws IOException {
+        try (Writer writer = new BufferedWriter(new OutputStreamWriter(output, StandardCharsets.UTF_8))) {
+            Csv.writeRow(writer,
+                    "id", "version", "name", "lineId", "description", "lifecycle", "assortment", "buyPlan",
+                    "storeCost", "retailCost", "margin", "buyer", "setWeek", "inspiration", "imageReference",
+                    "imageUrl", "price", "quantity", "createdBy", "createdAt", "updatedBy", "updatedAt");
+            productService.exportAll(product -> {
+                ProductDTO.Response row = productMapper.toResponse(product);
+                try {
+                    Csv.writeRow(writer,
+                            row.id(), row.version(), row.name(), row.lineId(), row.description(), row.lifecycle(),
+                            row.assortment(), row.buyPlan(), row.storeCost(), row.retailCost(), row.margin(),
+                            row.buyer(), row.setWeek(), row.inspiration(), row.imageReference(), row.imageUrl(),
+                            row.price(), row.quantity(), row.createdBy(), row.createdAt(), row.updatedBy(),
+                            row.updatedAt());
+                } catch (IOException exception) {
+                    throw new UncheckedIOException(exception);
+                }
+            });
+        }
+    }
+
+    /**
+     * Bean validation message for one batch item, or null when it is valid. The batch body is
+     * not {@code @Valid}, so a bad item is reported as REJECTED instead of failing the request.
+     */
+    private String firstViolation(ProductDTO.Create request) {
+        if (request == null) {
+            return null;
+        }
+        return validator.validate(request).stream()
+                .map(ConstraintViolation::getMessage)
+                .sorted()
+                .findFirst()
+                .orElse(null);
+    }
+
+    /**
+     * Presigned URLs are re-signed without a version bump, so they are part of the tag.
+     */
+    private static String imageUrls(Product product) {
+        return product.imageUrl + " " + product.thumbnailUrl + " " + product.previewUrl;
+    }
+
+    private static String imageUrls(Map<String, Object> fields) {
+        return fields.get("imageUrl") + " " + fields.get("thumbnailUrl") + " " + fields.get("previewUrl");
+    }
 }
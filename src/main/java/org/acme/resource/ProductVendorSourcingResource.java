@@ -7,6 +7,7 @@ import jakarta.validation.Valid;
 import jakarta.ws.rs.Consumes;
 import jakarta.ws.rs.DELETE;
 import jakarta.ws.rs.GET;
+import jakarta.ws.rs.HeaderParam;
 import jakarta.ws.rs.PATCH;
 import jakarta.ws.rs.POST;
 import jakarta.ws.rs.PUT;
@@ -14,17 +15,24 @@ import jakarta.ws.rs.Path;
 import jakarta.ws.rs.PathParam;
 import jakarta.ws.rs.Produces;
 import jakarta.ws.rs.core.Context;
+import jakarta.ws.rs.core.EntityTag;
+import jakarta.ws.rs.core.HttpHeaders;
 import jakarta.ws.rs.core.MediaType;
+import jakarta.ws.rs.core.Request;
 import jakarta.ws.rs.core.Response;
 import jakarta.ws.rs.core.UriInfo;
 import java.net.URI;
 import java.util.List;
+import java.util.Map;
 import java.util.NoSuchElementException;
 import java.util.UUID;
 import org.acme.dto.ProductVendorSourcingDTO;
 import org.acme.entity.ProductVendorSourcing;
+import org.acme.mapper.BinaryJsonWriter;
 import org.acme.mapper.ProductVendorSourcingMapper;
 import org.acme.service.ProductVendorSourcingService;
+import org.acme.util.ETags;
+import org.acme.util.EventLog;
 import org.eclipse.microprofile.openapi.annotations.Operation;
 import org.eclipse.microprofile.openapi.annotations.responses.APIResponse;
 import org.eclipse.microprofile.openapi.annotations.tags.Tag;
@@ -46,18 +54,25 @@ public class ProductVendorSourcingResource {
     ProductVendorSourcingMapper productVendorSourcingMapper;
 
     @GET
+    @Produces({MediaType.APPLICATION_JSON, BinaryJsonWriter.SMILE, BinaryJsonWriter.CBOR})
     @Operation(summary = "List vendors linked to a product")
-    @APIResponse(responseCode = "200", description = "Linked vendors list")
+    @APIResponse(responseCode = "200", description = "Linked vendors list with each link's current quote summary")
+    @APIResponse(responseCode = "304", description = "Links and summaries unchanged since the If-None-Match tag")
     @APIResponse(responseCode = "404", description = "Product not found")
-    public Response list(@PathParam("productId") UUID productId) {
+    public Response list(
+            @PathParam("productId") UUID productId,
+            @HeaderParam(HttpHeaders.IF_NONE_MATCH) String ifNoneMatch,
+            @Context Request request
+    ) {
         try {
-            return Response.ok(
-                productVendorSourcingService.listByProduct(productId).stream()
-                    .map(productVendorSourcingMapper::toResponse)
-                    .toList()
-            ).build();
+            List<ProductVendorSourcing> links = productVendorSourcingService.listByProduct(productId);
+            Map<UUID, ProductVendorSourcingDTO.QuoteSummary> summaries = productVendorSourcingService.quoteSummariesByProduct(productId);
+            EntityTag tag = ETags.ofEntities(links, links.stream().map(link -> summaries.get(link.id)).toList());
+            return ETags.ok(request, ifNoneMatch, tag, () -> links.stream()
+                    .map(link -> productVendorSourcingMapper.toResponse(link, summaries.get(link.id)))
+                    .toList());
         } catch (NoSuchElementException exception) {
-            return Response.status(Response.Status.NOT_FOUND).build();
+            return Response.status(Response.Status.NOT_FOUND).entity(exception.getMessage()).build();
         }
     }
 
@@ -71,7 +86,7 @@ public class ProductVendorSourcingResource {
             @Valid ProductVendorSourcingDTO.Create request,
             @Context UriInfo uriInfo
     ) {
-        LOG.infof("PRODUCT_VENDOR_LINK_ATTEMPT vendorId=%s productId=%s", request.vendorId(), productId);
+        EventLog.info(LOG, "PRODUCT_VENDOR_LINK_ATTEMPT", "vendorId", request.vendorId(), "productId", productId);
         try {
             ProductVendorSourcing created = productVendorSourcingService.create(productId, productVendorSourcingMapper.toEntity(request));
             URI location = uriInfo.getAbsolutePathBuilder().path(created.id.toString()).build();
@@ -79,7 +94,7 @@ public class ProductVendorSourcingResource {
         } catch (IllegalArgumentException exception) {
             return Response.status(Response.Status.BAD_REQUEST).entity(exception.getMessage()).build();
         } catch (NoSuchElementException exception) {
-            return Response.status(Response.Status.NOT_FOUND).build();
+            return Response.status(Response.Status.NOT_FOUND).entity(exception.getMessage()).build();
         }
     }
 
@@ -90,24 +105,28 @@ public class ProductVendorSourcingResource {
     @APIResponse(responseCode = "400", description = "Invalid payload")
     @APIResponse(responseCode = "404", description = "Product, vendor, or link not found")
     @APIResponse(responseCode = "409", description = "Optimistic lock failure")
+    @APIResponse(responseCode = "412", description = "If-Match does not match the current version")
     public Response update(
             @PathParam("productId") UUID productId,
             @PathParam("linkId") UUID linkId,
+            @HeaderParam(HttpHeaders.IF_MATCH) String ifMatch,
             @Valid ProductVendorSourcingDTO.Update request
     ) {
-        LOG.infof("PRODUCT_VENDOR_UPDATE_ATTEMPT linkId=%s productId=%s", linkId, productId);
+        EventLog.info(LOG, "PRODUCT_VENDOR_UPDATE_ATTEMPT", "linkId", linkId, "productId", productId);
+        Long ifMatchVersion = ETags.ifMatchVersion(ifMatch, linkId);
         try {
             ProductVendorSourcing updateData = new ProductVendorSourcing();
             productVendorSourcingMapper.updateEntity(updateData, request);
             
-            ProductVendorSourcing updated = productVendorSourcingService.update(productId, linkId, updateData, request.version());
-            return Response.ok(productVendorSourcingMapper.toResponse(updated)).build();
+            ProductVendorSourcing updated = productVendorSourcingService.update(
+                    productId, linkId, updateData, ifMatchVersion != null ? ifMatchVersion : request.version());
+            return Response.ok(productVendorSourcingMapper.toResponse(updated)).tag(ETags.of(updated)).build();
         } catch (IllegalArgumentException exception) {
             return Response.status(Response.Status.BAD_REQUEST).entity(exception.getMessage()).build();
         } catch (NoSuchElementException exception) {
-            return Response.status(Response.Status.NOT_FOUND).build();
+            return Response.status(Response.Status.NOT_FOUND).entity(exception.getMessage()).build();
         } catch (OptimisticLockException exception) {
-            return Response.status(Response.Status.CONFLICT).entity(exception.getMessage()).build();
+            return Response.status(ETags.lockFailure(ifMatchVersion)).entity(exception.getMessage()).build();
         }
     }
 
@@ -116,11 +135,22 @@ public class ProductVendorSourcingResource {
     @Operation(summary = "Remove a vendor link from a product")
     @APIResponse(responseCode = "204", description = "Vendor link removed")
     @APIResponse(responseCode = "404", description = "Product vendor link not found")
-    public Response delete(@PathParam("productId") UUID productId, @PathParam("linkId") UUID linkId) {
-        LOG.infof("PRODUCT_VENDOR_REMOVE_ATTEMPT linkId=%s productId=%s", linkId, productId);
-        boolean deleted = productVendorSourcingService.delete(productId, linkId);
-        if (!deleted) {
-            return Response.status(Response.Status.NOT_FOUND).build();
+    @APIResponse(responseCode = "409", description = "Vendor link has live, deleted or archived quotes")
+    @APIResponse(responseCode = "412", description = "If-Match does not match the current version")
+    public Response delete(
+            @PathParam("productId") UUID productId,
+            @PathParam("linkId") UUID linkId,
+            @HeaderParam(HttpHeaders.IF_MATCH) String ifMatch
+    ) {
+        EventLog.info(LOG, "PRODUCT_VENDOR_REMOVE_ATTEMPT", "linkId", linkId, "productId", productId);
+        try {
+            productVendorSourcingService.delete(productId, linkId, ETags.ifMatchVersion(ifMatch, linkId));
+        } catch (OptimisticLockException exception) {
+            return Response.status(Response.Status.PRECONDITION_FAILED).entity(exception.getMessage()).build();
+        } catch (NoSuchElementException exception) {
+            return Response.status(Response.Status.NOT_FOUND).entity(exception.getMessage()).build();
+        } catch (IllegalStateException exception) {
+            return Response.status(Response.Status.CONFLICT).entity(exception.getMessage()).build();
         }
         return Response.noContent().build();
     }
@@ -0,0 +1,52 @@
+package org.acme.resource;
+
+import io.smallrye.common.annotation.RunOnVirtualThread;
+import jakarta.inject.Inject;
+import jakarta.validation.Valid;
+import jakarta.ws.rs.Consumes;
+import jakarta.ws.rs.POST;
+import jakarta.ws.rs.Path;
+import jakarta.ws.rs.Produces;
+import jakarta.ws.rs.core.MediaType;
+import jakarta.ws.rs.core.Response;
+import org.acme.dto.VendorQuoteDTO;
+import org.acme.entity.AuditListener;
+import org.acme.service.VendorQuoteService;
+import org.acme.service.VendorQuoteStatusCommand;
+import org.acme.util.EventLog;
+import org.eclipse.microprofile.openapi.annotations.Operation;
+import org.eclipse.microprofile.openapi.annotations.responses.APIResponse;
+import org.eclipse.microprofile.openapi.annotations.tags.Tag;
+import org.jboss.logging.Logger;
+
+@Path("/quotes")
+@Consumes(MediaType.APPLICATION_JSON)
+@Produces(MediaType.APPLICATION_JSON)
+@Tag(name = "Vendor Quotes", description = "Vendor costsheets and quote workflows")
+@RunOnVirtualThread
+public class QuoteStatusBatchResource {
+
+    private static final Logger LOG = Logger.getLogger(QuoteStatusBatchResource.class);
+
+    @Inject
+    VendorQuoteService vendorQuoteService;
+
+    @POST
+    @Path("/status-batch")
+    @Operation(summary = "Transition many quotes to one status",
+            description = "Each quote is reported as UPDATED, UNCHANGED, REJECTED (with the rule it broke) or NOT_FOUND.")
+    @APIResponse(responseCode = "200", description = "Per-quote batch results")
+    @APIResponse(responseCode = "400", description = "Empty or oversized batch, or missing status")
+    public Response updateStatusBatch(@Valid VendorQuoteDTO.BatchUpdateStatus request) {
+        if (request == null) {
+            return Response.status(Response.Status.BAD_REQUEST).entity("Batch payload is required.").build();
+        }
+        EventLog.info(LOG, "VENDOR_QUOTE_STATUS_BATCH_ATTEMPT", "status", request.status(), "size", request.quoteIds().size());
+        try {
+            VendorQuoteStatusCommand command = new VendorQuoteStatusCommand(request.status(), AuditListener.getCurrentActor(), request.comment());
+            return Response.ok(vendorQuoteService.updateStatusBatch(request.quoteIds(), command)).build();
+        } catch (IllegalArgumentException exception) {
+            return Response.status(Response.Status.BAD_REQUEST).entity(exception.getMessage()).build();
+        }
+    }
+}
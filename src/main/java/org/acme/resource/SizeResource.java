@@ -5,20 +5,26 @@ import jakarta.persistence.OptimisticLockException;
 import jakarta.validation.Valid;
 import jakarta.ws.rs.Consumes;
 import jakarta.ws.rs.DELETE;
+import jakarta.ws.rs.DefaultValue;
 import jakarta.ws.rs.GET;
+import jakarta.ws.rs.HeaderParam;
 import jakarta.ws.rs.POST;
 import jakarta.ws.rs.PUT;
 import jakarta.ws.rs.Path;
 import jakarta.ws.rs.PathParam;
 import jakarta.ws.rs.Produces;
+import jakarta.ws.rs.QueryParam;
 import jakarta.ws.rs.core.Context;
+import jakarta.ws.rs.core.HttpHeaders;
 import jakarta.ws.rs.core.MediaType;
 import jakarta.ws.rs.core.Response;
 import jakarta.ws.rs.core.UriInfo;
 import java.net.URI;
-import java.util.List;
 import java.util.UUID;
 import io.smallrye.common.annotation.RunOnVirtualThread;
+import org.acme.util.ETags;
+import org.acme.util.EventLog;
+import org.acme.util.TaggedJson;
 import org.eclipse.microprofile.openapi.annotations.Operation;
 import org.eclipse.microprofile.openapi.annotations.tags.Tag;
 import org.eclipse.microprofile.openapi.annotations.responses.APIResponse;
@@ -45,24 +51,34 @@ public class SizeResource {
 
     @GET
     @Operation(summary = "List sizes")
-    @APIResponse(responseCode = "200", description = "Sizes list")
-    public List<SizeDTO.Response> list() {
-        return sizeService.list().stream()
-                .map(sizeMapper::toResponse)
-                .toList();
+    @APIResponse(responseCode = "200", description = "Sizes page")
+    @APIResponse(responseCode = "304", description = "Page unchanged since the If-None-Match tag")
+    @APIResponse(responseCode = "400", description = "Invalid cursor")
+    public Response list(
+            @QueryParam("cursor") String cursor,
+            @QueryParam("size") Integer size,
+            @QueryParam("withTotal") @DefaultValue("false") boolean withTotal,
+            @HeaderParam(HttpHeaders.IF_NONE_MATCH) String ifNoneMatch
+    ) {
+        try {
+            return sizeService.listJson(cursor == null ? "" : cursor, size == null ? 0 : size, withTotal).toResponse(ifNoneMatch);
+        } catch (IllegalArgumentException exception) {
+            return Response.status(Response.Status.BAD_REQUEST).entity(exception.getMessage()).build();
+        }
     }
 
     @GET
     @Path("/{id}")
     @Operation(summary = "Get a size by id")
     @APIResponse(responseCode = "200", description = "Size found")
+    @APIResponse(responseCode = "304", description = "Size unchanged since the If-None-Match tag")
     @APIResponse(responseCode = "404", description = "Size not found")
-    public Response get(@PathParam("id") UUID id) {
-        Size size = sizeService.findById(id);
-        if (size == null) {
+    public Response get(@PathParam("id") UUID id, @HeaderParam(HttpHeaders.IF_NONE_MATCH) String ifNoneMatch) {
+        TaggedJson json = sizeService.findJson(id);
+        if (json == null) {
             return Response.status(Response.Status.NOT_FOUND).build();
         }
-        return Response.ok(sizeMapper.toResponse(size)).build();
+        return json.toResponse(ifNoneMatch);
     }
 
     @POST
@@ -70,7 +86,7 @@ public class SizeResource {
     @APIResponse(responseCode = "201", description = "Size created")
     @APIResponse(responseCode = "400", description = "Invalid size payload")
     public Response create(@Valid SizeDTO.Create request, @Context UriInfo uriInfo) {
-        LOG.infof("SIZE_CREATE_ATTEMPT name=%s", request.name());
+        EventLog.info(LOG, "SIZE_CREATE_ATTEMPT", "name", request.name());
         Size created;
         try {
             created = sizeService.create(sizeMapper.toEntity(request));
@@ -88,24 +104,30 @@ public class SizeResource {
     @APIResponse(responseCode = "400", description = "Invalid size payload")
     @APIResponse(responseCode = "404", description = "Size not found")
     @APIResponse(responseCode = "409", description = "Optimistic lock failure (version mismatch)")
-    public Response update(@PathParam("id") UUID id, @Valid SizeDTO.Update request) {
-        LOG.infof("SIZE_UPDATE_ATTEMPT id=%s", id);
+    @APIResponse(responseCode = "412", description = "If-Match does not match the current version")
+    public Response update(
+            @PathParam("id") UUID id,
+            @HeaderParam(HttpHeaders.IF_MATCH) String ifMatch,
+            @Valid SizeDTO.Update request
+    ) {
+        EventLog.info(LOG, "SIZE_UPDATE_ATTEMPT", "id", id);
+        Long ifMatchVersion = ETags.ifMatchVersion(ifMatch, id);
         Size updated;
         try {
             Size updateData = new Size();
             sizeMapper.updateEntity(updateData, request);
             
-            updated = sizeService.update(id, updateData, request.version());
+            updated = sizeService.update(id, updateData, ifMatchVersion != null ? ifMatchVersion : request.version());
         } catch (IllegalArgumentException exception) {
             return Response.status(Response.Status.BAD_REQUEST).entity(exception.getMessage()).build();
         } catch (OptimisticLockException e) {
-            return Response.status(Response.Status.CONFLICT).entity(e.getMessage()).build();
+            return Response.status(ETags.lockFailure(ifMatchVersion)).entity(e.getMessage()).build();
         }
         
         if (updated == null) {
             return Response.status(Response.Status.NOT_FOUND).build();
         }
-        return Response.ok(sizeMapper.toResponse(updated)).build();
+        return Response.ok(sizeMapper.toResponse(updated)).tag(ETags.of(updated)).build();
     }
 
     @DELETE
@@ -113,9 +135,15 @@ public class SizeResource {
     @Operation(summary = "Delete a size")
     @APIResponse(responseCode = "204", description = "Size deleted")
     @APIResponse(responseCode = "404", description = "Size not found")
-    public Response delete(@PathParam("id") UUID id) {
-        LOG.infof("SIZE_DELETE_ATTEMPT id=%s", id);
-        boolean deleted = sizeService.delete(id);
+    @APIResponse(responseCode = "412", description = "If-Match does not match the current version")
+    public Response delete(@PathParam("id") UUID id, @HeaderParam(HttpHeaders.IF_MATCH) String ifMatch) {
+        EventLog.info(LOG, "SIZE_DELETE_ATTEMPT", "id", id);
+        boolean deleted;
+        try {
+            deleted = sizeService.delete(id, ETags.ifMatchVersion(ifMatch, id));
+        } catch (OptimisticLockException e) {
+            return Response.status(Response.Status.PRECONDITION_FAILED).entity(e.getMessage()).build();
+        }
         if (!deleted) {
             return Response.status(Response.Status.NOT_FOUND).build();
         }
@@ -6,23 +6,29 @@ import jakarta.persistence.OptimisticLockException;
 import jakarta.validation.Valid;
 import jakarta.ws.rs.Consumes;
 import jakarta.ws.rs.DELETE;
+import jakarta.ws.rs.DefaultValue;
 import jakarta.ws.rs.GET;
+import jakarta.ws.rs.HeaderParam;
 import jakarta.ws.rs.POST;
 import jakarta.ws.rs.PUT;
 import jakarta.ws.rs.Path;
 import jakarta.ws.rs.PathParam;
 import jakarta.ws.rs.Produces;
+import jakarta.ws.rs.QueryParam;
 import jakarta.ws.rs.core.Context;
+import jakarta.ws.rs.core.HttpHeaders;
 import jakarta.ws.rs.core.MediaType;
 import jakarta.ws.rs.core.Response;
 import jakarta.ws.rs.core.UriInfo;
 import java.net.URI;
-import java.util.List;
 import java.util.UUID;
 import org.acme.dto.VendorDTO;
 import org.acme.entity.Vendor;
 import org.acme.mapper.VendorMapper;
 import org.acme.service.VendorService;
+import org.acme.util.ETags;
+import org.acme.util.EventLog;
+import org.acme.util.TaggedJson;
 import org.eclipse.microprofile.openapi.annotations.Operation;
 import org.eclipse.microprofile.openapi.annotations.responses.APIResponse;
 import org.eclipse.microprofile.openapi.annotations.tags.Tag;
@@ -45,24 +51,34 @@ public class VendorResource {
 
     @GET
     @Operation(summary = "List vendors")
-    @APIResponse(responseCode = "200", description = "Vendors list")
-    public List<VendorDTO.Response> list() {
-        return vendorService.list().stream()
-                .map(vendorMapper::toResponse)
-                .toList();
+    @APIResponse(responseCode = "200", description = "Vendors page")
+    @APIResponse(responseCode = "304", description = "Page unchanged since the If-None-Match tag")
+    @APIResponse(responseCode = "400", description = "Invalid cursor")
+    public Response list(
+            @QueryParam("cursor") String cursor,
+            @QueryParam("size") Integer size,
+            @QueryParam("withTotal") @DefaultValue("false") boolean withTotal,
+            @HeaderParam(HttpHeaders.IF_NONE_MATCH) String ifNoneMatch
+    ) {
+        try {
+            return vendorService.listJson(cursor == null ? "" : cursor, size == null ? 0 : size, withTotal).toResponse(ifNoneMatch);
+        } catch (IllegalArgumentException exception) {
+            return Response.status(Response.Status.BAD_REQUEST).entity(exception.getMessage()).build();
+        }
     }
 
     @GET
     @Path("/{id}")
     @Operation(summary = "Get a vendor by id")
     @APIResponse(responseCode = "200", description = "Vendor found")
+    @APIResponse(responseCode = "304", description = "Vendor unchanged since the If-None-Match tag")
     @APIResponse(responseCode = "404", description = "Vendor not found")
-    public Response get(@PathParam("id") UUID id) {
-        Vendor vendor = vendorService.findById(id);
-        if (vendor == null) {
+    public Response get(@PathParam("id") UUID id, @HeaderParam(HttpHeaders.IF_NONE_MATCH) String ifNoneMatch) {
+        TaggedJson json = vendorService.findJson(id);
+        if (json == null) {
             return Response.status(Response.Status.NOT_FOUND).build();
         }
-        return Response.ok(vendorMapper.toResponse(vendor)).build();
+        return json.toResponse(ifNoneMatch);
     }
 
     @POST
@@ -70,7 +86,7 @@ public class VendorResource {
     @APIResponse(responseCode = "201", description = "Vendor created")
     @APIResponse(responseCode = "400", description = "Invalid vendor payload")
     public Response create(@Valid VendorDTO.Create request, @Context UriInfo uriInfo) {
-        LOG.infof("VENDOR_CREATE_ATTEMPT name=%s", request.name());
+        EventLog.info(LOG, "VENDOR_CREATE_ATTEMPT", "name", request.name());
         Vendor created;
         try {
             created = vendorService.create(vendorMapper.toEntity(request));
@@ -88,24 +104,30 @@ public class VendorResource {
     @APIResponse(responseCode = "400", description = "Invalid vendor payload")
     @APIResponse(responseCode = "404", description = "Vendor not found")
     @APIResponse(responseCode = "409", description = "Optimistic lock failure (version mismatch)")
-    public Response update(@PathParam("id") UUID id, @Valid VendorDTO.Update request) {
-        LOG.infof("VENDOR_UPDATE_ATTEMPT id=%s", id);
+    @APIResponse(responseCode = "412", description = "If-Match does not match the current version")
+    public Response update(
+            @PathParam("id") UUID id,
+            @HeaderParam(HttpHeaders.IF_MATCH) String ifMatch,
+            @Valid VendorDTO.Update request
+    ) {
+        EventLog.info(LOG, "VENDOR_UPDATE_ATTEMPT", "id", id);
+        Long ifMatchVersion = ETags.ifMatchVersion(ifMatch, id);
         Vendor updated;
         try {
             Vendor updateData = new Vendor();
             vendorMapper.updateEntity(updateData, request);
             
-            updated = vendorService.update(id, updateData, request.version());
+            updated = vendorService.update(id, updateData, ifMatchVersion != null ? ifMatchVersion : request.version());
         } catch (IllegalArgumentException exception) {
             return Response.status(Response.Status.BAD_REQUEST).entity(exception.getMessage()).build();
         } catch (OptimisticLockException e) {
-            return Response.status(Response.Status.CONFLICT).entity(e.getMessage()).build();
+            return Response.status(ETags.lockFailure(ifMatchVersion)).entity(e.getMessage()).build();
         }
         
         if (updated == null) {
             return Response.status(Response.Status.NOT_FOUND).build();
         }
-        return Response.ok(vendorMapper.toResponse(updated)).build();
+        return Response.ok(vendorMapper.toResponse(updated)).tag(ETags.of(updated)).build();
     }
 
     @DELETE
@@ -113,9 +135,15 @@ public class VendorResource {
     @Operation(summary = "Delete a vendor")
     @APIResponse(responseCode = "204", description = "Vendor deleted")
     @APIResponse(responseCode = "404", description = "Vendor not found")
-    public Response delete(@PathParam("id") UUID id) {
-        LOG.infof("VENDOR_DELETE_ATTEMPT id=%s", id);
-        boolean deleted = vendorService.delete(id);
+    @APIResponse(responseCode = "412", description = "If-Match does not match the current version")
+    public Response delete(@PathParam("id") UUID id, @HeaderParam(HttpHeaders.IF_MATCH) String ifMatch) {
+        EventLog.info(LOG, "VENDOR_DELETE_ATTEMPT", "id", id);
+        boolean deleted;
+        try {
+            deleted = vendorService.delete(id, ETags.ifMatchVersion(ifMatch, id));
+        } catch (OptimisticLockException e) {
+            return Response.status(Response.Status.PRECONDITION_FAILED).entity(e.getMessage()).build();
+        }
         if (!deleted) {
             return Response.status(Response.Status.NOT_FOUND).build();
         }
@@ -1,5 +1,6 @@
 package org.acme.service;
 
+import io.quarkus.cache.CacheResult;
 import jakarta.enterprise.context.ApplicationScoped;
 import jakarta.inject.Inject;
 import jakarta.persistence.Id;
@@ -9,7 +10,15 @@ import jakarta.transaction.Transactional;
 import java.util.List;
 import java.util.UUID;
 import org.acme.entity.Color;
+import org.acme.mapper.ColorMapper;
+import org.acme.mapper.ResponseSerializer;
 import org.acme.repository.ColorRepository;
+import org.acme.repository.TableStatsRepository;
+import org.acme.util.CursorPage;
+import org.acme.util.ETags;
+import org.acme.util.EventLog;
+import org.acme.util.Paging;
+import org.acme.util.TaggedJson;
 import org.jboss.logging.Logger;
 
 @ApplicationScoped
@@ -17,20 +26,53 @@ public class ColorService {
 
     private static final Logger LOG = Logger.getLogger(ColorService.class);
 
+    @Inject
+    ReferenceDataCaches referenceDataCaches;
+
     @Inject
     ColorRepository colorRepository;
 
-    public java.util.List<Color> list() {
-        return colorRepository.listAll();
+    @Inject
+    TableStatsRepository tableStatsRepository;
+
+    @Inject
+    ColorMapper colorMapper;
+
+    @Inject
+    ResponseSerializer responseSerializer;
+
+    public CursorPage<Color> list(String cursor, Integer size, boolean withTotal) {
+        CursorPage<Color> page = Paging.keyset(colorRepository, cursor, size);
+        if (withTotal) {
+            page = page.withEstimatedTotal(tableStatsRepository.estimateRowCount("color", colorRepository::count));
+        }
+        return page;
     }
 
     public Color findById(UUID id) {
         return colorRepository.findById(id);
     }
 
+    @CacheResult(cacheName = "colors")
+    public TaggedJson listJson(String cursor, int size, boolean withTotal) {
+        CursorPage<Color> page = list(cursor, size, withTotal);
+        return new TaggedJson(
+                responseSerializer.toJson(page.map(colorMapper::toResponse)),
+                ETags.ofEntities(page.items(), page.nextCursor(), page.estimatedTotal()));
+    }
+
+    @CacheResult(cacheName = "colors")
+    public TaggedJson findJson(UUID id) {
+        Color color = findById(id);
+        if (color == null) {
+            return null;
+        }
+        return new TaggedJson(responseSerializer.toJson(colorMapper.toResponse(color)), ETags.of(color));
+    }
+
     @Transactional
     public Color create(Color color) {
-
+        referenceDataCaches.invalidateAfterCommit("colors");
         if (color == null || color.name == null || color.name.isBlank()) {
             throw new IllegalArgumentException("Color name is required.");
         }
@@ -39,12 +81,13 @@ public class ColorService {
         }
         color.id = null;
         colorRepository.persist(color);
-        LOG.infof("COLOR_CREATED id=%s name=%s", color.id, color.name);
+        EventLog.info(LOG, "COLOR_CREATED", "id", color.id, "name", color.name);
         return color;
     }
 
     @Transactional
     public Color update(UUID id, Color updateData, long version) {
+        referenceDataCaches.invalidateAfterCommit("colors");
         if (updateData == null) {
             throw new IllegalArgumentException("Color payload is required.");
         }
@@ -58,16 +101,22 @@ public class ColorService {
         existing.name = updateData.name;
         existing.description = updateData.description;
         existing.rgb = updateData.rgb;
-        LOG.infof("COLOR_UPDATED id=%s", existing.id);
+        EventLog.info(LOG, "COLOR_UPDATED", "id", existing.id);
         return existing;
     }
 
     @Transactional
-    public boolean delete(UUID id) {
-        boolean deleted = colorRepository.deleteById(id);
-        if (deleted) {
-            LOG.infof("COLOR_DELETED id=%s", id);
+    public boolean delete(UUID id, Long expectedVersion) {
+        referenceDataCaches.invalidateAfterCommit("colors");
+        Color existing = colorRepository.findById(id);
+        if (existing == null) {
+            return false;
+        }
+        if (expectedVersion != null && existing.version != expectedVersion) {
+            throw new OptimisticLockException("Version mismatch. Expected " + expectedVersion + " but found " + existing.version);
         }
-        return deleted;
+        colorRepository.delete(existing);
+        EventLog.info(LOG, "COLOR_DELETED", "id", id);
+        return true;
     }
 }
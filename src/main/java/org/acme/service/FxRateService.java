@@ -0,0 +1,173 @@
+package org.acme.service;
+
+import io.quarkus.narayana.jta.QuarkusTransaction;
+import io.quarkus.runtime.StartupEvent;
+import io.quarkus.scheduler.Scheduled;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.event.Observes;
+import jakarta.inject.Inject;
+import java.io.BufferedReader;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicReference;
+import org.acme.repository.FxRateRepository;
+import org.acme.repository.FxRateRepository.FxRateRow;
+import org.acme.util.EventLog;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.jboss.logging.Logger;
+
+/**
+ * Holds the current {@link FxRateSnapshot}. A refresh loads rates from the configured
+ * source (a {@code classpath:} resource, a file path or an http(s) URL serving
+ * {@code rate_date,base_currency,quote_currency,rate} CSV) into fx_rate, reads the whole
+ * table back and swaps the snapshot in one step. Readers never see a half-built index and
+ * never touch the database.
+ */
+@ApplicationScoped
+public class FxRateService {
+
+    private static final Logger LOG = Logger.getLogger(FxRateService.class);
+
+    private static final String CLASSPATH_PREFIX = "classpath:";
+
+    @Inject
+    FxRateRepository fxRateRepository;
+
+    @ConfigProperty(name = "app.fx.base-currency", defaultValue = "USD")
+    String baseCurrency;
+
+    @ConfigProperty(name = "app.fx.source")
+    Optional<String> source;
+
+    @ConfigProperty(name = "app.fx.http-timeout", defaultValue = "10S")
+    Duration httpTimeout;
+
+    private final AtomicReference<FxRateSnapshot> snapshot = new AtomicReference<>();
+
+    void onStart(@Observes StartupEvent event) {
+        snapshot.set(FxRateSnapshot.empty(baseCurrency));
+        refresh();
+    }
+
+    @Scheduled(every = "{app.fx.refresh-interval}", concurrentExecution = Scheduled.ConcurrentExecution.SKIP)
+    void scheduledRefresh() {
+        refresh();
+    }
+
+    public String baseCurrency() {
+        return baseCurrency;
+    }
+
+    public FxRateSnapshot snapshot() {
+        return snapshot.get();
+    }
+
+    /**
+     * Resolves the currency to normalize into: the configured base currency when none is
+     * requested, otherwise the uppercased three-letter code.
+     */
+    public String targetCurrency(String requested) {
+        if (requested == null || requested.isBlank()) {
+            return baseCurrency;
+        }
+        String currency = requested.trim().toUpperCase(Locale.ROOT);
+        if (!currency.matches("[A-Z]{3}")) {
+            throw new IllegalArgumentException("currency must be a three-letter code.");
+        }
+        return currency;
+    }
+
+    public void refresh() {
+        long started = System.nanoTime();
+        try {
+            int written = 0;
+            if (source.isPresent()) {
+                List<FxRateRow> rows = readSource(source.get());
+                written = QuarkusTransaction.requiringNew().call(() -> fxRateRepository.upsert(rows, source.get()));
+            }
+            FxRateSnapshot loaded = FxRateSnapshot.of(baseCurrency,
+                    QuarkusTransaction.requiringNew().call(fxRateRepository::listAll));
+            snapshot.set(loaded);
+            EventLog.info(LOG, "FX_RATES_REFRESHED",
+                    "pairs", loaded.pairCount(),
+                    "written", written,
+                    "durationMs", (System.nanoTime() - started) / 1_000_000);
+        } catch (RuntimeException exception) {
+            // Keep serving the previous snapshot; a bad feed must not blank out normalization.
+            LOG.warnf(exception, "FX_RATES_REFRESH_FAILED");
+        }
+    }
+
+    private List<FxRateRow> readSource(String location) {
+        try (InputStream input = open(location)) {
+            return parse(new BufferedReader(new InputStreamReader(input, StandardCharsets.UTF_8)));
+        } catch (IOException exception) {
+            throw new UncheckedIOException(exception);
+        } catch (InterruptedException exception) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("FX rate download interrupted.", exception);
+        }
+    }
+
+    private InputStream open(String location) throws IOException, InterruptedException {
+        if (location.startsWith(CLASSPATH_PREFIX)) {
+            String resource = location.substring(CLASSPATH_PREFIX.length());
+            InputStream input = Thread.currentThread().getContextClassLoader().getResourceAsStream(resource);
+            if (input == null) {
+                throw new IllegalStateException("FX rate resource not found: " + resource);
+            }
+            return input;
+        }
+        if (location.startsWith("http://") || location.startsWith("https://")) {
+            try (HttpClient client = HttpClient.newBuilder().connectTimeout(httpTimeout).build()) {
+                HttpResponse<byte[]> response = client.send(
+                        HttpRequest.newBuilder(URI.create(location)).timeout(httpTimeout).GET().build(),
+                        HttpResponse.BodyHandlers.ofByteArray());
+                if (response.statusCode() != 200) {
+                    throw new IllegalStateException("FX rate source returned HTTP " + response.statusCode());
+                }
+                return new ByteArrayInputStream(response.body());
+            }
+        }
+        return Files.newInputStream(Path.of(location));
+    }
+
+    private static List<FxRateRow> parse(BufferedReader reader) throws IOException {
+        List<FxRateRow> rows = new ArrayList<>();
+        String line;
+        int lineNumber = 0;
+        while ((line = reader.readLine()) != null) {
+            lineNumber++;
+            if (line.isBlank() || line.startsWith("#") || line.startsWith("rate_date")) {
+                continue;
+            }
+            String[] fields = line.split(",");
+            if (fields.length != 4) {
+                throw new IllegalArgumentException("Malformed FX rate on line " + lineNumber + ".");
+            }
+            rows.add(new FxRateRow(
+                    fields[1].trim().toUpperCase(Locale.ROOT),
+                    fields[2].trim().toUpperCase(Locale.ROOT),
+                    LocalDate.parse(fields[0].trim()),
+                    new BigDecimal(fields[3].trim())));
+        }
+        return rows;
+    }
+}
@@ -0,0 +1,123 @@
+package org.acme.service;
+
+import java.math.BigDecimal;
+import java.math.MathContext;
+import java.math.RoundingMode;
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.NavigableMap;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import org.acme.repository.FxRateRepository.FxRateRow;
+
+/**
+ * Immutable view of every FX rate, indexed by currency pair and then by date. A lookup
+ * uses the latest rate on or before the requested date, tries the pair, its inverse and
+ * finally a cross rate through the pivot currency. Instances are never mutated after
+ * construction, so {@link FxRateService} can publish a new one with a single reference swap.
+ */
+public final class FxRateSnapshot {
+
+    private static final MathContext PRECISION = MathContext.DECIMAL64;
+    private static final int AMOUNT_SCALE = 4;
+
+    private final String pivotCurrency;
+    private final Map<String, NavigableMap<LocalDate, BigDecimal>> ratesByPair;
+    private final Set<String> currencies;
+
+    private FxRateSnapshot(String pivotCurrency, Map<String, NavigableMap<LocalDate, BigDecimal>> ratesByPair, Set<String> currencies) {
+        this.pivotCurrency = pivotCurrency;
+        this.ratesByPair = ratesByPair;
+        this.currencies = currencies;
+    }
+
+    public static FxRateSnapshot empty(String pivotCurrency) {
+        return new FxRateSnapshot(pivotCurrency, Map.of(), Set.of(pivotCurrency));
+    }
+
+    public static FxRateSnapshot of(String pivotCurrency, Collection<FxRateRow> rows) {
+        Map<String, NavigableMap<LocalDate, BigDecimal>> ratesByPair = new HashMap<>();
+        Set<String> currencies = new TreeSet<>();
+        currencies.add(pivotCurrency);
+        for (FxRateRow row : rows) {
+            ratesByPair.computeIfAbsent(pairKey(row.baseCurrency(), row.quoteCurrency()), key -> new TreeMap<>())
+                    .put(row.rateDate(), row.rate());
+            currencies.add(row.baseCurrency());
+            currencies.add(row.quoteCurrency());
+        }
+        ratesByPair.replaceAll((key, byDate) -> Collections.unmodifiableNavigableMap(byDate));
+        return new FxRateSnapshot(pivotCurrency, Map.copyOf(ratesByPair), Set.copyOf(currencies));
+    }
+
+    public int pairCount() {
+        return ratesByPair.size();
+    }
+
+    /**
+     * Units of {@code to} per unit of {@code from} on {@code date}, or {@code null} when no
+     * direct, inverse or pivot-crossed rate is dated on or before {@code date}.
+     */
+    public BigDecimal rate(String from, String to, LocalDate date) {
+        if (from == null || to == null) {
+            return null;
+        }
+        if (from.equals(to)) {
+            return BigDecimal.ONE;
+        }
+        BigDecimal rate = pairRate(from, to, date);
+        if (rate != null || from.equals(pivotCurrency) || to.equals(pivotCurrency)) {
+            return rate;
+        }
+        BigDecimal toPivot = pairRate(from, pivotCurrency, date);
+        BigDecimal fromPivot = toPivot == null ? null : pairRate(pivotCurrency, to, date);
+        return fromPivot == null ? null : toPivot.multiply(fromPivot, PRECISION);
+    }
+
+    public BigDecimal convert(BigDecimal amount, String from, String to, LocalDate date) {
+        if (amount == null) {
+            return null;
+        }
+        BigDecimal rate = rate(from, to, date);
+        return rate == null ? null : amount.multiply(rate, PRECISION).setScale(AMOUNT_SCALE, RoundingMode.HALF_EVEN);
+    }
+
+    /** Rates into {@code to} for every known currency that resolves on {@code date}. */
+    public Map<String, BigDecimal> ratesInto(String to, LocalDate date) {
+        Map<String, BigDecimal> rates = new LinkedHashMap<>();
+        for (String currency : currencies) {
+            BigDecimal rate = rate(currency, to, date);
+            if (rate != null) {
+                rates.put(currency, rate);
+            }
+        }
+        rates.putIfAbsent(to, BigDecimal.ONE);
+        return rates;
+    }
+
+    private BigDecimal pairRate(String from, String to, LocalDate date) {
+        BigDecimal direct = latestOnOrBefore(ratesByPair.get(pairKey(from, to)), date);
+        if (direct != null) {
+            return direct;
+        }
+        BigDecimal inverse = latestOnOrBefore(ratesByPair.get(pairKey(to, from)), date);
+        return inverse == null ? null : BigDecimal.ONE.divide(inverse, PRECISION);
+    }
+
+    private static BigDecimal latestOnOrBefore(NavigableMap<LocalDate, BigDecimal> byDate, LocalDate date) {
+        if (byDate == null) {
+            return null;
+        }
+        Entry<LocalDate, BigDecimal> entry = byDate.floorEntry(date);
+        return entry == null ? null : entry.getValue();
+    }
+
+    private static String pairKey(String from, String to) {
+        return from + '/' + to;
+    }
+}
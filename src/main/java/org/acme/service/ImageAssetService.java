@@ -0,0 +1,157 @@
+package org.acme.service;
+
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+import jakarta.transaction.Transactional;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.UUID;
+import org.acme.entity.Product;
+import org.acme.repository.ImageAssetRepository;
+import org.acme.repository.ProductRepository;
+import org.acme.util.EventLog;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.jboss.logging.Logger;
+
+/**
+ * Database side of product images. Every method here is a short transaction with no
+ * object-storage calls, except {@link #purgeUnreferenced}, which runs in the background
+ * and only holds locks on assets nothing references any more.
+ */
+@ApplicationScoped
+public class ImageAssetService {
+
+    private static final Logger LOG = Logger.getLogger(ImageAssetService.class);
+
+    @Inject
+    ImageAssetRepository imageAssetRepository;
+
+    @Inject
+    ProductRepository productRepository;
+
+    @Inject
+    ProductImageStorageService productImageStorageService;
+
+    @ConfigProperty(name = "app.images.derivatives.batch-size", defaultValue = "10")
+    int derivativeBatchSize;
+
+    @ConfigProperty(name = "app.images.derivatives.stale-after-seconds", defaultValue = "600")
+    int derivativeStaleAfterSeconds;
+
+    public record Attachment(Product product, boolean created) {}
+
+    /**
+     * Points the product at the content-addressed key of a staged upload and adds a
+     * reference to the asset. {@code created} tells the caller it must promote the staged
+     * object; until {@link #markPromoted} runs, the asset keeps the staging key so the
+     * reconciliation job can finish a promotion that failed after commit. The previous image is released after the new one is acquired, so
+     * re-uploading the same file never drops the asset to zero references.
+     */
+    @Transactional
+    public Attachment attach(UUID productId, StoredImage staged, boolean requireEmpty) {
+        Product product = productRepository.findById(productId);
+        if (product == null) {
+            throw new NoSuchElementException("Product not found.");
+        }
+        if (requireEmpty && product.imageReference != null && !product.imageReference.isBlank()) {
+            throw new IllegalArgumentException("Product image already exists. Use update image.");
+        }
+        String contentKey = productImageStorageService.contentKey(staged.sha256());
+        ImageAssetRepository.Acquired acquired = imageAssetRepository.acquire(
+                staged.sha256(), contentKey, staged.contentType(), staged.sizeBytes(), staged.objectKey());
+        if (!acquired.created()) {
+            EventLog.info(LOG, "IMAGE_ASSET_DEDUPLICATED", "sha256", staged.sha256(), "productId", productId);
+        }
+        String previous = product.imageReference;
+        product.imageReference = contentKey;
+        product.imageThumbnailReference = acquired.thumbnailKey();
+        product.imagePreviewReference = acquired.previewKey();
+        release(previous);
+        return new Attachment(product, acquired.created());
+    }
+
+    /**
+     * Drops the product's reference to its image. Objects are removed later by the
+     * reconciliation job once the asset has stayed unreferenced past the grace period.
+     */
+    @Transactional
+    public void detach(Product product) {
+        String previous = product.imageReference;
+        product.imageReference = null;
+        product.imageThumbnailReference = null;
+        product.imagePreviewReference = null;
+        release(previous);
+    }
+
+    private void release(String imageReference) {
+        if (imageReference == null || imageReference.isBlank()) {
+            return;
+        }
+        imageAssetRepository.release(imageReference);
+    }
+
+    @Transactional
+    public void markPromoted(String contentHash) {
+        imageAssetRepository.markPromoted(contentHash);
+    }
+
+    @Transactional
+    public List<ImageAssetRepository.PendingPromotion> findPendingPromotions(int afterSeconds, int limit) {
+        return imageAssetRepository.findPendingPromotions(afterSeconds, limit);
+    }
+
+    @Transactional
+    public List<String> findPendingStagingKeys(Collection<String> stagingKeys) {
+        return imageAssetRepository.findPendingStagingKeys(stagingKeys);
+    }
+
+    @Transactional
+    public List<ImageAssetRepository.PendingAsset> claimPendingDerivatives() {
+        return imageAssetRepository.claimPending(derivativeBatchSize, derivativeStaleAfterSeconds);
+    }
+
+    @Transactional
+    public void completeDerivatives(String contentHash, String status, String thumbnailKey, String previewKey) {
+        imageAssetRepository.completeDerivatives(contentHash, status, thumbnailKey, previewKey);
+    }
+
+    /**
+     * Deletes one batch of assets that have been unreferenced for at least
+     * {@code graceSeconds}, objects first, then rows. Returns the number purged.
+     */
+    @Transactional
+    public int purgeUnreferenced(int graceSeconds, int limit) {
+        List<ImageAssetRepository.UnreferencedAsset> assets = imageAssetRepository.lockUnreferenced(graceSeconds, limit);
+        if (assets.isEmpty()) {
+            return 0;
+        }
+        List<String> objectKeys = new ArrayList<>();
+        List<String> hashes = new ArrayList<>(assets.size());
+        for (ImageAssetRepository.UnreferencedAsset asset : assets) {
+            hashes.add(asset.contentHash());
+            objectKeys.add(asset.objectKey());
+            if (asset.thumbnailKey() != null) {
+                objectKeys.add(asset.thumbnailKey());
+            }
+            if (asset.previewKey() != null) {
+                objectKeys.add(asset.previewKey());
+            }
+        }
+        productImageStorageService.deleteObjects(objectKeys);
+        imageAssetRepository.deleteByHashes(hashes);
+        EventLog.info(LOG, "IMAGE_ASSETS_PURGED", "count", assets.size());
+        return assets.size();
+    }
+
+    @Transactional
+    public List<String> findExistingHashes(Collection<String> contentHashes) {
+        return imageAssetRepository.findExistingHashes(contentHashes);
+    }
+
+    @Transactional
+    public List<String> findReferencedProductImages(Collection<String> objectKeys) {
+        return imageAssetRepository.findReferencedProductImages(objectKeys);
+    }
+}
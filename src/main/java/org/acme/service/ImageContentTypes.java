@@ -0,0 +1,55 @@
+package org.acme.service;
+
+final class ImageContentTypes {
+
+    static final String OCTET_STREAM = "application/octet-stream";
+
+    private ImageContentTypes() {}
+
+    /**
+     * Detects the image format from its magic bytes rather than trusting the request's
+     * Content-Type header.
+     */
+    static String detect(byte[] header, int length) {
+        if (startsWith(header, length, 0xFF, 0xD8, 0xFF)) {
+            return "image/jpeg";
+        }
+        if (startsWith(header, length, 0x89, 'P', 'N', 'G', 0x0D, 0x0A, 0x1A, 0x0A)) {
+            return "image/png";
+        }
+        if (startsWith(header, length, 'G', 'I', 'F', '8')) {
+            return "image/gif";
+        }
+        if (startsWith(header, length, 'R', 'I', 'F', 'F') && length >= 12
+                && header[8] == 'W' && header[9] == 'E' && header[10] == 'B' && header[11] == 'P') {
+            return "image/webp";
+        }
+        if (startsWith(header, length, 'B', 'M')) {
+            return "image/bmp";
+        }
+        return OCTET_STREAM;
+    }
+
+    /**
+     * Formats ImageIO can decode without extra plugins, i.e. the ones derivatives can be
+     * generated for.
+     */
+    static boolean isDecodable(String contentType) {
+        return switch (contentType) {
+            case "image/jpeg", "image/png", "image/gif", "image/bmp" -> true;
+            default -> false;
+        };
+    }
+
+    private static boolean startsWith(byte[] header, int length, int... magic) {
+        if (length < magic.length) {
+            return false;
+        }
+        for (int i = 0; i < magic.length; i++) {
+            if ((header[i] & 0xFF) != magic[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
@@ -0,0 +1,152 @@
+package org.acme.service;
+
+import io.quarkus.scheduler.Scheduled;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.util.Iterator;
+import java.util.List;
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReadParam;
+import javax.imageio.ImageReader;
+import javax.imageio.stream.ImageInputStream;
+import org.acme.repository.ImageAssetRepository;
+import org.acme.util.EventLog;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.jboss.logging.Logger;
+
+/**
+ * Generates thumbnail and preview renditions for newly stored image assets in the
+ * background, so list views can link small images instead of originals. Work is claimed
+ * with SKIP LOCKED and S3/decoding happens outside any transaction, so several nodes can
+ * run the job at once.
+ */
+@ApplicationScoped
+public class ImageDerivativeService {
+
+    private static final Logger LOG = Logger.getLogger(ImageDerivativeService.class);
+
+    @Inject
+    ImageAssetService imageAssetService;
+
+    @Inject
+    ProductImageStorageService productImageStorageService;
+
+    @ConfigProperty(name = "app.images.derivatives.thumbnail-size", defaultValue = "200")
+    int thumbnailSize;
+
+    @ConfigProperty(name = "app.images.derivatives.preview-size", defaultValue = "1024")
+    int previewSize;
+
+    @ConfigProperty(name = "app.images.derivatives.max-pixels", defaultValue = "100000000")
+    long maxPixels;
+
+    @Scheduled(every = "{app.images.derivatives.interval}", concurrentExecution = Scheduled.ConcurrentExecution.SKIP)
+    void processPending() {
+        List<ImageAssetRepository.PendingAsset> claimed = imageAssetService.claimPendingDerivatives();
+        for (ImageAssetRepository.PendingAsset asset : claimed) {
+            try {
+                process(asset);
+            } catch (RuntimeException exception) {
+                LOG.warnf(exception, "IMAGE_DERIVATIVES_FAILED sha256=%s", asset.contentHash());
+                imageAssetService.completeDerivatives(asset.contentHash(), "FAILED", null, null);
+            }
+        }
+    }
+
+    private void process(ImageAssetRepository.PendingAsset asset) {
+        if (!ImageContentTypes.isDecodable(asset.contentType())) {
+            imageAssetService.completeDerivatives(asset.contentHash(), "UNSUPPORTED", null, null);
+            EventLog.info(LOG, "IMAGE_DERIVATIVES_SKIPPED", "sha256", asset.contentHash(), "contentType", asset.contentType());
+            return;
+        }
+        Decoded decoded = decode(asset.objectKey());
+        if (decoded == null) {
+            imageAssetService.completeDerivatives(asset.contentHash(), "UNSUPPORTED", null, null);
+            EventLog.info(LOG, "IMAGE_DERIVATIVES_SKIPPED", "sha256", asset.contentHash(), "contentType", asset.contentType());
+            return;
+        }
+        if (decoded.image() == null) {
+            imageAssetService.completeDerivatives(asset.contentHash(), "FAILED", null, null);
+            EventLog.info(LOG, "IMAGE_DERIVATIVES_TOO_LARGE", "sha256", asset.contentHash(),
+                    "width", decoded.width(), "height", decoded.height(), "maxPixels", maxPixels);
+            return;
+        }
+        BufferedImage original = decoded.image();
+        String thumbnailKey = productImageStorageService.derivativeKey(asset.contentHash(), "thumbnail");
+        String previewKey = productImageStorageService.derivativeKey(asset.contentHash(), "preview");
+        productImageStorageService.putDerivative(thumbnailKey, toJpeg(scale(original, thumbnailSize)));
+        productImageStorageService.putDerivative(previewKey, toJpeg(scale(original, previewSize)));
+        imageAssetService.completeDerivatives(asset.contentHash(), "READY", thumbnailKey, previewKey);
+        EventLog.info(LOG, "IMAGE_DERIVATIVES_READY", "sha256", asset.contentHash());
+    }
+
+    /** Source dimensions plus the subsampled image, which is null when the source is over {@code maxPixels}. */
+    private record Decoded(int width, int height, BufferedImage image) {}
+
+    /**
+     * Streams the original from S3 into an ImageReader. The header is read first so an
+     * image whose dimensions exceed {@code maxPixels} is never decoded; otherwise it is
+     * decoded with source subsampling so the raster is at most about twice the preview edge,
+     * whatever the original's size. Returns null when no reader accepts the content.
+     */
+    private Decoded decode(String objectKey) {
+        try (InputStream content = productImageStorageService.openObject(objectKey);
+             ImageInputStream input = ImageIO.createImageInputStream(content)) {
+            Iterator<ImageReader> readers = input == null ? null : ImageIO.getImageReaders(input);
+            if (readers == null || !readers.hasNext()) {
+                return null;
+            }
+            ImageReader reader = readers.next();
+            try {
+                reader.setInput(input, true, true);
+                int width = reader.getWidth(0);
+                int height = reader.getHeight(0);
+                if ((long) width * height > maxPixels) {
+                    return new Decoded(width, height, null);
+                }
+                ImageReadParam param = reader.getDefaultReadParam();
+                int step = Math.max(1, Math.max(width, height) / previewSize);
+                param.setSourceSubsampling(step, step, 0, 0);
+                return new Decoded(width, height, reader.read(0, param));
+            } finally {
+                reader.dispose();
+            }
+        } catch (IOException exception) {
+            throw new UncheckedIOException(exception);
+        }
+    }
+
+    private BufferedImage scale(BufferedImage source, int maxEdge) {
+        double ratio = Math.min(1.0, (double) maxEdge / Math.max(source.getWidth(), source.getHeight()));
+        int width = Math.max(1, (int) Math.round(source.getWidth() * ratio));
+        int height = Math.max(1, (int) Math.round(source.getHeight() * ratio));
+        BufferedImage target = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+        Graphics2D graphics = target.createGraphics();
+        try {
+            graphics.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+            graphics.setRenderingHint(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_QUALITY);
+            graphics.drawImage(source, 0, 0, width, height, Color.WHITE, null);
+        } finally {
+            graphics.dispose();
+        }
+        return target;
+    }
+
+    private byte[] toJpeg(BufferedImage image) {
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        try {
+            ImageIO.write(image, "jpg", output);
+        } catch (IOException exception) {
+            throw new UncheckedIOException(exception);
+        }
+        return output.toByteArray();
+    }
+}
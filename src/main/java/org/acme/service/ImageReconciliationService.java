@@ -0,0 +1,139 @@
+package org.acme.service;
+
+import io.quarkus.scheduler.Scheduled;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+import java.time.Instant;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import org.acme.repository.ImageAssetRepository;
+import org.acme.util.EventLog;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.jboss.logging.Logger;
+
+/**
+ * Finishes and cleans up after the phased upload flow in {@link ProductService}:
+ * re-promotes staged uploads whose copy failed after the asset was committed, then removes
+ * staging objects whose request died before attaching,
+ * content objects with no asset row, assets nothing references any more, and
+ * pre-dedup per-product objects no product points at. Only objects older than the
+ * grace period are touched, so in-flight uploads are never collected, and staging objects
+ * an asset still waits on are kept until their promotion succeeds.
+ */
+@ApplicationScoped
+public class ImageReconciliationService {
+
+    private static final Logger LOG = Logger.getLogger(ImageReconciliationService.class);
+
+    private static final String STAGING_PREFIX = "staging/";
+    private static final String CONTENT_PREFIX = "images/";
+    private static final String LEGACY_PREFIX = "products/";
+
+    @Inject
+    ImageAssetService imageAssetService;
+
+    @Inject
+    ProductImageStorageService productImageStorageService;
+
+    @ConfigProperty(name = "app.images.reconcile.grace-seconds", defaultValue = "3600")
+    int graceSeconds;
+
+    @ConfigProperty(name = "app.images.reconcile.batch-size", defaultValue = "100")
+    int batchSize;
+
+    @ConfigProperty(name = "app.images.reconcile.promote-after-seconds", defaultValue = "60")
+    int promoteAfterSeconds;
+
+    @Scheduled(every = "{app.images.reconcile.interval}", concurrentExecution = Scheduled.ConcurrentExecution.SKIP)
+    void reconcile() {
+        try {
+            int promoted = promotePending();
+            int purged = 0;
+            int batch;
+            do {
+                batch = imageAssetService.purgeUnreferenced(graceSeconds, batchSize);
+                purged += batch;
+            } while (batch == batchSize);
+
+            Instant cutoff = Instant.now().minusSeconds(graceSeconds);
+            int[] orphans = new int[1];
+            productImageStorageService.forEachObjectPage(STAGING_PREFIX, cutoff, keys ->
+                    orphans[0] += deleteAbandonedStaging(keys));
+            productImageStorageService.forEachObjectPage(CONTENT_PREFIX, cutoff, keys ->
+                    orphans[0] += deleteOrphanedContent(keys));
+            productImageStorageService.forEachObjectPage(LEGACY_PREFIX, cutoff, keys ->
+                    orphans[0] += deleteUnreferencedLegacy(keys));
+            EventLog.info(LOG, "IMAGE_RECONCILE_COMPLETED", "promotedAssets", promoted, "purgedAssets", purged, "orphanObjects", orphans[0]);
+        } catch (RuntimeException exception) {
+            LOG.warnf(exception, "IMAGE_RECONCILE_FAILED");
+        }
+    }
+
+    /**
+     * Copies staged uploads whose promotion failed after commit to their content keys. An
+     * asset whose content object already exists is just marked; one whose staging object is
+     * gone too cannot be recovered and is logged so it stops being retried.
+     */
+    private int promotePending() {
+        int promoted = 0;
+        for (ImageAssetRepository.PendingPromotion pending : imageAssetService.findPendingPromotions(promoteAfterSeconds, batchSize)) {
+            try {
+                String contentKey = productImageStorageService.contentKey(pending.contentHash());
+                if (!productImageStorageService.objectExists(contentKey)) {
+                    if (!productImageStorageService.objectExists(pending.stagingKey())) {
+                        LOG.warnf("IMAGE_PROMOTE_LOST sha256=%s stagingKey=%s", pending.contentHash(), pending.stagingKey());
+                        imageAssetService.markPromoted(pending.contentHash());
+                        continue;
+                    }
+                    productImageStorageService.promote(new StoredImage(
+                            pending.stagingKey(), pending.sizeBytes(), pending.contentHash(), pending.contentType()), true);
+                } else {
+                    productImageStorageService.deleteByReference(pending.stagingKey());
+                }
+                imageAssetService.markPromoted(pending.contentHash());
+                promoted++;
+            } catch (RuntimeException exception) {
+                LOG.warnf(exception, "IMAGE_PROMOTE_RETRY_FAILED sha256=%s", pending.contentHash());
+            }
+        }
+        return promoted;
+    }
+
+    private int deleteAbandonedStaging(List<String> keys) {
+        Set<String> pending = new HashSet<>(imageAssetService.findPendingStagingKeys(keys));
+        List<String> abandoned = keys.stream()
+                .filter(key -> !pending.contains(key))
+                .toList();
+        productImageStorageService.deleteObjects(abandoned);
+        return abandoned.size();
+    }
+
+    private int deleteOrphanedContent(List<String> keys) {
+        Set<String> hashes = new LinkedHashSet<>();
+        for (String key : keys) {
+            hashes.add(contentHash(key));
+        }
+        Set<String> known = new HashSet<>(imageAssetService.findExistingHashes(hashes));
+        List<String> orphans = keys.stream()
+                .filter(key -> !known.contains(contentHash(key)))
+                .toList();
+        productImageStorageService.deleteObjects(orphans);
+        return orphans.size();
+    }
+
+    private int deleteUnreferencedLegacy(List<String> keys) {
+        Set<String> referenced = new HashSet<>(imageAssetService.findReferencedProductImages(keys));
+        List<String> orphans = keys.stream()
+                .filter(key -> !referenced.contains(key))
+                .toList();
+        productImageStorageService.deleteObjects(orphans);
+        return orphans.size();
+    }
+
+    private String contentHash(String key) {
+        int end = key.indexOf('/', CONTENT_PREFIX.length());
+        return end < 0 ? key.substring(CONTENT_PREFIX.length()) : key.substring(CONTENT_PREFIX.length(), end);
+    }
+}
@@ -1,5 +1,6 @@
 package org.acme.service;
 
+import io.quarkus.cache.CacheResult;
 import jakarta.enterprise.context.ApplicationScoped;
 import jakarta.inject.Inject;
 import jakarta.persistence.OptimisticLockException;
@@ -8,7 +9,15 @@ import java.util.UUID;
 
 import org.acme.entity.Color;
 import org.acme.entity.Line;
+import org.acme.mapper.LineMapper;
+import org.acme.mapper.ResponseSerializer;
 import org.acme.repository.LineRepository;
+import org.acme.repository.TableStatsRepository;
+import org.acme.util.CursorPage;
+import org.acme.util.ETags;
+import org.acme.util.EventLog;
+import org.acme.util.Paging;
+import org.acme.util.TaggedJson;
 import org.jboss.logging.Logger;
 
 @ApplicationScoped
@@ -16,19 +25,53 @@ public class LineService {
 
     private static final Logger LOG = Logger.getLogger(LineService.class);
 
+    @Inject
+    ReferenceDataCaches referenceDataCaches;
+
     @Inject
     LineRepository lineRepository;
 
-    public java.util.List<Line> list() {
-        return lineRepository.listAll();
+    @Inject
+    TableStatsRepository tableStatsRepository;
+
+    @Inject
+    LineMapper lineMapper;
+
+    @Inject
+    ResponseSerializer responseSerializer;
+
+    public CursorPage<Line> list(String cursor, Integer size, boolean withTotal) {
+        CursorPage<Line> page = Paging.keyset(lineRepository, cursor, size);
+        if (withTotal) {
+            page = page.withEstimatedTotal(tableStatsRepository.estimateRowCount("line", lineRepository::count));
+        }
+        return page;
     }
 
     public Line findById(UUID id) {
         return lineRepository.findById(id);
     }
 
+    @CacheResult(cacheName = "lines")
+    public TaggedJson listJson(String cursor, int size, boolean withTotal) {
+        CursorPage<Line> page = list(cursor, size, withTotal);
+        return new TaggedJson(
+                responseSerializer.toJson(page.map(lineMapper::toResponse)),
+                ETags.ofEntities(page.items(), page.nextCursor(), page.estimatedTotal()));
+    }
+
+    @CacheResult(cacheName = "lines")
+    public TaggedJson findJson(UUID id) {
+        Line line = findById(id);
+        if (line == null) {
+            return null;
+        }
+        return new TaggedJson(responseSerializer.toJson(lineMapper.toResponse(line)), ETags.of(line));
+    }
+
     @Transactional
     public Line create(Line line) {
+        referenceDataCaches.invalidateAfterCommit("lines");
         if (line == null) {
             throw new IllegalArgumentException("Line payload is required.");
         }
@@ -39,12 +82,13 @@ public class LineService {
         
         line.id = null;
         lineRepository.persist(line);
-        LOG.infof("LINE_CREATED id=%s lineCode=%s", line.id, line.lineCode);
+        EventLog.info(LOG, "LINE_CREATED", "id", line.id, "lineCode", line.lineCode);
         return line;
     }
 
     @Transactional
     public Line update(UUID id, Line updateData, long version) {
+        referenceDataCaches.invalidateAfterCommit("lines");
         if (updateData == null) {
             throw new IllegalArgumentException("Line payload is required.");
         }
@@ -68,16 +112,22 @@ public class LineService {
         existing.plannedUnits = updateData.plannedUnits;
         existing.plannedRevenue = updateData.plannedRevenue;
         
-        LOG.infof("LINE_UPDATED id=%s", existing.id);
+        EventLog.info(LOG, "LINE_UPDATED", "id", existing.id);
         return existing;
     }
 
     @Transactional
-    public boolean delete(UUID id) {
-        boolean deleted = lineRepository.deleteById(id);
-        if (deleted) {
-            LOG.infof("LINE_DELETED id=%s", id);
+    public boolean delete(UUID id, Long expectedVersion) {
+        referenceDataCaches.invalidateAfterCommit("lines");
+        Line existing = lineRepository.findById(id);
+        if (existing == null) {
+            return false;
+        }
+        if (expectedVersion != null && existing.version != expectedVersion) {
+            throw new OptimisticLockException("Version mismatch. Expected " + expectedVersion + " but found " + existing.version);
         }
-        return deleted;
+        lineRepository.delete(existing);
+        EventLog.info(LOG, "LINE_DELETED", "id", id);
+        return true;
     }
 }
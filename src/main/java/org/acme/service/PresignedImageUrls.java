@@ -0,0 +1,103 @@
+package org.acme.service;
+
+import io.quarkus.cache.CacheResult;
+import io.quarkus.runtime.Startup;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jakarta.enterprise.context.ApplicationScoped;
+import java.net.URI;
+import java.time.Duration;
+import java.util.Optional;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.jboss.logging.Logger;
+import software.amazon.awssdk.auth.credentials.AwsBasicCredentials;
+import software.amazon.awssdk.auth.credentials.AwsCredentialsProvider;
+import software.amazon.awssdk.auth.credentials.DefaultCredentialsProvider;
+import software.amazon.awssdk.auth.credentials.StaticCredentialsProvider;
+import software.amazon.awssdk.regions.Region;
+import software.amazon.awssdk.services.s3.S3Configuration;
+import software.amazon.awssdk.services.s3.presigner.S3Presigner;
+import software.amazon.awssdk.services.s3.presigner.model.GetObjectPresignRequest;
+
+/**
+ * Signs GET URLs for image objects. Results are cached per object key in the
+ * "image-urls" cache, whose expire-after-write must stay shorter than
+ * {@code app.object-storage.presign.ttl} so a URL is re-signed before clients could
+ * receive an expired one. The bean starts eagerly and refuses to start when the two
+ * settings drift apart.
+ *
+ * <p>The presigner is built here rather than injected: the Quarkus one signs against
+ * {@code quarkus.s3.endpoint-override}, which is often an internal host, while clients need
+ * URLs on {@code app.object-storage.endpoint}. The host is part of the signature, so the URL
+ * cannot be rewritten after signing.
+ */
+@Startup
+@ApplicationScoped
+public class PresignedImageUrls {
+
+    private static final Logger LOG = Logger.getLogger(PresignedImageUrls.class);
+
+    @ConfigProperty(name = "app.object-storage.bucket", defaultValue = "plm-files")
+    String bucket;
+
+    @ConfigProperty(name = "app.object-storage.endpoint", defaultValue = "http://localhost:9000")
+    String endpoint;
+
+    @ConfigProperty(name = "app.object-storage.presign.ttl", defaultValue = "15M")
+    Duration ttl;
+
+    @ConfigProperty(name = "app.object-storage.presign.enabled", defaultValue = "true")
+    boolean presignEnabled;
+
+    @ConfigProperty(name = "quarkus.cache.caffeine.\"image-urls\".expire-after-write")
+    Optional<Duration> cacheExpiry;
+
+    @ConfigProperty(name = "quarkus.s3.aws.region", defaultValue = "us-east-1")
+    String region;
+
+    @ConfigProperty(name = "quarkus.s3.path-style-access", defaultValue = "false")
+    boolean pathStyleAccess;
+
+    @ConfigProperty(name = "quarkus.s3.aws.credentials.static-provider.access-key-id")
+    Optional<String> accessKeyId;
+
+    @ConfigProperty(name = "quarkus.s3.aws.credentials.static-provider.secret-access-key")
+    Optional<String> secretAccessKey;
+
+    private S3Presigner s3Presigner;
+
+    @PostConstruct
+    void init() {
+        if (presignEnabled && (cacheExpiry.isEmpty() || cacheExpiry.get().compareTo(ttl) >= 0)) {
+            throw new IllegalStateException("quarkus.cache.caffeine.\"image-urls\".expire-after-write ("
+                    + cacheExpiry.map(Duration::toString).orElse("unset")
+                    + ") must be shorter than app.object-storage.presign.ttl (" + ttl + ").");
+        }
+        AwsCredentialsProvider credentials = accessKeyId.isPresent() && secretAccessKey.isPresent()
+                ? StaticCredentialsProvider.create(AwsBasicCredentials.create(accessKeyId.get(), secretAccessKey.get()))
+                : DefaultCredentialsProvider.builder().build();
+        s3Presigner = S3Presigner.builder()
+                .endpointOverride(URI.create(endpoint))
+                .region(Region.of(region))
+                .credentialsProvider(credentials)
+                .serviceConfiguration(S3Configuration.builder().pathStyleAccessEnabled(pathStyleAccess).build())
+                .build();
+    }
+
+    @PreDestroy
+    void close() {
+        s3Presigner.close();
+    }
+
+    @CacheResult(cacheName = "image-urls")
+    public String presign(String objectKey) {
+        String url = s3Presigner.presignGetObject(GetObjectPresignRequest.builder()
+                        .signatureDuration(ttl)
+                        .getObjectRequest(request -> request.bucket(bucket).key(objectKey))
+                        .build())
+                .url()
+                .toString();
+        LOG.debugf("S3_PRESIGN objectKey=%s ttl=%s", objectKey, ttl);
+        return url;
+    }
+}
@@ -1,16 +1,42 @@
 package org.acme.service;
 
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
 import jakarta.enterprise.context.ApplicationScoped;
 import jakarta.inject.Inject;
+import org.acme.util.EventLog;
 import org.eclipse.microprofile.config.inject.ConfigProperty;
-import java.nio.charset.StandardCharsets;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Queue;
 import java.util.UUID;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Semaphore;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
 import software.amazon.awssdk.core.sync.RequestBody;
 import software.amazon.awssdk.services.s3.S3Client;
+import software.amazon.awssdk.services.s3.model.CompletedPart;
+import software.amazon.awssdk.services.s3.model.CopyObjectRequest;
 import software.amazon.awssdk.services.s3.model.CreateBucketRequest;
 import software.amazon.awssdk.services.s3.model.HeadBucketRequest;
+import software.amazon.awssdk.services.s3.model.ListObjectsV2Response;
+import software.amazon.awssdk.services.s3.model.MetadataDirective;
+import software.amazon.awssdk.services.s3.model.ObjectIdentifier;
 import software.amazon.awssdk.services.s3.model.PutObjectRequest;
 import software.amazon.awssdk.services.s3.model.S3Exception;
+import software.amazon.awssdk.services.s3.model.S3Object;
+import software.amazon.awssdk.services.s3.model.UploadPartRequest;
+import org.acme.util.PathEncoder;
 import org.jboss.logging.Logger;
 
 @ApplicationScoped
@@ -21,48 +47,323 @@ public class ProductImageStorageService {
     @Inject
     S3Client s3Client;
 
+    @Inject
+    MeterRegistry meterRegistry;
+
     @ConfigProperty(name = "app.object-storage.bucket", defaultValue = "plm-files")
     String bucket;
 
     @ConfigProperty(name = "app.object-storage.endpoint", defaultValue = "http://localhost:9000")
     String endpoint;
 
+    @ConfigProperty(name = "app.object-storage.presign.enabled", defaultValue = "true")
+    boolean presignEnabled;
+
+    @Inject
+    PresignedImageUrls presignedImageUrls;
+
+    @ConfigProperty(name = "app.object-storage.upload.part-size", defaultValue = "8388608")
+    int partSize;
+
+    @ConfigProperty(name = "app.object-storage.upload.buffer-pool-size", defaultValue = "8")
+    int bufferPoolSize;
+
+    @ConfigProperty(name = "app.object-storage.upload.max-bytes", defaultValue = "52428800")
+    long maxUploadBytes;
+
     private volatile boolean bucketReady;
 
-    public String putProductImage(UUID productId, byte[] imageBytes) {
+    private final Queue<byte[]> partBuffers = new ConcurrentLinkedQueue<>();
+
+    private Semaphore partBufferPermits;
+
+    private String publicBaseUrl;
+
+    @PostConstruct
+    void init() {
+        partBufferPermits = new Semaphore(bufferPoolSize);
+        String normalizedEndpoint = endpoint.endsWith("/") ? endpoint.substring(0, endpoint.length() - 1) : endpoint;
+        publicBaseUrl = normalizedEndpoint + "/" + bucket + "/";
+    }
+
+    /**
+     * Streams the image to a unique staging key one part at a time through a pooled buffer,
+     * so memory per upload is one part regardless of image size. Payloads that fit in a
+     * single part go out as a plain PUT; larger ones use a multipart upload that is aborted
+     * on failure. The content type is sniffed from the leading bytes and the SHA-256 is
+     * computed on the way through. No database work happens here: callers record the
+     * asset in a short transaction afterwards and then {@link #promote} the staged object.
+     */
+    public StoredImage putImage(InputStream content) {
+        if (content == null) {
+            throw new IllegalArgumentException("Image payload is required.");
+        }
         ensureBucketExists();
-        String objectKey = objectKey(productId);
+        String objectKey = "staging/" + UUID.randomUUID();
+        MessageDigest digest = sha256();
+        byte[] buffer = acquirePartBuffer();
+        try {
+            int read = fill(content, buffer);
+            if (read == 0) {
+                throw new IllegalArgumentException("Image payload is required.");
+            }
+            String contentType = ImageContentTypes.detect(buffer, read);
+            digest.update(buffer, 0, read);
+            long size;
+            if (read < buffer.length) {
+                if (read > maxUploadBytes) {
+                    throw new IllegalArgumentException("Image exceeds the maximum size of " + maxUploadBytes + " bytes.");
+                }
+                int length = read;
+                timed("putObject", () -> s3Client.putObject(
+                        PutObjectRequest.builder()
+                                .bucket(bucket)
+                                .key(objectKey)
+                                .contentType(contentType)
+                                .build(),
+                        RequestBody.fromInputStream(new ByteArrayInputStream(buffer, 0, length), length)
+                ));
+                size = read;
+            } else {
+                size = multipartUpload(objectKey, contentType, content, buffer, read, digest);
+            }
+            String checksum = HexFormat.of().formatHex(digest.digest());
+            EventLog.info(LOG, "S3_UPLOAD_SUCCESS", "objectKey", objectKey, "bytes", size, "sha256", checksum, "contentType", contentType);
+            return new StoredImage(objectKey, size, checksum, contentType);
+        } finally {
+            releasePartBuffer(buffer);
+        }
+    }
+
+    /**
+     * Copies a staged upload to its content-addressed key and removes the staging object.
+     * Duplicates skip the copy unless the content object is missing, which lets a retried
+     * upload heal an earlier promotion that failed after its transaction committed.
+     */
+    public String promote(StoredImage staged, boolean created) {
+        String contentKey = contentKey(staged.sha256());
+        if (!created && objectExists(contentKey)) {
+            deleteByReference(staged.objectKey());
+            return contentKey;
+        }
+        timed("copyObject", () -> s3Client.copyObject(CopyObjectRequest.builder()
+                .sourceBucket(bucket)
+                .sourceKey(staged.objectKey())
+                .destinationBucket(bucket)
+                .destinationKey(contentKey)
+                .contentType(staged.contentType())
+                .metadataDirective(MetadataDirective.REPLACE)
+                .build()));
+        deleteByReference(staged.objectKey());
+        EventLog.info(LOG, "S3_PROMOTE_SUCCESS", "objectKey", contentKey, "sha256", staged.sha256());
+        return contentKey;
+    }
+
+    public String contentKey(String sha256) {
+        return "images/" + sha256 + "/original";
+    }
+
+    public String derivativeKey(String sha256, String variant) {
+        return "images/" + sha256 + "/" + variant + ".jpg";
+    }
+
+    public boolean objectExists(String objectKey) {
+        try {
+            timed("headObject", () -> s3Client.headObject(builder -> builder.bucket(bucket).key(objectKey)));
+            return true;
+        } catch (S3Exception exception) {
+            if (exception.statusCode() == 404) {
+                return false;
+            }
+            throw exception;
+        }
+    }
+
+    /**
+     * Pages through the keys under {@code prefix} last modified before {@code cutoff}.
+     * Each page holds at most 1000 keys, matching the DeleteObjects batch limit.
+     */
+    public void forEachObjectPage(String prefix, Instant cutoff, Consumer<List<String>> page) {
+        String continuationToken = null;
+        do {
+            String token = continuationToken;
+            ListObjectsV2Response response = timed("listObjectsV2", () -> s3Client.listObjectsV2(builder -> builder
+                    .bucket(bucket)
+                    .prefix(prefix)
+                    .continuationToken(token)));
+            List<String> keys = response.contents().stream()
+                    .filter(object -> object.lastModified().isBefore(cutoff))
+                    .map(S3Object::key)
+                    .toList();
+            if (!keys.isEmpty()) {
+                page.accept(keys);
+            }
+            continuationToken = Boolean.TRUE.equals(response.isTruncated()) ? response.nextContinuationToken() : null;
+        } while (continuationToken != null);
+    }
+
+    public void deleteObjects(List<String> objectKeys) {
+        if (objectKeys.isEmpty()) {
+            return;
+        }
+        List<ObjectIdentifier> identifiers = objectKeys.stream()
+                .map(key -> ObjectIdentifier.builder().key(key).build())
+                .toList();
+        timed("deleteObjects", () -> s3Client.deleteObjects(builder -> builder
+                .bucket(bucket)
+                .delete(delete -> delete.objects(identifiers).quiet(true))));
+        EventLog.info(LOG, "S3_DELETE_SUCCESS", "objects", objectKeys.size());
+    }
+
+    /**
+     * Opens the object as a stream; the caller closes it. Nothing is buffered beyond what the
+     * HTTP client holds, so originals of any size can be read without loading them whole.
+     */
+    public InputStream openObject(String objectKey) {
+        return timed("getObject", () -> s3Client.getObject(builder -> builder.bucket(bucket).key(objectKey)));
+    }
 
-        s3Client.putObject(
+    public void putDerivative(String objectKey, byte[] content) {
+        timed("putObject", () -> s3Client.putObject(
                 PutObjectRequest.builder()
                         .bucket(bucket)
                         .key(objectKey)
-                        .contentType("application/octet-stream")
+                        .contentType("image/jpeg")
                         .build(),
-                RequestBody.fromBytes(imageBytes)
-        );
-        LOG.infof("S3_UPLOAD_SUCCESS objectKey=%s", objectKey);
-        return objectKey;
+                RequestBody.fromBytes(content)
+        ));
+        EventLog.info(LOG, "S3_UPLOAD_SUCCESS", "objectKey", objectKey, "bytes", content.length);
+    }
+
+    private long multipartUpload(String objectKey, String contentType, InputStream content, byte[] buffer, int firstRead, MessageDigest digest) {
+        String uploadId = timed("createMultipartUpload", () -> s3Client.createMultipartUpload(builder -> builder
+                .bucket(bucket)
+                .key(objectKey)
+                .contentType(contentType)
+        )).uploadId();
+        List<CompletedPart> parts = new ArrayList<>();
+        long total = 0;
+        int read = firstRead;
+        try {
+            while (read > 0) {
+                total += read;
+                if (total > maxUploadBytes) {
+                    throw new IllegalArgumentException("Image exceeds the maximum size of " + maxUploadBytes + " bytes.");
+                }
+                int partNumber = parts.size() + 1;
+                int length = read;
+                String eTag = timed("uploadPart", () -> s3Client.uploadPart(
+                        UploadPartRequest.builder()
+                                .bucket(bucket)
+                                .key(objectKey)
+                                .uploadId(uploadId)
+                                .partNumber(partNumber)
+                                .contentLength((long) length)
+                                .build(),
+                        RequestBody.fromInputStream(new ByteArrayInputStream(buffer, 0, length), length)
+                )).eTag();
+                parts.add(CompletedPart.builder().partNumber(partNumber).eTag(eTag).build());
+                read = fill(content, buffer);
+                digest.update(buffer, 0, read);
+            }
+            timed("completeMultipartUpload", () -> s3Client.completeMultipartUpload(builder -> builder
+                    .bucket(bucket)
+                    .key(objectKey)
+                    .uploadId(uploadId)
+                    .multipartUpload(upload -> upload.parts(parts))
+            ));
+            return total;
+        } catch (RuntimeException exception) {
+            timed("abortMultipartUpload", () -> s3Client.abortMultipartUpload(builder -> builder.bucket(bucket).key(objectKey).uploadId(uploadId)));
+            LOG.warnf("S3_MULTIPART_ABORTED objectKey=%s parts=%d", objectKey, parts.size());
+            throw exception;
+        }
+    }
+
+    /**
+     * Records the call in the {@code plm.s3.requests} timer, tagged by operation and
+     * outcome (success, the S3 status code, or error).
+     */
+    private <T> T timed(String operation, Supplier<T> call) {
+        Timer.Sample sample = Timer.start(meterRegistry);
+        String outcome = "success";
+        try {
+            return call.get();
+        } catch (S3Exception exception) {
+            outcome = String.valueOf(exception.statusCode());
+            throw exception;
+        } catch (RuntimeException exception) {
+            outcome = "error";
+            throw exception;
+        } finally {
+            sample.stop(meterRegistry.timer("plm.s3.requests", "operation", operation, "outcome", outcome));
+        }
+    }
+
+    private int fill(InputStream content, byte[] buffer) {
+        int offset = 0;
+        try {
+            while (offset < buffer.length) {
+                int read = content.read(buffer, offset, buffer.length - offset);
+                if (read < 0) {
+                    break;
+                }
+                offset += read;
+            }
+        } catch (IOException exception) {
+            throw new UncheckedIOException(exception);
+        }
+        return offset;
+    }
+
+    private byte[] acquirePartBuffer() {
+        try {
+            partBufferPermits.acquire();
+        } catch (InterruptedException exception) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for an upload buffer.", exception);
+        }
+        byte[] buffer = partBuffers.poll();
+        return buffer != null ? buffer : new byte[partSize];
+    }
+
+    private void releasePartBuffer(byte[] buffer) {
+        partBuffers.offer(buffer);
+        partBufferPermits.release();
+    }
+
+    private MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException exception) {
+            throw new IllegalStateException(exception);
+        }
     }
 
     public void deleteByReference(String imageReference) {
         if (imageReference == null || imageReference.isBlank()) {
             return;
         }
-        s3Client.deleteObject(builder -> builder.bucket(bucket).key(imageReference));
-        LOG.infof("S3_DELETE_SUCCESS objectKey=%s", imageReference);
+        timed("deleteObject", () -> s3Client.deleteObject(builder -> builder.bucket(bucket).key(imageReference)));
+        EventLog.info(LOG, "S3_DELETE_SUCCESS", "objectKey", imageReference);
     }
 
+    /**
+     * Client-facing URL for an object, always on {@code app.object-storage.endpoint}. With
+     * presigning on (the default, for private buckets) this is a time-limited signed GET
+     * served from the URL cache; otherwise a plain public URL.
+     */
     public String imageUrl(String imageReference) {
         if (imageReference == null || imageReference.isBlank()) {
             return null;
         }
-        String normalizedEndpoint = endpoint.endsWith("/") ? endpoint.substring(0, endpoint.length() - 1) : endpoint;
-        return normalizedEndpoint + "/" + bucket + "/" + encodePath(imageReference);
-    }
-
-    private String objectKey(UUID productId) {
-        return "products/" + productId + "/image.bin";
+        if (presignEnabled) {
+            return presignedImageUrls.presign(imageReference);
+        }
+        StringBuilder url = new StringBuilder(publicBaseUrl.length() + imageReference.length() + 16)
+                .append(publicBaseUrl);
+        PathEncoder.appendEncoded(url, imageReference);
+        return url.toString();
     }
 
     private synchronized void ensureBucketExists() {
@@ -70,37 +371,14 @@ public class ProductImageStorageService {
             return;
         }
         try {
-            s3Client.headBucket(HeadBucketRequest.builder().bucket(bucket).build());
+            timed("headBucket", () -> s3Client.headBucket(HeadBucketRequest.builder().bucket(bucket).build()));
         } catch (S3Exception exception) {
             if (exception.statusCode() == 404) {
-                s3Client.createBucket(CreateBucketRequest.builder().bucket(bucket).build());
+                timed("createBucket", () -> s3Client.createBucket(CreateBucketRequest.builder().bucket(bucket).build()));
             } else {
                 throw exception;
             }
         }
         bucketReady = true;
     }
-
-    private String encodePath(String path) {
-        StringBuilder builder = new StringBuilder();
-        for (char c : path.toCharArray()) {
-            if (isUnreserved(c) || c == '/') {
-                builder.append(c);
-            } else {
-                byte[] bytes = String.valueOf(c).getBytes(StandardCharsets.UTF_8);
-                for (byte b : bytes) {
-                    builder.append('%');
-                    builder.append(String.format("%02X", b));
-                }
-            }
-        }
-        return builder.toString();
-    }
-
-    private boolean isUnreserved(char c) {
-        return (c >= 'a' && c <= 'z')
-                || (c >= 'A' && c <= 'Z')
-                || (c >= '0' && c <= '9')
-                || c == '-' || c == '_' || c == '.' || c == '~';
-    }
 }
@@ -1,15 +1,41 @@
 package org.acme.service;
 
+import io.quarkus.narayana.jta.runtime.TransactionConfiguration;
 import jakarta.enterprise.context.ApplicationScoped;
 import jakarta.inject.Inject;
+import jakarta.persistence.OptimisticLockException;
 import jakarta.transaction.Transactional;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Locale;
+import java.util.Map;
 import java.util.NoSuchElementException;
+import java.util.Set;
 import java.util.UUID;
+import java.util.function.Consumer;
+import java.util.regex.Pattern;
+import org.acme.dto.ProductDTO;
+import org.acme.dto.SparseRow;
 import org.acme.entity.Line;
 import org.acme.entity.Product;
 import org.acme.repository.LineRepository;
 import org.acme.repository.ProductRepository;
+import org.acme.repository.ProductSearchRepository;
+import org.acme.repository.ProjectionRepository;
+import org.acme.repository.TableStatsRepository;
+import org.acme.util.CursorPage;
+import org.acme.util.EventLog;
+import org.acme.util.FieldSet;
+import org.acme.util.PageResult;
+import org.acme.util.Paging;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.hibernate.ScrollMode;
+import org.hibernate.ScrollableResults;
+import org.hibernate.Session;
+import org.hibernate.StatelessSession;
 import org.jboss.logging.Logger;
 
 @ApplicationScoped
@@ -17,19 +43,169 @@ public class ProductService {
 
     private static final Logger LOG = Logger.getLogger(ProductService.class);
 
+    /**
+     * {@code ?fields=} names accepted on the product list, mapped to JPQL paths. The image URL
+     * fields select the object key and are signed after the query.
+     */
+    private static final Map<String, String> SPARSE_FIELDS = Map.ofEntries(
+            Map.entry("id", "p.id"),
+            Map.entry("version", "p.version"),
+            Map.entry("name", "p.name"),
+            Map.entry("lineId", "p.line.id"),
+            Map.entry("description", "p.description"),
+            Map.entry("lifecycle", "p.lifecycle"),
+            Map.entry("assortment", "p.assortment"),
+            Map.entry("buyPlan", "p.buyPlan"),
+            Map.entry("storeCost", "p.storeCost"),
+            Map.entry("retailCost", "p.retailCost"),
+            Map.entry("margin", "p.margin"),
+            Map.entry("buyer", "p.buyer"),
+            Map.entry("setWeek", "p.setWeek"),
+            Map.entry("inspiration", "p.inspiration"),
+            Map.entry("imageReference", "p.imageReference"),
+            Map.entry("imageUrl", "p.imageReference"),
+            Map.entry("thumbnailUrl", "p.imageThumbnailReference"),
+            Map.entry("previewUrl", "p.imagePreviewReference"),
+            Map.entry("price", "p.price"),
+            Map.entry("quantity", "p.quantity"),
+            Map.entry("createdBy", "p.createdBy"),
+            Map.entry("createdAt", "p.createdAt"),
+            Map.entry("updatedBy", "p.updatedBy"),
+            Map.entry("updatedAt", "p.updatedAt"));
+
+    private static final List<String> IMAGE_URL_FIELDS = List.of("imageUrl", "thumbnailUrl", "previewUrl");
+
+    private static final Pattern SEARCH_TERM_SEPARATOR = Pattern.compile("[^\\p{L}\\p{N}]+");
+    private static final int MAX_SEARCH_TERMS = 8;
+
     @Inject
     ProductRepository productRepository;
 
     @Inject
     LineRepository lineRepository;
 
+    @Inject
+    ProjectionRepository projectionRepository;
+
+    @Inject
+    ProductSearchRepository productSearchRepository;
+
+    @Inject
+    TableStatsRepository tableStatsRepository;
+
     @Inject
     ProductImageStorageService productImageStorageService;
 
-    public List<Product> list() {
-        List<Product> products = productRepository.listAll();
-        products.forEach(this::enrichWithImageUrl);
-        return products;
+    @Inject
+    ImageAssetService imageAssetService;
+
+    @Inject
+    StatelessSession statelessSession;
+
+    @Inject
+    Session session;
+
+    @ConfigProperty(name = "app.export.fetch-size", defaultValue = "500")
+    int exportFetchSize;
+
+    @ConfigProperty(name = "app.product-batch.chunk-size", defaultValue = "500")
+    int batchChunkSize;
+
+    @ConfigProperty(name = "app.product-batch.max-items", defaultValue = "50000")
+    int batchMaxItems;
+
+    public CursorPage<Product> list(String cursor, Integer size, boolean withTotal) {
+        CursorPage<Product> page = Paging.keyset(productRepository, cursor, size);
+        page.items().forEach(this::enrichWithImageUrl);
+        if (withTotal) {
+            page = page.withEstimatedTotal(tableStatsRepository.estimateRowCount("product", productRepository::count));
+        }
+        return page;
+    }
+
+    /**
+     * Product page with only the {@code fields} columns read and returned. Image URLs are
+     * signed only when one of the URL fields is requested.
+     */
+    public CursorPage<SparseRow> listFields(String cursor, Integer size, boolean withTotal, String fields) {
+        FieldSet fieldSet = FieldSet.parse(fields, SPARSE_FIELDS);
+        CursorPage<SparseRow> page = Paging.keyset(cursor, size,
+                (position, limit) -> projectionRepository.products(fieldSet, position, limit), SparseRow::id);
+        for (String field : IMAGE_URL_FIELDS) {
+            if (fieldSet.contains(field)) {
+                page.items().forEach(row -> row.fields().put(
+                        field, productImageStorageService.imageUrl((String) row.fields().get(field))));
+            }
+        }
+        if (withTotal) {
+            page = page.withEstimatedTotal(tableStatsRepository.estimateRowCount("product", productRepository::count));
+        }
+        return page;
+    }
+
+    /**
+     * Ranked full-text search over name, description, inspiration, buyer and line code.
+     * Every term must match one of those fields, and each term also matches words it prefixes.
+     */
+    public PageResult<Product> search(String query, Integer page, Integer size) {
+        List<String> terms = toPrefixTerms(query);
+        int p = Paging.normalizePage(page);
+        int s = Paging.normalizeSize(size);
+        ProductSearchRepository.SearchPage hits = productSearchRepository.search(
+                String.join(" & ", terms), String.join(" | ", terms), p * s, s);
+        List<Product> products = hits.ids().isEmpty()
+                ? List.of()
+                : productRepository.find("from Product p join fetch p.line where p.id in ?1", hits.ids()).list();
+        Map<UUID, Product> byId = new HashMap<>();
+        products.forEach(product -> byId.put(product.id, product));
+        List<Product> ranked = new ArrayList<>(hits.ids().size());
+        for (UUID id : hits.ids()) {
+            Product product = byId.get(id);
+            if (product != null) {
+                enrichWithImageUrl(product);
+                ranked.add(product);
+            }
+        }
+        return PageResult.of(ranked, p, s, hits.total());
+    }
+
+    /**
+     * Turns free text into {@code term:*} prefix terms. Only letters and digits survive, so
+     * user input can never carry tsquery operators.
+     */
+    static List<String> toPrefixTerms(String query) {
+        if (query == null || query.isBlank()) {
+            throw new IllegalArgumentException("Search query is required.");
+        }
+        List<String> terms = new ArrayList<>();
+        for (String term : SEARCH_TERM_SEPARATOR.split(query.strip().toLowerCase(Locale.ROOT))) {
+            if (!term.isEmpty() && terms.size() < MAX_SEARCH_TERMS) {
+                terms.add(term + ":*");
+            }
+        }
+        if (terms.isEmpty()) {
+            throw new IllegalArgumentException("Search query must contain a letter or digit.");
+        }
+        return terms;
+    }
+
+    /**
+     * Streams every product through a forward-only server-side cursor. Rows are not
+     * attached to a persistence context, so memory stays bounded by the fetch size.
+     */
+    @Transactional
+    @TransactionConfiguration(timeout = 1800)
+    public void exportAll(Consumer<Product> consumer) {
+        try (ScrollableResults<Product> rows = statelessSession
+                .createSelectionQuery("from Product p join fetch p.line order by p.id", Product.class)
+                .setFetchSize(exportFetchSize)
+                .scroll(ScrollMode.FORWARD_ONLY)) {
+            while (rows.next()) {
+                Product product = rows.get();
+                enrichWithImageUrl(product);
+                consumer.accept(product);
+            }
+        }
     }
 
     public Product findById(UUID id) {
@@ -59,10 +235,79 @@ public class ProductService {
         product.line = line;
         productRepository.persist(product);
         enrichWithImageUrl(product);
-        LOG.infof("PRODUCT_CREATED id=%s name=%s", product.id, product.name);
+        EventLog.info(LOG, "PRODUCT_CREATED", "id", product.id, "name", product.name);
         return product;
     }
 
+    /**
+     * Inserts products in one transaction, flushing and clearing the session every
+     * chunk so Hibernate can group the inserts into JDBC batches. Line ids are
+     * checked once per distinct line; invalid items are reported, not thrown.
+     * {@code violations} holds the caller's bean validation message per index (null when the
+     * item passed), so nothing that would break the schema reaches the flush.
+     */
+    @Transactional
+    @TransactionConfiguration(timeout = 1800)
+    public List<ProductDTO.BatchItemResult> createBatch(List<Product> products, List<String> violations) {
+        if (products == null || products.isEmpty()) {
+            throw new IllegalArgumentException("Batch payload is required.");
+        }
+        if (products.size() > batchMaxItems) {
+            throw new IllegalArgumentException("Batch exceeds " + batchMaxItems + " items.");
+        }
+
+        Set<UUID> lineIds = new HashSet<>();
+        for (Product product : products) {
+            if (product != null && product.line != null && product.line.id != null) {
+                lineIds.add(product.line.id);
+            }
+        }
+        Set<UUID> knownLineIds = lineIds.isEmpty()
+                ? Set.of()
+                : new HashSet<>(session.createSelectionQuery("select l.id from Line l where l.id in :ids", UUID.class)
+                        .setParameter("ids", lineIds)
+                        .getResultList());
+
+        List<ProductDTO.BatchItemResult> results = new ArrayList<>(products.size());
+        int created = 0;
+        for (int i = 0; i < products.size(); i++) {
+            Product product = products.get(i);
+            String error = i < violations.size() && violations.get(i) != null
+                    ? violations.get(i)
+                    : validateBatchItem(product, knownLineIds);
+            if (error != null) {
+                results.add(new ProductDTO.BatchItemResult(i, null, "REJECTED", error));
+                continue;
+            }
+            product.id = null;
+            product.line = session.getReference(Line.class, product.line.id);
+            session.persist(product);
+            results.add(new ProductDTO.BatchItemResult(i, product.id, "CREATED", null));
+            if (++created % batchChunkSize == 0) {
+                session.flush();
+                session.clear();
+            }
+        }
+        EventLog.info(LOG, "PRODUCT_BATCH_CREATED", "requested", products.size(), "created", created);
+        return results;
+    }
+
+    private String validateBatchItem(Product product, Set<UUID> knownLineIds) {
+        if (product == null) {
+            return "Product payload is required.";
+        }
+        if (product.name == null || product.name.isBlank()) {
+            return "Name is required";
+        }
+        if (product.line == null || product.line.id == null) {
+            return "Line ID is required";
+        }
+        if (!knownLineIds.contains(product.line.id)) {
+            return "Product line is invalid.";
+        }
+        return null;
+    }
+
     @Transactional
     public Product update(UUID id, Product product, long version) {
         if (product == null) {
@@ -94,26 +339,24 @@ public class ProductService {
         existing.price = product.price;
         existing.quantity = product.quantity;
         enrichWithImageUrl(existing);
-        LOG.infof("PRODUCT_UPDATED id=%s", existing.id);
+        EventLog.info(LOG, "PRODUCT_UPDATED", "id", existing.id);
         return existing;
     }
 
-    @Transactional
-    public Product addImage(UUID id, byte[] imageBytes) {
+    public Product addImage(UUID id, InputStream imageStream) {
         Product product = getProductOrThrow(id);
         if (product.imageReference != null && !product.imageReference.isBlank()) {
             throw new IllegalArgumentException("Product image already exists. Use update image.");
         }
-        saveImageReference(product, imageBytes);
-        LOG.infof("PRODUCT_IMAGE_ADDED id=%s", id);
+        product = saveImage(id, imageStream, true);
+        EventLog.info(LOG, "PRODUCT_IMAGE_ADDED", "id", id);
         return product;
     }
 
-    @Transactional
-    public Product updateImage(UUID id, byte[] imageBytes) {
-        Product product = getProductOrThrow(id);
-        saveImageReference(product, imageBytes);
-        LOG.infof("PRODUCT_IMAGE_UPDATED id=%s", id);
+    public Product updateImage(UUID id, InputStream imageStream) {
+        getProductOrThrow(id);
+        Product product = saveImage(id, imageStream, false);
+        EventLog.info(LOG, "PRODUCT_IMAGE_UPDATED", "id", id);
         return product;
     }
 
@@ -123,22 +366,35 @@ public class ProductService {
         if (product.imageReference == null || product.imageReference.isBlank()) {
             return false;
         }
-        productImageStorageService.deleteByReference(product.imageReference);
-        product.imageReference = null;
-        product.imageUrl = null;
-        LOG.infof("PRODUCT_IMAGE_REMOVED id=%s", id);
+        imageAssetService.detach(product);
+        enrichWithImageUrl(product);
+        EventLog.info(LOG, "PRODUCT_IMAGE_REMOVED", "id", id);
         return true;
     }
 
-    private void saveImageReference(Product product, byte[] imageBytes) {
-        if (imageBytes == null || imageBytes.length == 0) {
+    /**
+     * Image writes run in three phases so no JDBC connection is held across an S3 call:
+     * the upload streams to a staging key, a short transaction swaps the product's image
+     * reference, and the staged object is promoted after commit. The asset keeps the
+     * staging key until the copy is confirmed, so a failed promotion does not fail the
+     * request: {@link ImageReconciliationService} retries it and removes anything else
+     * left behind by a failure in between.
+     */
+    private Product saveImage(UUID id, InputStream imageStream, boolean requireEmpty) {
+        if (imageStream == null) {
             throw new IllegalArgumentException("Image payload is required.");
         }
-        if (product.imageReference != null && !product.imageReference.isBlank()) {
-            productImageStorageService.deleteByReference(product.imageReference);
+        StoredImage staged = productImageStorageService.putImage(imageStream);
+        ImageAssetService.Attachment attachment = imageAssetService.attach(id, staged, requireEmpty);
+        try {
+            productImageStorageService.promote(staged, attachment.created());
+            imageAssetService.markPromoted(staged.sha256());
+        } catch (RuntimeException exception) {
+            LOG.warnf(exception, "S3_PROMOTE_DEFERRED sha256=%s stagingKey=%s", staged.sha256(), staged.objectKey());
         }
-        product.imageReference = productImageStorageService.putProductImage(product.id, imageBytes);
+        Product product = attachment.product();
         enrichWithImageUrl(product);
+        return product;
     }
 
     private Product getProductOrThrow(UUID id) {
@@ -151,20 +407,23 @@ public class ProductService {
 
     private void enrichWithImageUrl(Product product) {
         product.imageUrl = productImageStorageService.imageUrl(product.imageReference);
+        product.thumbnailUrl = productImageStorageService.imageUrl(product.imageThumbnailReference);
+        product.previewUrl = productImageStorageService.imageUrl(product.imagePreviewReference);
     }
 
     @Transactional
-    public boolean delete(UUID id) {
+    public boolean delete(UUID id, Long expectedVersion) {
         Product existing = productRepository.findById(id);
         if (existing == null) {
             return false;
         }
-        if (existing.imageReference != null && !existing.imageReference.isBlank()) {
-            productImageStorageService.deleteByReference(existing.imageReference);
+        if (expectedVersion != null && existing.version != expectedVersion) {
+            throw new OptimisticLockException("Version mismatch. Expected " + expectedVersion + " but found " + existing.version);
         }
+        imageAssetService.detach(existing);
         boolean deleted = productRepository.deleteById(id);
         if (deleted) {
-             LOG.infof("PRODUCT_DELETED id=%s", id);
+             EventLog.info(LOG, "PRODUCT_DELETED", "id", id);
         }
         return deleted;
     }
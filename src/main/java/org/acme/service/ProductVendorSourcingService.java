@@ -2,18 +2,25 @@ package org.acme.service;
 
 import jakarta.enterprise.context.ApplicationScoped;
 import jakarta.inject.Inject;
+import jakarta.persistence.OptimisticLockException;
 import jakarta.transaction.Transactional;
 import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.NoSuchElementException;
 import java.util.Set;
 import java.util.UUID;
+import org.acme.dto.ProductVendorSourcingDTO;
 import org.acme.entity.Product;
 import org.acme.entity.ProductVendorSourcing;
 import org.acme.entity.Vendor;
 import org.acme.repository.ProductRepository;
 import org.acme.repository.ProductVendorSourcingRepository;
+import org.acme.repository.ResourcePathRepository;
+import org.acme.repository.VendorQuoteRepository;
+import org.acme.repository.VendorQuoteSummaryRepository;
 import org.acme.repository.VendorRepository;
+import org.acme.util.EventLog;
 import org.jboss.logging.Logger;
 
 @ApplicationScoped
@@ -30,9 +37,26 @@ public class ProductVendorSourcingService {
     @Inject
     ProductVendorSourcingRepository productVendorSourcingRepository;
 
+    @Inject
+    VendorQuoteSummaryRepository vendorQuoteSummaryRepository;
+
+    @Inject
+    VendorQuoteRepository vendorQuoteRepository;
+
+    @Inject
+    ResourcePathRepository resourcePathRepository;
+
     public List<ProductVendorSourcing> listByProduct(UUID productId) {
-        getProductOrThrow(productId);
-        return productVendorSourcingRepository.listByProductId(productId);
+        List<ProductVendorSourcing> links = productVendorSourcingRepository.listByProductId(productId);
+        if (links.isEmpty()) {
+            getProductOrThrow(productId);
+        }
+        return links;
+    }
+
+    /** Quote summaries for every link of the product, keyed by link id. */
+    public Map<UUID, ProductVendorSourcingDTO.QuoteSummary> quoteSummariesByProduct(UUID productId) {
+        return vendorQuoteSummaryRepository.findByProductId(productId);
     }
 
     @Transactional
@@ -53,7 +77,7 @@ public class ProductVendorSourcingService {
         link.product = product;
         link.vendor = vendor;
         productVendorSourcingRepository.persist(link);
-        LOG.infof("PRODUCT_VENDOR_LINK_CREATED linkId=%s productId=%s vendorId=%s", link.id, productId, vendor.id);
+        EventLog.info(LOG, "PRODUCT_VENDOR_LINK_CREATED", "linkId", link.id, "productId", productId, "vendorId", vendor.id);
         return link;
     }
 
@@ -61,7 +85,8 @@ public class ProductVendorSourcingService {
     public ProductVendorSourcing update(UUID productId, UUID linkId, ProductVendorSourcing updateData, long version) {
         ProductVendorSourcing existing = productVendorSourcingRepository.findByProductIdAndId(productId, linkId);
         if (existing == null) {
-            throw new NoSuchElementException("Product vendor link not found.");
+            NoSuchElementException notFound = resourcePathRepository.resolve(productId, linkId, null, false).notFound();
+            throw notFound != null ? notFound : new NoSuchElementException("Product vendor link not found.");
         }
         
         if (existing.version != version) {
@@ -90,19 +115,25 @@ public class ProductVendorSourcingService {
         existing.contactEmail = updateData.contactEmail;
         existing.contactPhone = updateData.contactPhone;
         
-        LOG.infof("PRODUCT_VENDOR_LINK_UPDATED linkId=%s", existing.id);
+        EventLog.info(LOG, "PRODUCT_VENDOR_LINK_UPDATED", "linkId", existing.id);
         return existing;
     }
 
     @Transactional
-    public boolean delete(UUID productId, UUID linkId) {
+    public void delete(UUID productId, UUID linkId, Long expectedVersion) {
         ProductVendorSourcing existing = productVendorSourcingRepository.findByProductIdAndId(productId, linkId);
         if (existing == null) {
-            return false;
+            NoSuchElementException notFound = resourcePathRepository.resolve(productId, linkId, null, false).notFound();
+            throw notFound != null ? notFound : new NoSuchElementException("Product vendor link not found.");
+        }
+        if (expectedVersion != null && existing.version != expectedVersion) {
+            throw new OptimisticLockException("Version mismatch. Expected " + expectedVersion + " but found " + existing.version);
+        }
+        if (vendorQuoteRepository.existsForLink(linkId)) {
+            throw new IllegalStateException("Product vendor link has quote history and cannot be removed.");
         }
         productVendorSourcingRepository.delete(existing);
-        LOG.infof("PRODUCT_VENDOR_LINK_DELETED linkId=%s", linkId);
-        return true;
+        EventLog.info(LOG, "PRODUCT_VENDOR_LINK_DELETED", "linkId", linkId);
     }
 
     private void ensureNoOtherPrimary(UUID productId, UUID currentLinkId) {
@@ -0,0 +1,42 @@
+package org.acme.service;
+
+import io.quarkus.cache.CacheManager;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+import jakarta.transaction.Status;
+import jakarta.transaction.Synchronization;
+import jakarta.transaction.TransactionSynchronizationRegistry;
+
+/**
+ * Drops a reference-data cache once the surrounding transaction has committed. Invalidating
+ * before the commit lets a concurrent read re-cache the old row (and its old ETag) for the full
+ * cache lifetime; after the commit any in-flight computation is discarded with the entry.
+ */
+@ApplicationScoped
+public class ReferenceDataCaches {
+
+    @Inject
+    CacheManager cacheManager;
+
+    @Inject
+    TransactionSynchronizationRegistry transactionSynchronizationRegistry;
+
+    public void invalidateAfterCommit(String cacheName) {
+        transactionSynchronizationRegistry.registerInterposedSynchronization(new Synchronization() {
+            @Override
+            public void beforeCompletion() {
+            }
+
+            @Override
+            public void afterCompletion(int status) {
+                if (status == Status.STATUS_COMMITTED) {
+                    invalidate(cacheName);
+                }
+            }
+        });
+    }
+
+    void invalidate(String cacheName) {
+        cacheManager.getCache(cacheName).ifPresent(cache -> cache.invalidateAll().await().indefinitely());
+    }
+}
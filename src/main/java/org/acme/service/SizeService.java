@@ -1,12 +1,21 @@
 package org.acme.service;
 
+import io.quarkus.cache.CacheResult;
 import jakarta.enterprise.context.ApplicationScoped;
 import jakarta.inject.Inject;
+import jakarta.persistence.OptimisticLockException;
 import jakarta.transaction.Transactional;
-import java.util.List;
 import java.util.UUID;
 import org.acme.entity.Size;
+import org.acme.mapper.SizeMapper;
+import org.acme.mapper.ResponseSerializer;
 import org.acme.repository.SizeRepository;
+import org.acme.repository.TableStatsRepository;
+import org.acme.util.CursorPage;
+import org.acme.util.ETags;
+import org.acme.util.EventLog;
+import org.acme.util.Paging;
+import org.acme.util.TaggedJson;
 import org.jboss.logging.Logger;
 
 @ApplicationScoped
@@ -14,19 +23,53 @@ public class SizeService {
 
     private static final Logger LOG = Logger.getLogger(SizeService.class);
 
+    @Inject
+    ReferenceDataCaches referenceDataCaches;
+
     @Inject
     SizeRepository sizeRepository;
 
-    public List<Size> list() {
-        return sizeRepository.listAll();
+    @Inject
+    TableStatsRepository tableStatsRepository;
+
+    @Inject
+    SizeMapper sizeMapper;
+
+    @Inject
+    ResponseSerializer responseSerializer;
+
+    public CursorPage<Size> list(String cursor, Integer size, boolean withTotal) {
+        CursorPage<Size> page = Paging.keyset(sizeRepository, cursor, size);
+        if (withTotal) {
+            page = page.withEstimatedTotal(tableStatsRepository.estimateRowCount("size", sizeRepository::count));
+        }
+        return page;
     }
 
     public Size findById(UUID id) {
         return sizeRepository.findById(id);
     }
 
+    @CacheResult(cacheName = "sizes")
+    public TaggedJson listJson(String cursor, int size, boolean withTotal) {
+        CursorPage<Size> page = list(cursor, size, withTotal);
+        return new TaggedJson(
+                responseSerializer.toJson(page.map(sizeMapper::toResponse)),
+                ETags.ofEntities(page.items(), page.nextCursor(), page.estimatedTotal()));
+    }
+
+    @CacheResult(cacheName = "sizes")
+    public TaggedJson findJson(UUID id) {
+        Size size = findById(id);
+        if (size == null) {
+            return null;
+        }
+        return new TaggedJson(responseSerializer.toJson(sizeMapper.toResponse(size)), ETags.of(size));
+    }
+
     @Transactional
     public Size create(Size size) {
+        referenceDataCaches.invalidateAfterCommit("sizes");
         if (size == null || size.name == null || size.name.isBlank()) {
             throw new IllegalArgumentException("Size name is required.");
         }
@@ -35,12 +78,13 @@ public class SizeService {
         }
         size.id = null;
         sizeRepository.persist(size);
-        LOG.infof("SIZE_CREATED id=%s name=%s", size.id, size.name);
+        EventLog.info(LOG, "SIZE_CREATED", "id", size.id, "name", size.name);
         return size;
     }
 
     @Transactional
     public Size update(UUID id, Size updateData, long version) {
+        referenceDataCaches.invalidateAfterCommit("sizes");
         if (updateData == null) {
             throw new IllegalArgumentException("Size payload is required.");
         }
@@ -53,16 +97,22 @@ public class SizeService {
         }
         existing.name = updateData.name;
         existing.sizes = updateData.sizes;
-        LOG.infof("SIZE_UPDATED id=%s", existing.id);
+        EventLog.info(LOG, "SIZE_UPDATED", "id", existing.id);
         return existing;
     }
 
     @Transactional
-    public boolean delete(UUID id) {
-        boolean deleted = sizeRepository.deleteById(id);
-        if (deleted) {
-            LOG.infof("SIZE_DELETED id=%s", id);
+    public boolean delete(UUID id, Long expectedVersion) {
+        referenceDataCaches.invalidateAfterCommit("sizes");
+        Size existing = sizeRepository.findById(id);
+        if (existing == null) {
+            return false;
+        }
+        if (expectedVersion != null && existing.version != expectedVersion) {
+            throw new OptimisticLockException("Version mismatch. Expected " + expectedVersion + " but found " + existing.version);
         }
-        return deleted;
+        sizeRepository.delete(existing);
+        EventLog.info(LOG, "SIZE_DELETED", "id", id);
+        return true;
     }
 }
@@ -0,0 +1,8 @@
+package org.acme.service;
+
+public record StoredImage(
+        String objectKey,
+        long sizeBytes,
+        String sha256,
+        String contentType
+) {}
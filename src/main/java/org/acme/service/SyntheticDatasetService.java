@@ -0,0 +1,407 @@
+package org.acme.service;
+
+import io.agroal.api.AgroalDataSource;
+import io.quarkus.runtime.StartupEvent;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.event.Observes;
+import jakarta.inject.Inject;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.UUID;
+import org.acme.util.Csv;
+import org.acme.util.EventLog;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.jboss.logging.Logger;
+import org.postgresql.PGConnection;
+import org.postgresql.copy.PGCopyOutputStream;
+
+/**
+ * Loads a synthetic dataset of configurable size with {@code COPY}, for reproducing
+ * production-scale behaviour locally. Runs once at startup when
+ * {@code app.dataset.enabled=true} (the {@code dataset} profile), after Flyway, replacing
+ * the V3 seed rows.
+ *
+ * <p>Distributions are skewed on purpose: a few lines hold most products, popular
+ * vendors source many products, products have 1-6 vendors, quote numbers have several
+ * versions whose cost falls with negotiation, and a share of quotes are soft-deleted.
+ * Ids are deterministic UUIDv7-shaped values derived from a table tag and sequence, so
+ * children reference parents without holding millions of ids in memory, and a fixed
+ * {@code app.dataset.seed} reproduces the same data.
+ */
+@ApplicationScoped
+public class SyntheticDatasetService {
+
+    private static final Logger LOG = Logger.getLogger(SyntheticDatasetService.class);
+
+    private static final DateTimeFormatter TIMESTAMP = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
+    private static final String CREATED_BY = "dataset";
+
+    private static final int LINE = 1;
+    private static final int COLOR = 2;
+    private static final int SIZE = 3;
+    private static final int VENDOR = 4;
+    private static final int PRODUCT = 5;
+    private static final int SOURCING = 6;
+    private static final int QUOTE = 7;
+    private static final int BRAND = 8;
+    private static final int MARKET = 9;
+    private static final int CHANNEL = 10;
+
+    private static final List<String> TABLES = List.of(
+            "line", "color", "size", "vendor", "product", "product_vendor_sourcing", "vendor_quote");
+
+    private static final String[] SEASONS = {"SS", "FW"};
+    private static final String[] FITS = {"Relaxed", "Slim", "Oversized", "Cropped", "Tailored", "Boxy", "Straight"};
+    private static final String[] GARMENTS = {"Parka", "Chino", "Tee", "Hoodie", "Blazer", "Cardigan", "Jogger", "Shirt", "Dress", "Jacket"};
+    private static final String[] LIFECYCLES = {"Concept", "Development", "Development", "Active", "Active", "Active", "Discontinued"};
+    private static final String[] ASSORTMENTS = {"CORE", "CORE", "FASHION", "BASIC"};
+    private static final String[] BUYERS = {"Alex Buyer", "Sam Rivera", "Jordan Lee", "Priya Nair", "Chris Moreau", "Taylor Kim"};
+    private static final String[] VENDOR_TYPES = {"Supplier", "Supplier", "Manufacturer", "Agent"};
+    private static final String[] VENDOR_GROUPS = {"Apparel", "Knitwear", "Outerwear", "Denim", "Accessories"};
+    private static final String[] AGREEMENTS = {"ACTIVE", "ACTIVE", "ACTIVE", "PENDING", "EXPIRED"};
+    private static final String[] COUNTRIES = {"CN", "VN", "BD", "IN", "TR", "PT", "IT"};
+    private static final String[] CURRENCIES = {"USD", "USD", "USD", "USD", "USD", "USD", "USD", "EUR", "EUR", "CNY"};
+    private static final String[] INCOTERMS = {"FOB", "FOB", "FOB", "FOB", "CIF", "EXW", "DDP"};
+    private static final String[] PAYMENT_TERMS = {"NET30", "NET60", "NET90", "LC at sight"};
+    private static final String[] LATEST_STATUSES = {
+            "DRAFT", "SUBMITTED", "SUBMITTED", "UNDER_REVIEW", "APPROVED", "APPROVED", "APPROVED", "REJECTED", "REJECTED"};
+
+    @Inject
+    AgroalDataSource dataSource;
+
+    @ConfigProperty(name = "app.dataset.enabled", defaultValue = "false")
+    boolean enabled;
+
+    @ConfigProperty(name = "app.fx.base-currency", defaultValue = "USD")
+    String baseCurrency;
+
+    @ConfigProperty(name = "app.dataset.seed", defaultValue = "42")
+    long seed;
+
+    @ConfigProperty(name = "app.dataset.lines", defaultValue = "1000")
+    int lines;
+
+    @ConfigProperty(name = "app.dataset.colors", defaultValue = "500")
+    int colors;
+
+    @ConfigProperty(name = "app.dataset.sizes", defaultValue = "100")
+    int sizes;
+
+    @ConfigProperty(name = "app.dataset.vendors", defaultValue = "5000")
+    int vendors;
+
+    @ConfigProperty(name = "app.dataset.products", defaultValue = "1000000")
+    int products;
+
+    @ConfigProperty(name = "app.dataset.quotes", defaultValue = "10000000")
+    long quotes;
+
+    @ConfigProperty(name = "app.dataset.deleted-quote-percent", defaultValue = "4")
+    int deletedQuotePercent;
+
+    @ConfigProperty(name = "app.dataset.copy-buffer-size", defaultValue = "1048576")
+    int copyBufferSize;
+
+    private final LocalDateTime baseTime = LocalDateTime.of(2026, 1, 1, 0, 0);
+
+    void onStart(@Observes StartupEvent event) {
+        if (enabled) {
+            generate();
+        }
+    }
+
+    /**
+     * Replaces the contents of the business tables with a generated dataset in one
+     * transaction. Audit triggers are disabled for the load so the audit tables stay
+     * empty instead of doubling the write volume.
+     */
+    public void generate() {
+        long started = System.nanoTime();
+        EventLog.info(LOG, "DATASET_GENERATE_ATTEMPT",
+                "lines", lines, "vendors", vendors, "products", products, "quotes", quotes, "seed", seed);
+        try (Connection connection = dataSource.getConnection()) {
+            connection.setAutoCommit(false);
+            PGConnection pgConnection = connection.unwrap(PGConnection.class);
+            try (Statement statement = connection.createStatement()) {
+                statement.execute("TRUNCATE " + String.join(", ", TABLES) + ", image_asset, vendor_quote_archive, "
+                        + String.join(", ", TABLES.stream().map(table -> table + "_audit").toList())
+                        + " RESTART IDENTITY CASCADE");
+                for (String table : TABLES) {
+                    statement.execute("ALTER TABLE " + table + " DISABLE TRIGGER USER");
+                }
+            }
+
+            SplittableRandom random = new SplittableRandom(seed);
+            copy(pgConnection, "line", "id, version, created_at, updated_at, created_by, updated_by, line_code, season_code, year, brand_id, market_id, channel_id, start_date, end_date, planned_style_count, planned_units, planned_revenue",
+                    writer -> writeLines(writer, random));
+            copy(pgConnection, "color", "id, version, created_at, updated_at, created_by, updated_by, name, description, rgb",
+                    writer -> writeColors(writer, random));
+            copy(pgConnection, "size", "id, version, created_at, updated_at, created_by, updated_by, name, sizes",
+                    writer -> writeSizes(writer));
+            copy(pgConnection, "vendor", "id, version, created_at, updated_at, created_by, updated_by, name, type, supplier_name, supplier_id, supplier_number, vendor_group, agreement_status, status",
+                    writer -> writeVendors(writer, random));
+            copy(pgConnection, "product", "id, version, created_at, updated_at, created_by, updated_by, line_id, name, description, price, quantity, lifecycle, assortment, buy_plan, store_cost, retail_cost, margin, buyer, set_week, inspiration",
+                    writer -> writeProducts(writer, random));
+            long[] sourcingCount = new long[1];
+            copy(pgConnection, "product_vendor_sourcing", "id, version, created_at, updated_at, created_by, updated_by, product_id, vendor_id, primary_vendor, vsn, factory_name, factory_code, factory_country, sustainable, contact_name, contact_email, contact_phone",
+                    writer -> sourcingCount[0] = writeSourcing(writer, random));
+            copy(pgConnection, "vendor_quote", "id, version, created_at, updated_at, created_by, updated_by, product_vendor_sourcing_id, quote_number, version_number, currency_code, incoterm, unit_cost, moq, lead_time_days, sample_lead_time_days, material_cost, labor_cost, overhead_cost, logistics_cost, duty_cost, packaging_cost, margin_percent, total_cost, capacity_per_month, payment_terms, valid_from, valid_to, status, submitted_by, submitted_at, reviewed_by, reviewed_at, deleted, deleted_at, deleted_by",
+                    writer -> writeQuotes(writer, random, sourcingCount[0]));
+
+            try (Statement statement = connection.createStatement()) {
+                for (String table : TABLES) {
+                    statement.execute("ALTER TABLE " + table + " ENABLE TRIGGER USER");
+                }
+            }
+            // The TRUNCATE cascaded to vendor_quote_summary; rebuild it in one set-based pass.
+            try (PreparedStatement refresh = connection.prepareStatement("SELECT refresh_vendor_quote_summary(NULL, ?)")) {
+                refresh.setString(1, baseCurrency);
+                refresh.execute();
+            }
+            connection.commit();
+            connection.setAutoCommit(true);
+            try (Statement statement = connection.createStatement()) {
+                for (String table : TABLES) {
+                    statement.execute("ANALYZE " + table);
+                }
+                statement.execute("ANALYZE vendor_quote_summary");
+            }
+        } catch (SQLException exception) {
+            throw new IllegalStateException("Synthetic dataset load failed.", exception);
+        }
+        EventLog.info(LOG, "DATASET_GENERATED", "elapsedMs", (System.nanoTime() - started) / 1_000_000);
+    }
+
+    @FunctionalInterface
+    private interface RowWriter {
+        void write(Writer writer) throws IOException;
+    }
+
+    private void copy(PGConnection connection, String table, String columns, RowWriter rows) throws SQLException {
+        long started = System.nanoTime();
+        String sql = "COPY " + table + " (" + columns + ") FROM STDIN WITH (FORMAT csv)";
+        try (Writer writer = new BufferedWriter(new OutputStreamWriter(
+                new PGCopyOutputStream(connection, sql, copyBufferSize), StandardCharsets.UTF_8), copyBufferSize)) {
+            rows.write(writer);
+        } catch (IOException exception) {
+            if (exception.getCause() instanceof SQLException sqlException) {
+                throw sqlException;
+            }
+            throw new UncheckedIOException(exception);
+        }
+        EventLog.info(LOG, "DATASET_TABLE_LOADED", "table", table, "elapsedMs", (System.nanoTime() - started) / 1_000_000);
+    }
+
+    private void writeLines(Writer writer, SplittableRandom random) throws IOException {
+        for (int i = 0; i < lines; i++) {
+            LocalDateTime created = createdAt(random);
+            int year = 2022 + random.nextInt(6);
+            String season = SEASONS[i % 2];
+            LocalDateTime start = LocalDateTime.of(year, season.equals("SS") ? 2 : 8, 1, 0, 0);
+            int styles = 20 + random.nextInt(400);
+            int units = styles * (200 + random.nextInt(2000));
+            Csv.writeRow(writer, id(LINE, i), 0, ts(created), ts(created), CREATED_BY, CREATED_BY,
+                    String.format("SYN-L%05d", i), season, year,
+                    id(BRAND, random.nextInt(20)), id(MARKET, random.nextInt(8)), id(CHANNEL, random.nextInt(4)),
+                    ts(start), ts(start.plusMonths(6)), styles, units, money(units * (15 + random.nextDouble(60))));
+        }
+    }
+
+    private void writeColors(Writer writer, SplittableRandom random) throws IOException {
+        for (int i = 0; i < colors; i++) {
+            LocalDateTime created = createdAt(random);
+            Csv.writeRow(writer, id(COLOR, i), 0, ts(created), ts(created), CREATED_BY, CREATED_BY,
+                    String.format("SYN-Color-%04d", i), null,
+                    random.nextInt(256) + "," + random.nextInt(256) + "," + random.nextInt(256));
+        }
+    }
+
+    private void writeSizes(Writer writer) throws IOException {
+        for (int i = 0; i < sizes; i++) {
+            LocalDateTime created = baseTime.minusDays(i);
+            Csv.writeRow(writer, id(SIZE, i), 0, ts(created), ts(created), CREATED_BY, CREATED_BY,
+                    String.format("SYN-Size-Grp-%03d", i), "XS, S, M, L, XL" + (i % 3 == 0 ? ", XXL" : ""));
+        }
+    }
+
+    private void writeVendors(Writer writer, SplittableRandom random) throws IOException {
+        for (int i = 0; i < vendors; i++) {
+            LocalDateTime created = createdAt(random);
+            Csv.writeRow(writer, id(VENDOR, i), 0, ts(created), ts(created), CREATED_BY, CREATED_BY,
+                    String.format("SYN Vendor %05d", i), pick(random, VENDOR_TYPES),
+                    String.format("SYN Supplier %05d", i), String.format("SUP-%05d", i), String.format("%08d", i),
+                    pick(random, VENDOR_GROUPS), pick(random, AGREEMENTS), random.nextInt(100) >= 5);
+        }
+    }
+
+    private void writeProducts(Writer writer, SplittableRandom random) throws IOException {
+        for (int i = 0; i < products; i++) {
+            LocalDateTime created = createdAt(random);
+            BigDecimal price = money(9.99 + 290 * Math.pow(random.nextDouble(), 2));
+            BigDecimal storeCost = price.multiply(BigDecimal.valueOf(0.35 + random.nextDouble(0.2))).setScale(2, RoundingMode.HALF_UP);
+            BigDecimal margin = price.subtract(storeCost).multiply(BigDecimal.valueOf(100))
+                    .divide(price, 2, RoundingMode.HALF_UP);
+            String fit = pick(random, FITS);
+            String garment = pick(random, GARMENTS);
+            Csv.writeRow(writer, id(PRODUCT, i), random.nextInt(4), ts(created), ts(created.plusDays(random.nextInt(60))),
+                    CREATED_BY, CREATED_BY,
+                    id(LINE, skewed(random, lines, 2.0)),
+                    fit + " " + garment + " " + i,
+                    fit + " " + garment.toLowerCase() + " in seasonal fabric, style " + i + ".",
+                    price, (int) (10 + 5000 * Math.pow(random.nextDouble(), 3)),
+                    pick(random, LIFECYCLES), pick(random, ASSORTMENTS), "Buy plan " + (1 + random.nextInt(4)),
+                    storeCost, price, margin, pick(random, BUYERS), 1 + random.nextInt(52),
+                    random.nextInt(3) == 0 ? null : garment + " trend board " + random.nextInt(100));
+        }
+    }
+
+    /**
+     * One primary vendor per product plus a skewed number of secondary vendors; popular
+     * vendors are picked far more often. Returns the number of sourcing rows written.
+     */
+    private long writeSourcing(Writer writer, SplittableRandom random) throws IOException {
+        long sequence = 0;
+        int[] picked = new int[6];
+        for (int p = 0; p < products; p++) {
+            int roll = random.nextInt(100);
+            int count = roll < 40 ? 1 : roll < 70 ? 2 : roll < 85 ? 3 : 4 + random.nextInt(3);
+            count = Math.min(count, vendors);
+            for (int v = 0; v < count; v++) {
+                int vendor;
+                do {
+                    vendor = skewed(random, vendors, 3.0);
+                } while (contains(picked, v, vendor));
+                picked[v] = vendor;
+                LocalDateTime created = createdAt(random);
+                String country = pick(random, COUNTRIES);
+                Csv.writeRow(writer, id(SOURCING, sequence), 0, ts(created), ts(created), CREATED_BY, CREATED_BY,
+                        id(PRODUCT, p), id(VENDOR, vendor), v == 0,
+                        "VSN-" + p + "-" + v, "Factory " + country + "-" + vendor, "F" + vendor, country,
+                        random.nextInt(4) == 0, "Contact " + vendor, "contact" + vendor + "@vendor.example", null);
+                sequence++;
+            }
+        }
+        return sequence;
+    }
+
+    /**
+     * Spreads the quote budget over sourcing links with a geometric count per link. Each
+     * quote number gets up to three versions; older versions are mostly rejected and each
+     * revision is slightly cheaper than the one before. The total is approximate.
+     */
+    private void writeQuotes(Writer writer, SplittableRandom random, long sourcingCount) throws IOException {
+        if (sourcingCount == 0) {
+            return;
+        }
+        double mean = Math.max(1.0, (double) quotes / sourcingCount);
+        double p = 1.0 / mean;
+        long written = 0;
+        for (long link = 0; link < sourcingCount && written < quotes; link++) {
+            long remaining = quotes - written;
+            int count = (int) Math.min(remaining, 1 + (long) Math.floor(Math.log(1 - random.nextDouble()) / Math.log(1 - Math.min(p, 0.999))));
+            double baseCost = 2.5 + 57.5 * Math.pow(random.nextDouble(), 2);
+            String currency = pick(random, CURRENCIES);
+            String incoterm = pick(random, INCOTERMS);
+            for (int q = 0; q < count; q++) {
+                int quoteNumber = q / 3 + 1;
+                int versionNumber = q % 3 + 1;
+                boolean latest = versionNumber == 3 || q == count - 1;
+                String status = latest ? pick(random, LATEST_STATUSES) : random.nextInt(10) < 7 ? "REJECTED" : "SUBMITTED";
+                writeQuote(writer, random, written, link, quoteNumber, versionNumber, status,
+                        baseCost * (1 - 0.03 * (versionNumber - 1)), currency, incoterm);
+                written++;
+            }
+        }
+        EventLog.info(LOG, "DATASET_QUOTES_WRITTEN", "links", sourcingCount, "quotes", written);
+    }
+
+    private void writeQuote(Writer writer, SplittableRandom random, long sequence, long link, int quoteNumber,
+                            int versionNumber, String status, double unitCost, String currency, String incoterm) throws IOException {
+        LocalDateTime created = createdAt(random);
+        LocalDate validFrom = created.toLocalDate();
+        boolean submitted = !status.equals("DRAFT");
+        boolean reviewed = status.equals("APPROVED") || status.equals("REJECTED") || status.equals("UNDER_REVIEW");
+        boolean deleted = random.nextInt(100) < deletedQuotePercent;
+        LocalDateTime submittedAt = submitted ? created.plusHours(1 + random.nextInt(72)) : null;
+        LocalDateTime reviewedAt = reviewed ? submittedAt.plusDays(1 + random.nextInt(14)) : null;
+        LocalDateTime deletedAt = deleted ? created.plusDays(1 + random.nextInt(90)) : null;
+        double material = unitCost * 0.5;
+        double labor = unitCost * 0.2;
+        double overhead = unitCost * 0.08;
+        double logistics = unitCost * (0.05 + random.nextDouble(0.07));
+        double duty = unitCost * random.nextDouble(0.18);
+        double packaging = unitCost * (0.02 + random.nextDouble(0.03));
+        Csv.writeRow(writer, id(QUOTE, sequence), deleted ? 1 : 0, ts(created),
+                ts(deletedAt != null ? deletedAt : reviewedAt != null ? reviewedAt : created), CREATED_BY, CREATED_BY,
+                id(SOURCING, link), "SYN-Q-" + link + "-" + quoteNumber, versionNumber, currency, incoterm,
+                cost(unitCost), 100 * (1 + random.nextInt(50)), 20 + random.nextInt(100),
+                random.nextInt(5) == 0 ? null : 5 + random.nextInt(25),
+                cost(material), cost(labor), cost(overhead), cost(logistics), cost(duty), cost(packaging),
+                money(5 + random.nextDouble(25)), cost(unitCost + logistics + duty + packaging),
+                1000 * (1 + random.nextInt(100)), pick(random, PAYMENT_TERMS),
+                validFrom, validFrom.plusDays(90 + random.nextInt(275)), status,
+                submitted ? CREATED_BY : null, submittedAt == null ? null : ts(submittedAt),
+                reviewed ? "reviewer" : null, reviewedAt == null ? null : ts(reviewedAt),
+                deleted, deletedAt == null ? null : ts(deletedAt), deleted ? CREATED_BY : null);
+    }
+
+    /**
+     * UUIDv7 layout with a synthetic timestamp and the sequence in the random bits, so
+     * ids sort in generation order and are unique per table tag.
+     */
+    static UUID id(int table, long sequence) {
+        long millis = 1_767_225_600_000L + sequence / 1000;
+        long msb = (millis << 16) | 0x7000L | (table & 0x0FFF);
+        long lsb = 0x8000_0000_0000_0000L | (sequence & 0x3FFF_FFFF_FFFF_FFFFL);
+        return new UUID(msb, lsb);
+    }
+
+    /** Index in [0, bound) biased toward 0; larger exponents skew harder. */
+    private static int skewed(SplittableRandom random, int bound, double exponent) {
+        return Math.min(bound - 1, (int) (bound * Math.pow(random.nextDouble(), exponent)));
+    }
+
+    private static boolean contains(int[] values, int length, int value) {
+        for (int i = 0; i < length; i++) {
+            if (values[i] == value) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static String pick(SplittableRandom random, String[] values) {
+        return values[random.nextInt(values.length)];
+    }
+
+    private LocalDateTime createdAt(SplittableRandom random) {
+        return baseTime.minusMinutes(random.nextLong(2L * 365 * 24 * 60));
+    }
+
+    private static String ts(LocalDateTime value) {
+        return TIMESTAMP.format(value);
+    }
+
+    private static BigDecimal money(double value) {
+        return BigDecimal.valueOf(value).setScale(2, RoundingMode.HALF_UP);
+    }
+
+    private static BigDecimal cost(double value) {
+        return BigDecimal.valueOf(value).setScale(4, RoundingMode.HALF_UP);
+    }
+}
@@ -0,0 +1,86 @@
+package org.acme.service;
+
+import io.quarkus.narayana.jta.QuarkusTransaction;
+import io.quarkus.scheduler.Scheduled;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import org.acme.repository.VendorQuoteRepository;
+import org.acme.repository.VendorQuoteRepository.ArchivedQuote;
+import org.acme.repository.VendorQuoteSummaryRepository;
+import org.acme.util.EventLog;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.jboss.logging.Logger;
+
+/**
+ * Keeps vendor_quote small by moving quotes soft-deleted longer than the retention, and
+ * superseded versions left untouched for as long, into vendor_quote_archive. Each batch is
+ * its own short transaction that skips rows other writers hold, so the job can run on every
+ * node at once and never blocks reviewers.
+ */
+@ApplicationScoped
+public class VendorQuoteArchiveService {
+
+    private static final Logger LOG = Logger.getLogger(VendorQuoteArchiveService.class);
+
+    @Inject
+    VendorQuoteRepository vendorQuoteRepository;
+
+    @Inject
+    VendorQuoteSummaryRepository vendorQuoteSummaryRepository;
+
+    @ConfigProperty(name = "app.quotes.archive.deleted-retention-days", defaultValue = "30")
+    int deletedRetentionDays;
+
+    @ConfigProperty(name = "app.quotes.archive.superseded-retention-days", defaultValue = "90")
+    int supersededRetentionDays;
+
+    @ConfigProperty(name = "app.quotes.archive.batch-size", defaultValue = "500")
+    int batchSize;
+
+    @ConfigProperty(name = "app.quotes.archive.max-batches", defaultValue = "100")
+    int maxBatches;
+
+    @Scheduled(every = "{app.quotes.archive.interval}", concurrentExecution = Scheduled.ConcurrentExecution.SKIP)
+    void archive() {
+        try {
+            archiveOlderThan(deletedRetentionDays, supersededRetentionDays);
+        } catch (RuntimeException exception) {
+            LOG.warnf(exception, "VENDOR_QUOTE_ARCHIVE_FAILED");
+        }
+    }
+
+    /**
+     * One archive pass with explicit retentions, in days. Returns the number of quotes moved.
+     */
+    public int archiveOlderThan(int deletedDays, int supersededDays) {
+        LocalDateTime now = LocalDateTime.now();
+        int deleted = drain(limit -> vendorQuoteRepository.archiveDeleted(now.minusDays(deletedDays), limit));
+        int superseded = drain(limit -> vendorQuoteRepository.archiveSuperseded(now.minusDays(supersededDays), limit));
+        EventLog.info(LOG, "VENDOR_QUOTE_ARCHIVE_COMPLETED", "deleted", deleted, "superseded", superseded);
+        return deleted + superseded;
+    }
+
+    private int drain(Function<Integer, List<ArchivedQuote>> batch) {
+        int moved = 0;
+        for (int i = 0; i < maxBatches; i++) {
+            int count = QuarkusTransaction.requiringNew().call(() -> {
+                List<ArchivedQuote> archived = batch.apply(batchSize);
+                // Deleted quotes were already outside the summary; superseded ones still counted.
+                vendorQuoteSummaryRepository.refresh(archived.stream()
+                        .filter(quote -> !"DELETED".equals(quote.reason()))
+                        .map(ArchivedQuote::linkId)
+                        .collect(Collectors.toSet()));
+                return archived.size();
+            });
+            moved += count;
+            if (count < batchSize) {
+                break;
+            }
+        }
+        return moved;
+    }
+}
@@ -0,0 +1,78 @@
+package org.acme.service;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.quarkus.narayana.jta.QuarkusTransaction;
+import io.quarkus.scheduler.Scheduled;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.stream.Collectors;
+import org.acme.entity.VendorQuoteStatus;
+import org.acme.repository.VendorQuoteRepository;
+import org.acme.repository.VendorQuoteRepository.ExpiredQuote;
+import org.acme.repository.VendorQuoteSummaryRepository;
+import org.acme.util.EventLog;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.jboss.logging.Logger;
+
+/**
+ * Moves SUBMITTED and UNDER_REVIEW quotes past their validTo to EXPIRED so they drop out of
+ * review queues. Work is done in chunked set-based UPDATEs, each in its own transaction with
+ * SKIP LOCKED candidates, so several nodes can run the job concurrently without waiting on
+ * each other or on reviewers.
+ */
+@ApplicationScoped
+public class VendorQuoteExpiryService {
+
+    private static final Logger LOG = Logger.getLogger(VendorQuoteExpiryService.class);
+
+    static final String ACTOR = "system:quote-expiry";
+
+    @Inject
+    VendorQuoteRepository vendorQuoteRepository;
+
+    @Inject
+    VendorQuoteSummaryRepository vendorQuoteSummaryRepository;
+
+    @Inject
+    MeterRegistry meterRegistry;
+
+    @ConfigProperty(name = "app.quotes.expiry.batch-size", defaultValue = "1000")
+    int batchSize;
+
+    @ConfigProperty(name = "app.quotes.expiry.max-batches", defaultValue = "100")
+    int maxBatches;
+
+    @Scheduled(every = "{app.quotes.expiry.interval}", concurrentExecution = Scheduled.ConcurrentExecution.SKIP)
+    void scheduledExpire() {
+        try {
+            expire(LocalDate.now());
+        } catch (RuntimeException exception) {
+            LOG.warnf(exception, "VENDOR_QUOTE_EXPIRY_FAILED");
+        }
+    }
+
+    public int expire(LocalDate today) {
+        int expired = 0;
+        for (int i = 0; i < maxBatches; i++) {
+            List<ExpiredQuote> batch = QuarkusTransaction.requiringNew().call(() -> {
+                List<ExpiredQuote> quotes = vendorQuoteRepository.expireBatch(today, ACTOR, batchSize);
+                vendorQuoteSummaryRepository.refresh(quotes.stream()
+                        .map(ExpiredQuote::linkId)
+                        .collect(Collectors.toSet()));
+                return quotes;
+            });
+            for (ExpiredQuote quote : batch) {
+                meterRegistry.counter("plm.quote.status.transitions",
+                        "from", quote.previousStatus().name(), "to", VendorQuoteStatus.EXPIRED.name()).increment();
+            }
+            expired += batch.size();
+            if (batch.size() < batchSize) {
+                break;
+            }
+        }
+        EventLog.info(LOG, "VENDOR_QUOTE_EXPIRY_COMPLETED", "expired", expired);
+        return expired;
+    }
+}
@@ -1,24 +1,44 @@
 package org.acme.service;
 
+import io.micrometer.core.instrument.MeterRegistry;
 import jakarta.enterprise.context.ApplicationScoped;
 import jakarta.inject.Inject;
+import jakarta.persistence.OptimisticLockException;
 import jakarta.transaction.Transactional;
 import java.math.BigDecimal;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.NoSuchElementException;
 import java.util.Set;
 import java.util.UUID;
+import org.acme.dto.ProductQuoteResponse;
+import org.acme.dto.QuoteRankingResponse;
+import org.acme.dto.SparseRow;
+import org.acme.dto.VendorQuoteDTO;
 import org.acme.entity.Product;
 import org.acme.entity.ProductVendorSourcing;
 import org.acme.entity.VendorQuote;
 import org.acme.entity.VendorQuoteStatus;
+import org.acme.repository.LineRepository;
 import org.acme.repository.ProductRepository;
 import org.acme.repository.ProductVendorSourcingRepository;
+import org.acme.repository.ProjectionRepository;
+import org.acme.repository.QuoteComparisonSort;
+import org.acme.repository.ResourcePathRepository;
 import org.acme.repository.VendorQuoteRepository;
+import org.acme.repository.VendorQuoteRepository.QuoteStatusRow;
+import org.acme.repository.VendorQuoteSummaryRepository;
+import org.acme.util.EventLog;
+import org.acme.util.FieldSet;
+import org.acme.util.Paging;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
 import org.jboss.logging.Logger;
 
 @ApplicationScoped
@@ -36,9 +56,34 @@ public class VendorQuoteService {
             VendorQuoteStatus.APPROVED,
             EnumSet.of(VendorQuoteStatus.UNDER_REVIEW),
             VendorQuoteStatus.REJECTED,
-            EnumSet.of(VendorQuoteStatus.SUBMITTED, VendorQuoteStatus.UNDER_REVIEW)
+            EnumSet.of(VendorQuoteStatus.SUBMITTED, VendorQuoteStatus.UNDER_REVIEW),
+            // Only the expiry job moves quotes into EXPIRED; a vendor may resubmit once validTo is extended.
+            VendorQuoteStatus.EXPIRED,
+            EnumSet.of(VendorQuoteStatus.SUBMITTED)
     );
 
+    /** {@code ?fields=} names accepted on the quote list, mapped to JPQL paths. */
+    private static final Map<String, String> SPARSE_FIELDS = sparseFields();
+
+    private static Map<String, String> sparseFields() {
+        Map<String, String> fields = new HashMap<>();
+        for (String name : List.of(
+                "id", "version", "quoteNumber", "versionNumber", "currencyCode", "incoterm", "unitCost", "moq",
+                "leadTimeDays", "sampleLeadTimeDays", "materialCost", "laborCost", "overheadCost", "logisticsCost",
+                "dutyCost", "packagingCost", "marginPercent", "totalCost", "capacityPerMonth", "paymentTerms",
+                "validFrom", "validTo", "complianceNotes", "sustainabilityNotes", "status", "submittedBy",
+                "submittedAt", "reviewedBy", "reviewedAt", "approvalComment", "deleted", "deletedBy", "deletedAt",
+                "createdBy", "createdAt", "updatedBy", "updatedAt")) {
+            fields.put(name, "q." + name);
+        }
+        fields.put("productVendorSourcingId", "q.productVendorSourcing.id");
+        return Map.copyOf(fields);
+    }
+
+    static boolean isAllowedTransition(VendorQuoteStatus current, VendorQuoteStatus target) {
+        return ALLOWED_TRANSITIONS.getOrDefault(current, Set.of()).contains(target);
+    }
+
     @Inject
     ProductRepository productRepository;
 
@@ -48,22 +93,147 @@ public class VendorQuoteService {
     @Inject
     VendorQuoteRepository vendorQuoteRepository;
 
+    @Inject
+    VendorQuoteSummaryRepository vendorQuoteSummaryRepository;
+
+    @Inject
+    ResourcePathRepository resourcePathRepository;
+
+    @Inject
+    ProjectionRepository projectionRepository;
+
+    @Inject
+    LineRepository lineRepository;
+
+    @Inject
+    FxRateService fxRateService;
+
+    @Inject
+    MeterRegistry meterRegistry;
+
+    @ConfigProperty(name = "app.quote-status-batch.max-items", defaultValue = "500")
+    int statusBatchMaxItems;
+
+    @ConfigProperty(name = "app.quote-ranking.default-top-n", defaultValue = "3")
+    int rankingDefaultTopN;
+
+    @ConfigProperty(name = "app.quote-ranking.max-top-n", defaultValue = "50")
+    int rankingMaxTopN;
+
+    @ConfigProperty(name = "app.quote-ranking.lead-time-weight", defaultValue = "0.02")
+    BigDecimal rankingLeadTimeWeight;
+
     public List<VendorQuote> listByLink(UUID productId, UUID linkId, boolean includeDeleted) {
-        getProductOrThrow(productId);
-        getLinkOrThrow(productId, linkId);
-        return vendorQuoteRepository.listByLinkId(linkId, includeDeleted);
+        if (includeDeleted) {
+            requirePath(productId, linkId, null, false);
+            return vendorQuoteRepository.listByLinkId(linkId, true);
+        }
+        List<VendorQuote> quotes = vendorQuoteRepository.listByProductAndLinkId(productId, linkId);
+        if (quotes.isEmpty()) {
+            requirePath(productId, linkId, null, false);
+        }
+        return quotes;
+    }
+
+    /**
+     * Live quotes of a link with only the {@code fields} columns read and returned. Archived
+     * quotes are not mapped entities, so {@code includeDeleted} needs the full list.
+     */
+    public List<SparseRow> listFieldsByLink(UUID productId, UUID linkId, boolean includeDeleted, String fields) {
+        if (includeDeleted) {
+            throw new IllegalArgumentException("fields cannot be combined with includeDeleted.");
+        }
+        List<SparseRow> quotes = projectionRepository.vendorQuotesByLink(FieldSet.parse(fields, SPARSE_FIELDS), productId, linkId);
+        if (quotes.isEmpty()) {
+            requirePath(productId, linkId, null, false);
+        }
+        return quotes;
     }
 
     public List<VendorQuote> listByProduct(UUID productId, boolean includeDeleted) {
-        getProductOrThrow(productId);
-        return vendorQuoteRepository.listByProductId(productId, includeDeleted);
+        List<VendorQuote> quotes = vendorQuoteRepository.listByProductId(productId, includeDeleted);
+        if (quotes.isEmpty()) {
+            getProductOrThrow(productId);
+        }
+        return quotes;
+    }
+
+    public List<ProductQuoteResponse> compareByProduct(
+            UUID productId,
+            boolean includeDeleted,
+            String sort,
+            Integer page,
+            Integer size,
+            String currency
+    ) {
+        QuoteComparisonSort order = QuoteComparisonSort.parse(sort);
+        String target = fxRateService.targetCurrency(currency);
+        List<ProductQuoteResponse> rows = vendorQuoteRepository.listComparisonByProductId(
+                productId,
+                includeDeleted,
+                order,
+                Paging.normalizePage(page),
+                Paging.normalizeSize(size),
+                target,
+                fxRateService.snapshot().ratesInto(target, LocalDate.now())
+        );
+        if (rows.isEmpty()) {
+            // Only an empty page needs to tell "no quotes" apart from "no product".
+            getProductOrThrow(productId);
+        }
+        return rows;
+    }
+
+    public List<QuoteRankingResponse> rankByProduct(UUID productId, Integer topN, BigDecimal leadTimeWeight, String currency) {
+        String target = fxRateService.targetCurrency(currency);
+        List<QuoteRankingResponse> rows = vendorQuoteRepository.rankByLandedCost(
+                productId, null, normalizeTopN(topN), normalizeLeadTimeWeight(leadTimeWeight),
+                target, fxRateService.snapshot().ratesInto(target, LocalDate.now()));
+        if (rows.isEmpty()) {
+            getProductOrThrow(productId);
+        }
+        return rows;
+    }
+
+    public List<QuoteRankingResponse> rankByLine(UUID lineId, Integer topN, BigDecimal leadTimeWeight, String currency) {
+        String target = fxRateService.targetCurrency(currency);
+        List<QuoteRankingResponse> rows = vendorQuoteRepository.rankByLandedCost(
+                null, lineId, normalizeTopN(topN), normalizeLeadTimeWeight(leadTimeWeight),
+                target, fxRateService.snapshot().ratesInto(target, LocalDate.now()));
+        if (rows.isEmpty() && lineRepository.findById(lineId) == null) {
+            throw new NoSuchElementException("Line not found.");
+        }
+        return rows;
     }
 
+    private int normalizeTopN(Integer topN) {
+        if (topN == null) {
+            return rankingDefaultTopN;
+        }
+        if (topN < 1 || topN > rankingMaxTopN) {
+            throw new IllegalArgumentException("topN must be between 1 and " + rankingMaxTopN + ".");
+        }
+        return topN;
+    }
+
+    private BigDecimal normalizeLeadTimeWeight(BigDecimal leadTimeWeight) {
+        if (leadTimeWeight == null) {
+            return rankingLeadTimeWeight;
+        }
+        if (leadTimeWeight.signum() < 0) {
+            throw new IllegalArgumentException("leadTimeWeight must not be negative.");
+        }
+        return leadTimeWeight;
+    }
+
+    /**
+     * Loads the quote, its link, product and vendor in one query. Only a miss pays for a
+     * second query, which tells the missing path level apart for the 404.
+     */
     public VendorQuote findById(UUID productId, UUID linkId, UUID quoteId, boolean includeDeleted) {
-        getProductOrThrow(productId);
-        getLinkOrThrow(productId, linkId);
         VendorQuote quote = vendorQuoteRepository.findByProductAndLinkAndId(productId, linkId, quoteId, includeDeleted);
         if (quote == null) {
+            requirePath(productId, linkId, quoteId, includeDeleted);
             throw new NoSuchElementException("Vendor quote not found.");
         }
         return quote;
@@ -80,7 +250,8 @@ public class VendorQuoteService {
         // quote.submittedBy set by caller or from context? Assuming passed in entity for now or handle later
         quote.deleted = false;
         vendorQuoteRepository.persist(quote);
-        LOG.infof("VENDOR_QUOTE_CREATED quoteId=%s quoteNumber=%s", quote.id, quote.quoteNumber);
+        vendorQuoteSummaryRepository.refresh(linkId);
+        EventLog.info(LOG, "VENDOR_QUOTE_CREATED", "quoteId", quote.id, "quoteNumber", quote.quoteNumber);
         return quote;
     }
 
@@ -120,30 +291,26 @@ public class VendorQuoteService {
         quote.validTo = updateData.validTo;
         quote.complianceNotes = updateData.complianceNotes;
         quote.sustainabilityNotes = updateData.sustainabilityNotes;
-        
-        LOG.infof("VENDOR_QUOTE_UPDATED quoteId=%s", quote.id);
+        vendorQuoteSummaryRepository.refresh(linkId);
+
+        EventLog.info(LOG, "VENDOR_QUOTE_UPDATED", "quoteId", quote.id);
         return quote;
     }
 
     @Transactional
-    public VendorQuote updateStatus(UUID productId, UUID linkId, UUID quoteId, VendorQuoteStatusCommand command) {
+    public VendorQuote updateStatus(UUID productId, UUID linkId, UUID quoteId, VendorQuoteStatusCommand command, Long expectedVersion) {
         if (command == null || command.status() == null) {
             throw new IllegalArgumentException("Status payload is required.");
         }
 
         VendorQuote quote = findById(productId, linkId, quoteId, false);
+        requireVersion(quote, expectedVersion);
         VendorQuoteStatus current = quote.status;
         VendorQuoteStatus target = command.status();
 
-        if (current != target) {
-            Set<VendorQuoteStatus> allowed = ALLOWED_TRANSITIONS.getOrDefault(current, Set.of());
-            if (!allowed.contains(target)) {
-                throw new IllegalArgumentException("Invalid quote status transition.");
-            }
-        }
-
-        if (target == VendorQuoteStatus.APPROVED && quote.validTo != null && quote.validTo.isBefore(LocalDate.now())) {
-            throw new IllegalArgumentException("Expired quote cannot be approved.");
+        String error = transitionError(current, target, quote.validTo, LocalDate.now());
+        if (error != null) {
+            throw new IllegalArgumentException(error);
         }
 
         quote.status = target;
@@ -156,28 +323,127 @@ public class VendorQuoteService {
             quote.reviewedBy = command.actor();
         }
         quote.approvalComment = command.comment();
+        vendorQuoteSummaryRepository.refresh(linkId);
 
-        LOG.infof("VENDOR_QUOTE_STATUS_UPDATED quoteId=%s status=%s", quote.id, quote.status);
+        if (current != target) {
+            meterRegistry.counter("plm.quote.status.transitions", "from", current.name(), "to", target.name()).increment();
+        }
+        EventLog.info(LOG, "VENDOR_QUOTE_STATUS_UPDATED", "quoteId", quote.id, "status", quote.status);
         return quote;
     }
 
+    /**
+     * Applies one status to many quotes: the quotes are locked and loaded in one query, the
+     * transition and expiry rules are checked in memory, and every valid quote is written by
+     * a single UPDATE. Invalid or missing quotes are reported per id instead of failing the batch.
+     */
     @Transactional
-    public boolean softDelete(UUID productId, UUID linkId, UUID quoteId, String deletedBy) {
+    public List<VendorQuoteDTO.BatchStatusResult> updateStatusBatch(List<UUID> quoteIds, VendorQuoteStatusCommand command) {
+        if (command == null || command.status() == null) {
+            throw new IllegalArgumentException("Status payload is required.");
+        }
+        if (quoteIds == null || quoteIds.isEmpty()) {
+            throw new IllegalArgumentException("Quote ids are required.");
+        }
+        Set<UUID> ids = new LinkedHashSet<>(quoteIds);
+        if (ids.contains(null)) {
+            throw new IllegalArgumentException("Quote ids must not be null.");
+        }
+        if (ids.size() > statusBatchMaxItems) {
+            throw new IllegalArgumentException("Batch exceeds " + statusBatchMaxItems + " quotes.");
+        }
+
+        VendorQuoteStatus target = command.status();
+        LocalDate today = LocalDate.now();
+        Map<UUID, QuoteStatusRow> loaded = new HashMap<>();
+        for (QuoteStatusRow row : vendorQuoteRepository.lockForStatusChange(ids)) {
+            loaded.put(row.quoteId(), row);
+        }
+
+        Map<UUID, String> errors = new HashMap<>();
+        List<UUID> toUpdate = new ArrayList<>();
+        Set<UUID> linkIds = new HashSet<>();
+        for (UUID id : ids) {
+            QuoteStatusRow row = loaded.get(id);
+            if (row == null) {
+                continue;
+            }
+            String error = transitionError(row.status(), target, row.validTo(), today);
+            if (error != null) {
+                errors.put(id, error);
+            } else if (row.status() != target) {
+                toUpdate.add(id);
+                linkIds.add(row.linkId());
+            }
+        }
+
+        Map<UUID, Long> versions = toUpdate.isEmpty()
+                ? Map.of()
+                : vendorQuoteRepository.applyStatus(toUpdate, target, command.actor(), command.comment());
+        vendorQuoteSummaryRepository.refresh(linkIds);
+
+        List<VendorQuoteDTO.BatchStatusResult> results = new ArrayList<>(ids.size());
+        for (UUID id : ids) {
+            QuoteStatusRow row = loaded.get(id);
+            if (row == null) {
+                results.add(new VendorQuoteDTO.BatchStatusResult(id, "NOT_FOUND", null, null, "Vendor quote not found."));
+            } else if (errors.containsKey(id)) {
+                results.add(new VendorQuoteDTO.BatchStatusResult(id, "REJECTED", row.status(), null, errors.get(id)));
+            } else if (versions.containsKey(id)) {
+                meterRegistry.counter("plm.quote.status.transitions", "from", row.status().name(), "to", target.name()).increment();
+                results.add(new VendorQuoteDTO.BatchStatusResult(id, "UPDATED", target, versions.get(id), null));
+            } else {
+                results.add(new VendorQuoteDTO.BatchStatusResult(id, "UNCHANGED", row.status(), null, null));
+            }
+        }
+        EventLog.info(LOG, "VENDOR_QUOTE_STATUS_BATCH_UPDATED",
+                "status", target, "requested", ids.size(), "updated", versions.size(), "rejected", errors.size());
+        return results;
+    }
+
+    /** The reason {@code current -> target} is not allowed for a quote valid to {@code validTo}, or null. */
+    private static String transitionError(VendorQuoteStatus current, VendorQuoteStatus target, LocalDate validTo, LocalDate today) {
+        if (current != target && !isAllowedTransition(current, target)) {
+            return "Invalid quote status transition.";
+        }
+        if (target == VendorQuoteStatus.APPROVED && validTo != null && validTo.isBefore(today)) {
+            return "Expired quote cannot be approved.";
+        }
+        if (current == VendorQuoteStatus.EXPIRED && validTo != null && validTo.isBefore(today)) {
+            return "Expired quote cannot be resubmitted until validTo is extended.";
+        }
+        return null;
+    }
+
+    @Transactional
+    public void softDelete(UUID productId, UUID linkId, UUID quoteId, String deletedBy, Long expectedVersion) {
         VendorQuote quote = vendorQuoteRepository.findByProductAndLinkAndId(productId, linkId, quoteId, false);
         if (quote == null) {
-            return false;
+            requirePath(productId, linkId, quoteId, false);
+            throw new NoSuchElementException("Vendor quote not found.");
         }
+        requireVersion(quote, expectedVersion);
 
         quote.deleted = true;
         quote.deletedAt = LocalDateTime.now();
         quote.deletedBy = deletedBy;
-        LOG.infof("VENDOR_QUOTE_DELETED quoteId=%s", quoteId);
-        return true;
+        vendorQuoteSummaryRepository.refresh(linkId);
+        EventLog.info(LOG, "VENDOR_QUOTE_DELETED", "quoteId", quoteId);
+    }
+
+    /** Version check for writes whose payload carries no version; null skips it. */
+    private static void requireVersion(VendorQuote quote, Long expectedVersion) {
+        if (expectedVersion != null && quote.version != expectedVersion) {
+            throw new OptimisticLockException("Version mismatch. Expected " + expectedVersion + " but found " + quote.version);
+        }
     }
 
     private void ensureUniqueQuoteVersion(UUID linkId, String quoteNumber, Integer versionNumber, UUID currentQuoteId) {
         VendorQuote duplicate = vendorQuoteRepository.findByLinkAndQuoteAndVersion(linkId, quoteNumber, versionNumber);
         if (duplicate == null) {
+            if (versionNumber != null && vendorQuoteRepository.existsInArchive(linkId, quoteNumber, versionNumber)) {
+                throw new IllegalArgumentException("Quote number and version must be unique per vendor link.");
+            }
             return;
         }
         if (currentQuoteId != null && duplicate.id.equals(currentQuoteId)) {
@@ -197,8 +463,16 @@ public class VendorQuoteService {
     private ProductVendorSourcing getLinkOrThrow(UUID productId, UUID linkId) {
         ProductVendorSourcing link = productVendorSourcingRepository.findByProductIdAndId(productId, linkId);
         if (link == null) {
+            requirePath(productId, linkId, null, false);
             throw new NoSuchElementException("Product vendor link not found.");
         }
         return link;
     }
+
+    private void requirePath(UUID productId, UUID linkId, UUID quoteId, boolean includeDeleted) {
+        NoSuchElementException notFound = resourcePathRepository.resolve(productId, linkId, quoteId, includeDeleted).notFound();
+        if (notFound != null) {
+            throw notFound;
+        }
+    }
 }
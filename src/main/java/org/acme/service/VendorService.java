@@ -1,12 +1,21 @@
 package org.acme.service;
 
+import io.quarkus.cache.CacheResult;
 import jakarta.enterprise.context.ApplicationScoped;
 import jakarta.inject.Inject;
+import jakarta.persistence.OptimisticLockException;
 import jakarta.transaction.Transactional;
-import java.util.List;
 import java.util.UUID;
 import org.acme.entity.Vendor;
+import org.acme.mapper.VendorMapper;
+import org.acme.mapper.ResponseSerializer;
 import org.acme.repository.VendorRepository;
+import org.acme.repository.TableStatsRepository;
+import org.acme.util.CursorPage;
+import org.acme.util.ETags;
+import org.acme.util.EventLog;
+import org.acme.util.Paging;
+import org.acme.util.TaggedJson;
 import org.jboss.logging.Logger;
 
 @ApplicationScoped
@@ -14,30 +23,65 @@ public class VendorService {
 
     private static final Logger LOG = Logger.getLogger(VendorService.class);
 
+    @Inject
+    ReferenceDataCaches referenceDataCaches;
+
     @Inject
     VendorRepository vendorRepository;
 
-    public List<Vendor> list() {
-        return vendorRepository.listAll();
+    @Inject
+    TableStatsRepository tableStatsRepository;
+
+    @Inject
+    VendorMapper vendorMapper;
+
+    @Inject
+    ResponseSerializer responseSerializer;
+
+    public CursorPage<Vendor> list(String cursor, Integer size, boolean withTotal) {
+        CursorPage<Vendor> page = Paging.keyset(vendorRepository, cursor, size);
+        if (withTotal) {
+            page = page.withEstimatedTotal(tableStatsRepository.estimateRowCount("vendor", vendorRepository::count));
+        }
+        return page;
     }
 
     public Vendor findById(UUID id) {
         return vendorRepository.findById(id);
     }
 
+    @CacheResult(cacheName = "vendors")
+    public TaggedJson listJson(String cursor, int size, boolean withTotal) {
+        CursorPage<Vendor> page = list(cursor, size, withTotal);
+        return new TaggedJson(
+                responseSerializer.toJson(page.map(vendorMapper::toResponse)),
+                ETags.ofEntities(page.items(), page.nextCursor(), page.estimatedTotal()));
+    }
+
+    @CacheResult(cacheName = "vendors")
+    public TaggedJson findJson(UUID id) {
+        Vendor vendor = findById(id);
+        if (vendor == null) {
+            return null;
+        }
+        return new TaggedJson(responseSerializer.toJson(vendorMapper.toResponse(vendor)), ETags.of(vendor));
+    }
+
     @Transactional
     public Vendor create(Vendor vendor) {
+        referenceDataCaches.invalidateAfterCommit("vendors");
         if (vendor == null || vendor.name == null || vendor.name.isBlank()) {
             throw new IllegalArgumentException("Vendor name is required.");
         }
         vendor.id = null;
         vendorRepository.persist(vendor);
-        LOG.infof("VENDOR_CREATED id=%s name=%s", vendor.id, vendor.name);
+        EventLog.info(LOG, "VENDOR_CREATED", "id", vendor.id, "name", vendor.name);
         return vendor;
     }
 
     @Transactional
     public Vendor update(UUID id, Vendor updateData, long version) {
+        referenceDataCaches.invalidateAfterCommit("vendors");
         if (updateData == null) {
             throw new IllegalArgumentException("Vendor payload is required.");
         }
@@ -56,16 +100,22 @@ public class VendorService {
         existing.vendorGroup = updateData.vendorGroup;
         existing.agreementStatus = updateData.agreementStatus;
         existing.status = updateData.status;
-        LOG.infof("VENDOR_UPDATED id=%s", existing.id);
+        EventLog.info(LOG, "VENDOR_UPDATED", "id", existing.id);
         return existing;
     }
 
     @Transactional
-    public boolean delete(UUID id) {
-        boolean deleted = vendorRepository.deleteById(id);
-        if (deleted) {
-            LOG.infof("VENDOR_DELETED id=%s", id);
+    public boolean delete(UUID id, Long expectedVersion) {
+        referenceDataCaches.invalidateAfterCommit("vendors");
+        Vendor existing = vendorRepository.findById(id);
+        if (existing == null) {
+            return false;
+        }
+        if (expectedVersion != null && existing.version != expectedVersion) {
+            throw new OptimisticLockException("Version mismatch. Expected " + expectedVersion + " but found " + existing.version);
         }
-        return deleted;
+        vendorRepository.delete(existing);
+        EventLog.info(LOG, "VENDOR_DELETED", "id", id);
+        return true;
     }
 }
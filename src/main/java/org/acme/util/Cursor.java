@@ -0,0 +1,47 @@
+package org.acme.util;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.UUID;
+
+/**
+ * Opaque keyset cursor. Encodes the boundary id and the direction to read from it.
+ */
+public record Cursor(UUID id, boolean forward) {
+
+    private static final String AFTER = "a:";
+    private static final String BEFORE = "b:";
+
+    public static String after(UUID id) {
+        return encode(AFTER + id);
+    }
+
+    public static String before(UUID id) {
+        return encode(BEFORE + id);
+    }
+
+    public static Cursor decode(String cursor) {
+        if (cursor == null || cursor.isBlank()) {
+            return null;
+        }
+        String raw;
+        try {
+            raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+        } catch (IllegalArgumentException exception) {
+            throw new IllegalArgumentException("Invalid cursor.");
+        }
+        boolean forward = raw.startsWith(AFTER);
+        if (!forward && !raw.startsWith(BEFORE)) {
+            throw new IllegalArgumentException("Invalid cursor.");
+        }
+        try {
+            return new Cursor(UUID.fromString(raw.substring(AFTER.length())), forward);
+        } catch (IllegalArgumentException exception) {
+            throw new IllegalArgumentException("Invalid cursor.");
+        }
+    }
+
+    private static String encode(String raw) {
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,26 @@
+package org.acme.util;
+
+import java.util.List;
+import java.util.function.Function;
+
+public record CursorPage<T>(
+        List<T> items,
+        int size,
+        String nextCursor,
+        String prevCursor,
+        Long estimatedTotal) {
+
+    public <R> CursorPage<R> map(Function<T, R> mapper) {
+        return new CursorPage<>(
+                items.stream().map(mapper).toList(),
+                size,
+                nextCursor,
+                prevCursor,
+                estimatedTotal
+        );
+    }
+
+    public CursorPage<T> withEstimatedTotal(Long total) {
+        return new CursorPage<>(items, size, nextCursor, prevCursor, total);
+    }
+}
@@ -0,0 +1,195 @@
+package org.acme.util;
+
+import jakarta.ws.rs.core.EntityTag;
+import jakarta.ws.rs.core.HttpHeaders;
+import jakarta.ws.rs.core.MediaType;
+import jakarta.ws.rs.core.Request;
+import jakarta.ws.rs.core.Response;
+import jakarta.ws.rs.core.Variant;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.LocalDateTime;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.UUID;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import org.acme.entity.CoreEntity;
+import org.acme.mapper.BinaryJsonWriter;
+
+/**
+ * Weak entity tags built from {@link CoreEntity#version}. A single resource is tagged
+ * {@code W/"<id>:<version>[:<variant digest>]"}; a list is tagged with a digest of its row
+ * count, the newest {@code updated_at}, the first and last row id (so a page that shifts after a delete does
+ * not keep its old tag) and any extra inputs the caller passes, such as the page cursor.
+ */
+public final class ETags {
+
+    /** Returned by {@link #ifMatchVersion} when If-Match names another resource; never equals a real version. */
+    public static final long NO_MATCH = -1L;
+
+    private static final List<Variant> JSON_VARIANTS = Variant.mediaTypes(
+            MediaType.APPLICATION_JSON_TYPE,
+            MediaType.valueOf(BinaryJsonWriter.SMILE),
+            MediaType.valueOf(BinaryJsonWriter.CBOR)).build();
+
+    private ETags() {}
+
+    /**
+     * Tag for one entity. {@code variant} covers response fields that change without a
+     * version bump (e.g. re-signed image URLs) and is appended as a digest, so the
+     * {@code <id>:<version>} prefix that If-Match relies on is kept.
+     */
+    public static EntityTag of(CoreEntity entity, Object... variant) {
+        String value = entity.id + ":" + entity.version;
+        if (variant.length > 0) {
+            StringBuilder key = new StringBuilder();
+            for (Object part : variant) {
+                key.append('|').append(part);
+            }
+            value += ":" + digest(key).substring(0, 12);
+        }
+        return new EntityTag(value, true);
+    }
+
+    public static EntityTag ofEntities(List<? extends CoreEntity> rows, Object... variant) {
+        return ofList(rows, row -> row.id, row -> row.updatedAt, variant);
+    }
+
+    public static <T> EntityTag ofList(
+            List<T> rows,
+            Function<T, UUID> id,
+            Function<T, LocalDateTime> updatedAt,
+            Object... variant) {
+        LocalDateTime maxUpdatedAt = null;
+        for (T row : rows) {
+            LocalDateTime candidate = updatedAt.apply(row);
+            if (candidate != null && (maxUpdatedAt == null || candidate.isAfter(maxUpdatedAt))) {
+                maxUpdatedAt = candidate;
+            }
+        }
+        StringBuilder key = new StringBuilder()
+                .append(rows.size()).append('|')
+                .append(maxUpdatedAt).append('|')
+                .append(rows.isEmpty() ? null : id.apply(rows.getFirst())).append('|')
+                .append(rows.isEmpty() ? null : id.apply(rows.getLast()));
+        for (Object part : variant) {
+            key.append('|').append(part);
+        }
+        return new EntityTag(digest(key), true);
+    }
+
+    /**
+     * Tag for computed results that carry no row version, digested from the rows' string forms.
+     */
+    public static EntityTag ofContent(List<?> rows, Object... variant) {
+        StringBuilder key = new StringBuilder();
+        for (Object row : rows) {
+            key.append(row).append('\n');
+        }
+        for (Object part : variant) {
+            key.append('|').append(part);
+        }
+        return new EntityTag(digest(key), true);
+    }
+
+    /**
+     * True when the If-None-Match header lists {@code tag} or {@code *}. Uses the weak
+     * comparison RFC 9110 prescribes for If-None-Match.
+     */
+    public static boolean notModified(String ifNoneMatch, EntityTag tag) {
+        if (ifNoneMatch == null || ifNoneMatch.isBlank()) {
+            return false;
+        }
+        for (String candidate : ifNoneMatch.split(",")) {
+            String value = opaque(candidate);
+            if ("*".equals(value) || tag.getValue().equals(value)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * 304 when {@code ifNoneMatch} matches {@code tag}; otherwise 200 with the body, which is
+     * only built on that path.
+     */
+    public static Response ok(String ifNoneMatch, EntityTag tag, Supplier<?> body) {
+        if (notModified(ifNoneMatch, tag)) {
+            return Response.notModified(tag).build();
+        }
+        return Response.ok(body.get()).tag(tag).build();
+    }
+
+    /**
+     * {@link #ok(String, EntityTag, Supplier)} for endpoints that serve the same body as JSON,
+     * Smile or CBOR. The negotiated media type is appended to the tag, so a cached JSON body
+     * never validates a Smile request, and every response carries {@code Vary: Accept} so
+     * shared caches key on it.
+     */
+    public static Response ok(Request request, String ifNoneMatch, EntityTag tag, Supplier<?> body) {
+        Variant variant = request.selectVariant(JSON_VARIANTS);
+        MediaType type = variant != null ? variant.getMediaType() : MediaType.APPLICATION_JSON_TYPE;
+        EntityTag typed = new EntityTag(tag.getValue() + ":" + type.getSubtype(), tag.isWeak());
+        Response.ResponseBuilder response = notModified(ifNoneMatch, typed)
+                ? Response.notModified(typed)
+                : Response.ok(body.get(), type).tag(typed);
+        return response.header(HttpHeaders.VARY, HttpHeaders.ACCEPT).build();
+    }
+
+    /**
+     * Status for an optimistic lock failure: 412 when the expected version came from
+     * If-Match, 409 when it came from the request body.
+     */
+    public static Response.Status lockFailure(Long ifMatchVersion) {
+        return ifMatchVersion != null ? Response.Status.PRECONDITION_FAILED : Response.Status.CONFLICT;
+    }
+
+    /**
+     * Version carried by an If-Match header for resource {@code id}. Returns null when the
+     * header is absent or {@code *}, so the caller falls back to the body version, and
+     * {@link #NO_MATCH} when no listed tag belongs to {@code id}.
+     */
+    public static Long ifMatchVersion(String ifMatch, UUID id) {
+        if (ifMatch == null || ifMatch.isBlank()) {
+            return null;
+        }
+        String prefix = id + ":";
+        for (String candidate : ifMatch.split(",")) {
+            String value = opaque(candidate);
+            if ("*".equals(value)) {
+                return null;
+            }
+            if (value.startsWith(prefix)) {
+                int end = value.indexOf(':', prefix.length());
+                try {
+                    return Long.parseLong(value.substring(prefix.length(), end < 0 ? value.length() : end));
+                } catch (NumberFormatException ignored) {
+                    // Not one of our tags; keep looking.
+                }
+            }
+        }
+        return NO_MATCH;
+    }
+
+    private static String opaque(String candidate) {
+        String value = candidate.strip();
+        if (value.startsWith("W/")) {
+            value = value.substring(2);
+        }
+        if (value.length() >= 2 && value.startsWith("\"") && value.endsWith("\"")) {
+            value = value.substring(1, value.length() - 1);
+        }
+        return value;
+    }
+
+    private static String digest(CharSequence key) {
+        try {
+            byte[] hash = MessageDigest.getInstance("SHA-256").digest(key.toString().getBytes(StandardCharsets.UTF_8));
+            return HexFormat.of().formatHex(hash, 0, 16);
+        } catch (NoSuchAlgorithmException exception) {
+            throw new IllegalStateException(exception);
+        }
+    }
+}
@@ -0,0 +1,76 @@
+package org.acme.util;
+
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ThreadLocalRandom;
+import org.eclipse.microprofile.config.Config;
+import org.eclipse.microprofile.config.ConfigProvider;
+import org.jboss.logging.Logger;
+import org.jboss.logging.MDC;
+
+/**
+ * Structured event logging. The message is the event key and the fields travel as MDC
+ * entries prefixed with {@code evt.}, which the JSON formatter emits as properties, so nothing is string-formatted
+ * on the request thread. Events can be sampled per key:
+ * {@code app.logging.sample-rate.<EVENT>} wins, then the rate for the event's suffix
+ * (e.g. {@code app.logging.sample-rate.ATTEMPT} for every {@code *_ATTEMPT}), then
+ * {@code app.logging.sample-rate.default}, which defaults to 1.0 (log everything).
+ */
+public final class EventLog {
+
+    private static final String PREFIX = "app.logging.sample-rate.";
+
+    private static final String KEY_PREFIX = "evt.";
+
+    private static final ConcurrentMap<String, Double> SAMPLE_RATES = new ConcurrentHashMap<>();
+
+    private EventLog() {}
+
+    /**
+     * Logs {@code event} at INFO with alternating key/value {@code fields}. Keys go into the
+     * MDC under {@code evt.} so they cannot clobber request-scoped entries, and whatever was
+     * there before is put back afterwards.
+     */
+    public static void info(Logger log, String event, Object... fields) {
+        if (!log.isInfoEnabled() || !sampled(event)) {
+            return;
+        }
+        int count = fields.length / 2;
+        String[] keys = new String[count + 1];
+        Object[] previous = new Object[count + 1];
+        keys[0] = KEY_PREFIX + "event";
+        previous[0] = MDC.put(keys[0], event);
+        for (int i = 0; i < count; i++) {
+            Object value = fields[2 * i + 1];
+            keys[i + 1] = KEY_PREFIX + fields[2 * i];
+            previous[i + 1] = MDC.put(keys[i + 1], value == null ? "null" : value);
+        }
+        try {
+            log.info(event);
+        } finally {
+            for (int i = keys.length - 1; i >= 0; i--) {
+                if (previous[i] == null) {
+                    MDC.remove(keys[i]);
+                } else {
+                    MDC.put(keys[i], previous[i]);
+                }
+            }
+        }
+    }
+
+    static boolean sampled(String event) {
+        double rate = SAMPLE_RATES.computeIfAbsent(event, EventLog::configuredRate);
+        return rate >= 1.0 || (rate > 0.0 && ThreadLocalRandom.current().nextDouble() < rate);
+    }
+
+    private static double configuredRate(String event) {
+        Config config = ConfigProvider.getConfig();
+        int suffix = event.lastIndexOf('_');
+        return config.getOptionalValue(PREFIX + event, Double.class)
+                .or(() -> suffix < 0 ? Optional.empty()
+                        : config.getOptionalValue(PREFIX + event.substring(suffix + 1), Double.class))
+                .or(() -> config.getOptionalValue(PREFIX + "default", Double.class))
+                .orElse(1.0);
+    }
+}
@@ -0,0 +1,68 @@
+package org.acme.util;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import org.acme.dto.SparseRow;
+
+/**
+ * A parsed {@code ?fields=} selection. Each API field name is resolved against a whitelist
+ * that maps it to a JPQL path, so only known paths ever reach the query text. Projection
+ * queries select {@code id} and {@code updatedAt} first (for keyset cursors and ETags),
+ * then {@link #selectList()}.
+ */
+public record FieldSet(List<String> names, List<String> paths) {
+
+    private static final int LEADING_COLUMNS = 2;
+
+    /** Null when {@code fields} is absent, meaning the full response. */
+    public static FieldSet parse(String fields, Map<String, String> allowed) {
+        if (fields == null || fields.isBlank()) {
+            return null;
+        }
+        Map<String, String> selected = new LinkedHashMap<>();
+        for (String raw : fields.split(",")) {
+            String name = raw.strip();
+            if (name.isEmpty()) {
+                continue;
+            }
+            String path = allowed.get(name);
+            if (path == null) {
+                throw new IllegalArgumentException("Unknown field: " + name + ".");
+            }
+            selected.putIfAbsent(name, path);
+        }
+        if (selected.isEmpty()) {
+            throw new IllegalArgumentException("fields must name at least one field.");
+        }
+        return new FieldSet(List.copyOf(selected.keySet()), List.copyOf(selected.values()));
+    }
+
+    public boolean contains(String name) {
+        return names.contains(name);
+    }
+
+    /** The selected paths, comma-separated and led by a comma, to follow the id and updatedAt columns. */
+    public String selectList() {
+        StringBuilder select = new StringBuilder();
+        for (String path : paths) {
+            select.append(", ").append(path);
+        }
+        return select.toString();
+    }
+
+    public List<SparseRow> toRows(List<Object[]> tuples) {
+        List<SparseRow> rows = new ArrayList<>(tuples.size());
+        for (Object[] tuple : tuples) {
+            Map<String, Object> fields = new LinkedHashMap<>();
+            for (int i = 0; i < names.size(); i++) {
+                fields.put(names.get(i), tuple[LEADING_COLUMNS + i]);
+            }
+            rows.add(new SparseRow((UUID) tuple[0], (LocalDateTime) tuple[1], fields));
+        }
+        return rows;
+    }
+}
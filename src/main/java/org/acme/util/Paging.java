@@ -1,8 +1,15 @@
 package org.acme.util;
 
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
+import java.util.UUID;
+import java.util.function.BiFunction;
+import java.util.function.Function;
 
 import io.quarkus.hibernate.panache.PanacheQuery;
+import io.quarkus.hibernate.panache.PanacheRepository;
+import org.acme.entity.CoreEntity;
 
 public final class Paging {
 
@@ -28,12 +35,66 @@ public final class Paging {
         return PageResult.of((List) items, p, s, total);
     }
 
+    /**
+     * Keyset page ordered by id. Reads one extra row to detect whether another page
+     * exists instead of counting the table.
+     */
+    @SuppressWarnings("unchecked")
+    public static <E extends CoreEntity> CursorPage<E> keyset(
+            PanacheRepository.Managed<E, UUID> repository,
+            String cursor,
+            Integer size) {
+
+        return keyset(cursor, size, (position, limit) -> {
+            PanacheQuery<E, ?, ?, ?> query;
+            if (position == null) {
+                query = repository.find("order by id");
+            } else if (position.forward()) {
+                query = repository.find("id > ?1 order by id", position.id());
+            } else {
+                query = repository.find("id < ?1 order by id desc", position.id());
+            }
+            query.page(0, limit);
+            return (List<E>) query.list();
+        }, entity -> entity.id);
+    }
+
+    /**
+     * Keyset page over any id-ordered rows, e.g. projections. {@code fetch} reads up to
+     * {@code limit} rows after the cursor position (ascending), before it (descending), or
+     * from the start when the position is null.
+     */
+    public static <T> CursorPage<T> keyset(
+            String cursor,
+            Integer size,
+            BiFunction<Cursor, Integer, List<T>> fetch,
+            Function<T, UUID> id) {
+
+        int s = normalizeSize(size);
+        Cursor position = Cursor.decode(cursor);
+
+        List<T> rows = fetch.apply(position, s + 1);
+        boolean more = rows.size() > s;
+        List<T> items = new ArrayList<>(more ? rows.subList(0, s) : rows);
+        boolean backward = position != null && !position.forward();
+        if (backward) {
+            Collections.reverse(items);
+        }
+
+        boolean hasNext = backward || more;
+        boolean hasPrev = position != null && (position.forward() || more);
+        String next = hasNext && !items.isEmpty() ? Cursor.after(id.apply(items.getLast())) : null;
+        String prev = hasPrev && !items.isEmpty() ? Cursor.before(id.apply(items.getFirst())) : null;
+
+        return new CursorPage<>(List.copyOf(items), s, next, prev, null);
+    }
+
 
-    private static int normalizePage(Integer page) {
+    public static int normalizePage(Integer page) {
         return (page == null || page < 0) ? DEFAULT_PAGE : page;
     }
 
-    private static int normalizeSize(Integer size) {
+    public static int normalizeSize(Integer size) {
         if (size == null || size <= 0) return DEFAULT_SIZE;
         return Math.min(size, MAX_SIZE);
     }
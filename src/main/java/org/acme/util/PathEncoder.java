@@ -0,0 +1,80 @@
+package org.acme.util;
+
+/**
+ * RFC 3986 percent-encoding for object-key paths ({@code /} is kept). Driven by lookup
+ * tables and writes UTF-8 bytes directly, so the only allocation is the result; keys that
+ * need no escaping are returned as-is.
+ */
+public final class PathEncoder {
+
+    private static final boolean[] SAFE = new boolean[128];
+    private static final char[] HEX = "0123456789ABCDEF".toCharArray();
+
+    static {
+        for (char c = 'a'; c <= 'z'; c++) SAFE[c] = true;
+        for (char c = 'A'; c <= 'Z'; c++) SAFE[c] = true;
+        for (char c = '0'; c <= '9'; c++) SAFE[c] = true;
+        SAFE['-'] = true;
+        SAFE['_'] = true;
+        SAFE['.'] = true;
+        SAFE['~'] = true;
+        SAFE['/'] = true;
+    }
+
+    private PathEncoder() {}
+
+    public static String encode(String path) {
+        int length = path.length();
+        int first = 0;
+        while (first < length && isSafe(path.charAt(first))) {
+            first++;
+        }
+        if (first == length) {
+            return path;
+        }
+        StringBuilder builder = new StringBuilder(length + 16);
+        builder.append(path, 0, first);
+        appendEncoded(builder, path, first);
+        return builder.toString();
+    }
+
+    public static void appendEncoded(StringBuilder builder, String path) {
+        appendEncoded(builder, path, 0);
+    }
+
+    private static void appendEncoded(StringBuilder builder, String path, int start) {
+        int length = path.length();
+        for (int i = start; i < length; i++) {
+            char c = path.charAt(i);
+            if (isSafe(c)) {
+                builder.append(c);
+            } else if (c < 0x80) {
+                appendByte(builder, c);
+            } else if (c < 0x800) {
+                appendByte(builder, 0xC0 | (c >> 6));
+                appendByte(builder, 0x80 | (c & 0x3F));
+            } else if (Character.isHighSurrogate(c) && i + 1 < length && Character.isLowSurrogate(path.charAt(i + 1))) {
+                int codePoint = Character.toCodePoint(c, path.charAt(++i));
+                appendByte(builder, 0xF0 | (codePoint >> 18));
+                appendByte(builder, 0x80 | ((codePoint >> 12) & 0x3F));
+                appendByte(builder, 0x80 | ((codePoint >> 6) & 0x3F));
+                appendByte(builder, 0x80 | (codePoint & 0x3F));
+            } else if (Character.isSurrogate(c)) {
+                // Unpaired surrogate: replaced with '?', as String.getBytes(UTF_8) does.
+                appendByte(builder, '?');
+            } else {
+                appendByte(builder, 0xE0 | (c >> 12));
+                appendByte(builder, 0x80 | ((c >> 6) & 0x3F));
+                appendByte(builder, 0x80 | (c & 0x3F));
+            }
+        }
+    }
+
+    private static boolean isSafe(char c) {
+        return c < 128 && SAFE[c];
+    }
+
+    private static void appendByte(StringBuilder builder, int b) {
+        builder.append('%').append(HEX[(b >> 4) & 0x0F]).append(HEX[b & 0x0F]);
+    }
+}
@@ -0,0 +1,19 @@
+package org.acme.util;
+
+import jakarta.ws.rs.core.EntityTag;
+import jakarta.ws.rs.core.MediaType;
+import jakarta.ws.rs.core.Response;
+
+/**
+ * Pre-serialized JSON body cached together with its entity tag, so a conditional GET that
+ * hits the cache is answered without touching the database or the serializer.
+ */
+public record TaggedJson(byte[] body, EntityTag tag) {
+
+    public Response toResponse(String ifNoneMatch) {
+        if (ETags.notModified(ifNoneMatch, tag)) {
+            return Response.notModified(tag).build();
+        }
+        return Response.ok(body, MediaType.APPLICATION_JSON).tag(tag).build();
+    }
+}
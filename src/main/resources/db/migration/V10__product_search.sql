@@ -0,0 +1,49 @@
+-- =================================================================================================
+-- 10. PRODUCT SEARCH
+-- =================================================================================================
+
+-- Weighted document per product, kept current by Postgres: name (A), description (C),
+-- buyer and inspiration (D). The line code lives on another table, which a generated column
+-- cannot read; searches match it through line_code_search_idx and weight it as B.
+ALTER TABLE product ADD COLUMN search_vector tsvector GENERATED ALWAYS AS (
+    setweight(to_tsvector('english', coalesce(name, '')), 'A') ||
+    setweight(to_tsvector('english', coalesce(description, '')), 'C') ||
+    setweight(to_tsvector('english', coalesce(buyer, '')), 'D') ||
+    setweight(to_tsvector('english', coalesce(inspiration, '')), 'D')
+) STORED;
+
+CREATE INDEX product_search_vector_idx ON product USING GIN (search_vector);
+
+-- Line codes are identifiers, so they are not stemmed.
+CREATE INDEX line_code_search_idx ON line USING GIN (to_tsvector('simple', line_code));
+
+-- The derived search_vector is left out of audit snapshots.
+CREATE OR REPLACE FUNCTION audit_insert_stmt_func() RETURNS TRIGGER AS $$
+BEGIN
+    EXECUTE format('INSERT INTO %I (operation, new_data, changed_at) '
+                   'SELECT ''INSERT'', to_jsonb(n) - ''search_vector'', LOCALTIMESTAMP FROM new_rows n',
+                   TG_TABLE_NAME || '_audit');
+    RETURN NULL;
+END;
+$$ LANGUAGE plpgsql;
+
+CREATE OR REPLACE FUNCTION audit_update_stmt_func() RETURNS TRIGGER AS $$
+BEGIN
+    IF current_setting('app.audit_suppress', true) = TG_TABLE_NAME THEN
+        RETURN NULL;
+    END IF;
+    EXECUTE format('INSERT INTO %I (operation, old_data, new_data, changed_at) '
+                   'SELECT ''UPDATE'', to_jsonb(o) - ''search_vector'', to_jsonb(n) - ''search_vector'', LOCALTIMESTAMP '
+                   'FROM old_rows o JOIN new_rows n ON n.id = o.id', TG_TABLE_NAME || '_audit');
+    RETURN NULL;
+END;
+$$ LANGUAGE plpgsql;
+
+CREATE OR REPLACE FUNCTION audit_delete_stmt_func() RETURNS TRIGGER AS $$
+BEGIN
+    EXECUTE format('INSERT INTO %I (operation, old_data, changed_at) '
+                   'SELECT ''DELETE'', to_jsonb(o) - ''search_vector'', LOCALTIMESTAMP FROM old_rows o',
+                   TG_TABLE_NAME || '_audit');
+    RETURN NULL;
+END;
+$$ LANGUAGE plpgsql;
@@ -0,0 +1,10 @@
+-- =================================================================================================
+-- 11. DERIVATIVE KEYS RESOLVED FROM IMAGE_ASSET
+-- =================================================================================================
+
+-- Thumbnail and preview keys were copied onto product by the background derivative job, which
+-- bumped product.version under users editing the product. They are now read from image_asset
+-- through product.image_reference (unique object_key index), so the copies go away.
+ALTER TABLE product
+    DROP COLUMN image_thumbnail_reference,
+    DROP COLUMN image_preview_reference;
@@ -0,0 +1,9 @@
+-- =================================================================================================
+-- 12. PENDING IMAGE PROMOTION
+-- =================================================================================================
+
+-- The staged upload an asset was created from, kept until the copy to object_key is confirmed.
+-- A promotion that fails after the attach transaction commits is retried by the reconciliation
+-- job from here, and the staging sweep leaves these objects alone.
+ALTER TABLE image_asset ADD COLUMN staging_key VARCHAR(1024);
+CREATE INDEX image_asset_staging_key_idx ON image_asset(staging_key) WHERE staging_key IS NOT NULL;
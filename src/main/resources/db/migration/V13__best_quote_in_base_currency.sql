@@ -0,0 +1,68 @@
+-- =================================================================================================
+-- 13. BEST APPROVED QUOTE COMPARED IN THE BASE CURRENCY
+-- =================================================================================================
+
+-- Units of to_currency per unit of from_currency on on_date: the latest direct rate, else the
+-- inverse of the latest reverse rate, else NULL. Rates are stored against the base currency,
+-- so converting into it never needs a cross rate.
+CREATE OR REPLACE FUNCTION fx_rate_into(from_currency VARCHAR, to_currency VARCHAR, on_date DATE) RETURNS NUMERIC AS $$
+    SELECT CASE WHEN from_currency = to_currency THEN 1 ELSE COALESCE(
+        (SELECT r.rate FROM fx_rate r
+         WHERE r.base_currency = from_currency AND r.quote_currency = to_currency AND r.rate_date <= on_date
+         ORDER BY r.rate_date DESC LIMIT 1),
+        (SELECT 1 / r.rate FROM fx_rate r
+         WHERE r.base_currency = to_currency AND r.quote_currency = from_currency AND r.rate_date <= on_date
+         ORDER BY r.rate_date DESC LIMIT 1)) END;
+$$ LANGUAGE sql STABLE;
+
+-- best_approved_* compared raw unit costs across currencies. The best approved quote is now the
+-- cheapest after converting into base_currency at the current rate; quotes in a currency without
+-- a rate rank after every converted one. The stored cost stays in the quote's own currency.
+DROP FUNCTION refresh_vendor_quote_summary(UUID);
+
+CREATE FUNCTION refresh_vendor_quote_summary(link_id UUID, base_currency VARCHAR) RETURNS VOID AS $$
+BEGIN
+    IF link_id IS NOT NULL THEN
+        PERFORM 1 FROM product_vendor_sourcing WHERE id = link_id FOR NO KEY UPDATE;
+    END IF;
+
+    INSERT INTO vendor_quote_summary (
+        product_vendor_sourcing_id, quote_count, latest_quote_id, latest_quote_number,
+        latest_version_number, latest_status, best_approved_quote_id, best_approved_unit_cost,
+        best_approved_currency_code, updated_at)
+    SELECT s.id,
+           (SELECT count(*) FROM vendor_quote q WHERE q.product_vendor_sourcing_id = s.id AND q.deleted = false),
+           latest.id, latest.quote_number, latest.version_number, latest.status,
+           best.id, best.unit_cost, best.currency_code,
+           LOCALTIMESTAMP
+    FROM product_vendor_sourcing s
+    LEFT JOIN LATERAL (
+        SELECT q.id, q.quote_number, q.version_number, q.status
+        FROM vendor_quote q
+        WHERE q.product_vendor_sourcing_id = s.id AND q.deleted = false
+        ORDER BY q.created_at DESC, q.version_number DESC, q.id DESC
+        LIMIT 1
+    ) latest ON TRUE
+    LEFT JOIN LATERAL (
+        SELECT q.id, q.unit_cost, q.currency_code
+        FROM vendor_quote q
+        WHERE q.product_vendor_sourcing_id = s.id AND q.deleted = false AND q.status = 'APPROVED'
+        ORDER BY q.unit_cost * fx_rate_into(q.currency_code, base_currency, CURRENT_DATE) NULLS LAST,
+                 q.unit_cost, q.id
+        LIMIT 1
+    ) best ON TRUE
+    WHERE link_id IS NULL OR s.id = link_id
+    ON CONFLICT (product_vendor_sourcing_id) DO UPDATE SET
+        quote_count = EXCLUDED.quote_count,
+        latest_quote_id = EXCLUDED.latest_quote_id,
+        latest_quote_number = EXCLUDED.latest_quote_number,
+        latest_version_number = EXCLUDED.latest_version_number,
+        latest_status = EXCLUDED.latest_status,
+        best_approved_quote_id = EXCLUDED.best_approved_quote_id,
+        best_approved_unit_cost = EXCLUDED.best_approved_unit_cost,
+        best_approved_currency_code = EXCLUDED.best_approved_currency_code,
+        updated_at = EXCLUDED.updated_at;
+END;
+$$ LANGUAGE plpgsql;
+
+SELECT refresh_vendor_quote_summary(NULL, '${fx_base_currency}');
@@ -0,0 +1,9 @@
+-- =================================================================================================
+-- 14. ARCHIVED QUOTES KEEP THEIR VENDOR LINK
+-- =================================================================================================
+
+-- LIKE copies no foreign keys, so a link whose quotes had all been archived could be deleted and
+-- leave history pointing at nothing. Archived quotes now pin their link exactly as live ones do.
+ALTER TABLE vendor_quote_archive
+    ADD CONSTRAINT fk_vendor_quote_archive_link
+        FOREIGN KEY (product_vendor_sourcing_id) REFERENCES product_vendor_sourcing(id);
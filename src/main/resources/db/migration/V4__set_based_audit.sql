@@ -0,0 +1,55 @@
+-- =================================================================================================
+-- 4. SET-BASED AUDIT
+-- =================================================================================================
+
+-- Statement-level replacements for audit_trigger_func(). Each statement writes its affected rows
+-- to <table_name>_audit with one multi-row INSERT ... SELECT over the transition tables, instead of
+-- one dynamic EXECUTE per row.
+CREATE OR REPLACE FUNCTION audit_insert_stmt_func() RETURNS TRIGGER AS $$
+BEGIN
+    EXECUTE format('INSERT INTO %I (operation, new_data, changed_at) '
+                   'SELECT ''INSERT'', to_jsonb(n), LOCALTIMESTAMP FROM new_rows n', TG_TABLE_NAME || '_audit');
+    RETURN NULL;
+END;
+$$ LANGUAGE plpgsql;
+
+CREATE OR REPLACE FUNCTION audit_update_stmt_func() RETURNS TRIGGER AS $$
+BEGIN
+    EXECUTE format('INSERT INTO %I (operation, old_data, new_data, changed_at) '
+                   'SELECT ''UPDATE'', to_jsonb(o), to_jsonb(n), LOCALTIMESTAMP '
+                   'FROM old_rows o JOIN new_rows n ON n.id = o.id', TG_TABLE_NAME || '_audit');
+    RETURN NULL;
+END;
+$$ LANGUAGE plpgsql;
+
+CREATE OR REPLACE FUNCTION audit_delete_stmt_func() RETURNS TRIGGER AS $$
+BEGIN
+    EXECUTE format('INSERT INTO %I (operation, old_data, changed_at) '
+                   'SELECT ''DELETE'', to_jsonb(o), LOCALTIMESTAMP FROM old_rows o', TG_TABLE_NAME || '_audit');
+    RETURN NULL;
+END;
+$$ LANGUAGE plpgsql;
+
+-- Swaps the row-level trigger on a table for the three statement-level ones.
+CREATE OR REPLACE FUNCTION install_set_based_audit(table_name TEXT) RETURNS VOID AS $$
+BEGIN
+    EXECUTE format('DROP TRIGGER IF EXISTS %I ON %I', 'trg_' || table_name || '_audit', table_name);
+    EXECUTE format('CREATE TRIGGER %I AFTER INSERT ON %I REFERENCING NEW TABLE AS new_rows '
+                   'FOR EACH STATEMENT EXECUTE FUNCTION audit_insert_stmt_func()',
+                   'trg_' || table_name || '_audit_ins', table_name);
+    EXECUTE format('CREATE TRIGGER %I AFTER UPDATE ON %I REFERENCING OLD TABLE AS old_rows NEW TABLE AS new_rows '
+                   'FOR EACH STATEMENT EXECUTE FUNCTION audit_update_stmt_func()',
+                   'trg_' || table_name || '_audit_upd', table_name);
+    EXECUTE format('CREATE TRIGGER %I AFTER DELETE ON %I REFERENCING OLD TABLE AS old_rows '
+                   'FOR EACH STATEMENT EXECUTE FUNCTION audit_delete_stmt_func()',
+                   'trg_' || table_name || '_audit_del', table_name);
+END;
+$$ LANGUAGE plpgsql;
+
+SELECT install_set_based_audit('line');
+SELECT install_set_based_audit('size');
+SELECT install_set_based_audit('color');
+SELECT install_set_based_audit('vendor');
+SELECT install_set_based_audit('product');
+SELECT install_set_based_audit('product_vendor_sourcing');
+SELECT install_set_based_audit('vendor_quote');
@@ -0,0 +1,25 @@
+-- =================================================================================================
+-- 5. CONTENT-ADDRESSED IMAGE ASSETS
+-- =================================================================================================
+
+-- One row per distinct image content (SHA-256). Products point at object_key through
+-- product.image_reference; ref_count tracks how many products share the object.
+CREATE TABLE image_asset (
+    content_hash VARCHAR(64) PRIMARY KEY,
+    object_key VARCHAR(1024) NOT NULL UNIQUE,
+    content_type VARCHAR(100) NOT NULL,
+    size_bytes BIGINT NOT NULL,
+    ref_count INTEGER NOT NULL DEFAULT 0,
+    thumbnail_key VARCHAR(1024),
+    preview_key VARCHAR(1024),
+    derivative_status VARCHAR(30) NOT NULL DEFAULT 'PENDING',
+    created_at TIMESTAMP NOT NULL DEFAULT LOCALTIMESTAMP,
+    updated_at TIMESTAMP NOT NULL DEFAULT LOCALTIMESTAMP
+);
+CREATE INDEX image_asset_derivative_status_idx ON image_asset(derivative_status, created_at)
+    WHERE derivative_status IN ('PENDING', 'PROCESSING');
+
+ALTER TABLE product
+    ADD COLUMN image_thumbnail_reference VARCHAR(1024),
+    ADD COLUMN image_preview_reference VARCHAR(1024);
+CREATE INDEX product_image_reference_idx ON product(image_reference);
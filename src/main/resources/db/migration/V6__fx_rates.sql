@@ -0,0 +1,15 @@
+-- =================================================================================================
+-- 6. FX RATES
+-- =================================================================================================
+
+-- Dated exchange rates: one unit of base_currency buys `rate` units of quote_currency.
+-- Loaded from app.fx.source and read whole into an in-memory snapshot; never joined per row.
+CREATE TABLE fx_rate (
+    base_currency VARCHAR(3) NOT NULL,
+    quote_currency VARCHAR(3) NOT NULL,
+    rate_date DATE NOT NULL,
+    rate NUMERIC(24, 10) NOT NULL CHECK (rate > 0),
+    source VARCHAR(255),
+    updated_at TIMESTAMP NOT NULL DEFAULT LOCALTIMESTAMP,
+    PRIMARY KEY (base_currency, quote_currency, rate_date)
+);
@@ -0,0 +1,69 @@
+-- =================================================================================================
+-- 7. CURRENT QUOTE SUMMARY PER PRODUCT-VENDOR LINK
+-- =================================================================================================
+
+-- One row per product_vendor_sourcing, rewritten by refresh_vendor_quote_summary in the same
+-- transaction as every quote write, so the sourcing list reads it by primary key instead of
+-- scanning every quote version.
+CREATE TABLE vendor_quote_summary (
+    product_vendor_sourcing_id UUID PRIMARY KEY REFERENCES product_vendor_sourcing(id) ON DELETE CASCADE,
+    quote_count INTEGER NOT NULL,
+    latest_quote_id UUID,
+    latest_quote_number VARCHAR(255),
+    latest_version_number INTEGER,
+    latest_status VARCHAR(30),
+    best_approved_quote_id UUID,
+    best_approved_unit_cost NUMERIC(19, 4),
+    best_approved_currency_code VARCHAR(3),
+    updated_at TIMESTAMP NOT NULL DEFAULT LOCALTIMESTAMP
+);
+
+-- Recomputes the summary for one link, or for every link when link_id is NULL. A single link
+-- is locked first (FOR NO KEY UPDATE does not conflict with the key-share lock taken by quote
+-- inserts), so concurrent writers on the same link serialize and the second one recomputes
+-- from a snapshot that includes the first one's committed quotes.
+CREATE OR REPLACE FUNCTION refresh_vendor_quote_summary(link_id UUID) RETURNS VOID AS $$
+BEGIN
+    IF link_id IS NOT NULL THEN
+        PERFORM 1 FROM product_vendor_sourcing WHERE id = link_id FOR NO KEY UPDATE;
+    END IF;
+
+    INSERT INTO vendor_quote_summary (
+        product_vendor_sourcing_id, quote_count, latest_quote_id, latest_quote_number,
+        latest_version_number, latest_status, best_approved_quote_id, best_approved_unit_cost,
+        best_approved_currency_code, updated_at)
+    SELECT s.id,
+           (SELECT count(*) FROM vendor_quote q WHERE q.product_vendor_sourcing_id = s.id AND q.deleted = false),
+           latest.id, latest.quote_number, latest.version_number, latest.status,
+           best.id, best.unit_cost, best.currency_code,
+           LOCALTIMESTAMP
+    FROM product_vendor_sourcing s
+    LEFT JOIN LATERAL (
+        SELECT q.id, q.quote_number, q.version_number, q.status
+        FROM vendor_quote q
+        WHERE q.product_vendor_sourcing_id = s.id AND q.deleted = false
+        ORDER BY q.created_at DESC, q.version_number DESC, q.id DESC
+        LIMIT 1
+    ) latest ON TRUE
+    LEFT JOIN LATERAL (
+        SELECT q.id, q.unit_cost, q.currency_code
+        FROM vendor_quote q
+        WHERE q.product_vendor_sourcing_id = s.id AND q.deleted = false AND q.status = 'APPROVED'
+        ORDER BY q.unit_cost, q.id
+        LIMIT 1
+    ) best ON TRUE
+    WHERE link_id IS NULL OR s.id = link_id
+    ON CONFLICT (product_vendor_sourcing_id) DO UPDATE SET
+        quote_count = EXCLUDED.quote_count,
+        latest_quote_id = EXCLUDED.latest_quote_id,
+        latest_quote_number = EXCLUDED.latest_quote_number,
+        latest_version_number = EXCLUDED.latest_version_number,
+        latest_status = EXCLUDED.latest_status,
+        best_approved_quote_id = EXCLUDED.best_approved_quote_id,
+        best_approved_unit_cost = EXCLUDED.best_approved_unit_cost,
+        best_approved_currency_code = EXCLUDED.best_approved_currency_code,
+        updated_at = EXCLUDED.updated_at;
+END;
+$$ LANGUAGE plpgsql;
+
+SELECT refresh_vendor_quote_summary(NULL);
@@ -0,0 +1,19 @@
+-- =================================================================================================
+-- 8. VENDOR QUOTE ARCHIVE
+-- =================================================================================================
+
+-- Cold copy of vendor_quote rows moved out by the archiver: quotes soft-deleted longer than the
+-- retention and versions superseded by a newer version of the same quote number. Same columns
+-- in the same order as vendor_quote, then the archive bookkeeping.
+CREATE TABLE vendor_quote_archive (LIKE vendor_quote INCLUDING DEFAULTS);
+ALTER TABLE vendor_quote_archive
+    ADD PRIMARY KEY (id),
+    ADD COLUMN archived_at TIMESTAMP NOT NULL DEFAULT LOCALTIMESTAMP,
+    ADD COLUMN archive_reason VARCHAR(30) NOT NULL;
+-- Keeps quote number + version unique across the hot and archived tiers (checked by the service)
+-- and serves the includeDeleted reads by link.
+CREATE UNIQUE INDEX vendor_quote_archive_version_idx
+    ON vendor_quote_archive(product_vendor_sourcing_id, quote_number, version_number);
+
+-- Archival candidates on the hot table: old soft-deleted rows, found without scanning live quotes.
+CREATE INDEX vendor_quote_deleted_at_idx ON vendor_quote(deleted_at) WHERE deleted = TRUE;
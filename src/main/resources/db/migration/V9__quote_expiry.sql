@@ -0,0 +1,26 @@
+-- =================================================================================================
+-- 9. QUOTE EXPIRY
+-- =================================================================================================
+
+-- Batch jobs that audit a whole statement themselves set app.audit_suppress to the table name
+-- for their transaction; the per-row UPDATE audit is skipped for that table only.
+CREATE OR REPLACE FUNCTION audit_update_stmt_func() RETURNS TRIGGER AS $$
+BEGIN
+    IF current_setting('app.audit_suppress', true) = TG_TABLE_NAME THEN
+        RETURN NULL;
+    END IF;
+    EXECUTE format('INSERT INTO %I (operation, old_data, new_data, changed_at) '
+                   'SELECT ''UPDATE'', to_jsonb(o), to_jsonb(n), LOCALTIMESTAMP '
+                   'FROM old_rows o JOIN new_rows n ON n.id = o.id', TG_TABLE_NAME || '_audit');
+    RETURN NULL;
+END;
+$$ LANGUAGE plpgsql;
+
+-- One BATCH_UPDATE row describes a whole expiry batch (ids, previous statuses, cutoff).
+ALTER TABLE vendor_quote_audit DROP CONSTRAINT vendor_quote_audit_operation_check;
+ALTER TABLE vendor_quote_audit ADD CONSTRAINT vendor_quote_audit_operation_check
+    CHECK (operation IN ('INSERT', 'UPDATE', 'DELETE', 'BATCH_UPDATE'));
+
+-- Expiry candidates: only live quotes still waiting for review are indexed.
+CREATE INDEX vendor_quote_expiry_idx ON vendor_quote(valid_to)
+    WHERE deleted = FALSE AND status IN ('SUBMITTED', 'UNDER_REVIEW');
@@ -3,6 +3,8 @@ package org.acme;
 import static io.restassured.RestAssured.given;
 import static org.hamcrest.Matchers.equalTo;
 import static org.hamcrest.Matchers.notNullValue;
+import static org.hamcrest.Matchers.nullValue;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
 
 import io.quarkus.test.junit.QuarkusTest;
 import io.restassured.http.ContentType;
@@ -20,7 +22,58 @@ class ColorResourceTest {
         given()
                 .when().get("/colors")
                 .then()
-                .statusCode(200);
+                .statusCode(200)
+                .body("items", notNullValue());
+    }
+
+    @Test
+    void cursorPagingWalksForwardAndBack() {
+        Response first = given()
+                .queryParam("size", 2)
+                .when().get("/colors")
+                .then()
+                .statusCode(200)
+                .body("items.size()", equalTo(2))
+                .body("prevCursor", nullValue())
+                .body("nextCursor", notNullValue())
+                .extract().response();
+
+        String nextCursor = first.jsonPath().getString("nextCursor");
+        Response second = given()
+                .queryParam("size", 2)
+                .queryParam("cursor", nextCursor)
+                .when().get("/colors")
+                .then()
+                .statusCode(200)
+                .body("items.size()", equalTo(2))
+                .body("prevCursor", notNullValue())
+                .extract().response();
+
+        assertNotEquals(first.jsonPath().getString("items[1].id"), second.jsonPath().getString("items[0].id"));
+
+        given()
+                .queryParam("size", 2)
+                .queryParam("cursor", second.jsonPath().getString("prevCursor"))
+                .when().get("/colors")
+                .then()
+                .statusCode(200)
+                .body("items.id", equalTo(first.jsonPath().getList("items.id")));
+    }
+
+    @Test
+    void cursorPagingReportsTotalAndRejectsBadCursor() {
+        given()
+                .queryParam("withTotal", true)
+                .when().get("/colors")
+                .then()
+                .statusCode(200)
+                .body("estimatedTotal", notNullValue());
+
+        given()
+                .queryParam("cursor", "not-a-cursor")
+                .when().get("/colors")
+                .then()
+                .statusCode(400);
     }
 
     @Test
@@ -83,6 +136,53 @@ class ColorResourceTest {
                 .statusCode(404);
     }
 
+    @Test
+    void updateIsVisibleToCachedReads() {
+        Map<String, Object> payload = new HashMap<>();
+        payload.put("name", "Cache Teal");
+        payload.put("rgb", "0,128,128");
+        String id = given()
+                .contentType(ContentType.JSON)
+                .body(payload)
+                .when().post("/colors")
+                .then()
+                .statusCode(201)
+                .extract().path("id");
+
+        String cachedTag = given()
+                .when().get("/colors/{id}", id)
+                .then()
+                .statusCode(200)
+                .body("name", equalTo("Cache Teal"))
+                .extract().header("ETag");
+
+        Map<String, Object> updatePayload = new HashMap<>();
+        updatePayload.put("name", "Cache Teal Updated");
+        updatePayload.put("rgb", "0,100,100");
+        updatePayload.put("version", 0);
+        given()
+                .contentType(ContentType.JSON)
+                .body(updatePayload)
+                .when().put("/colors/{id}", id)
+                .then()
+                .statusCode(200);
+
+        String freshTag = given()
+                .header("If-None-Match", cachedTag)
+                .when().get("/colors/{id}", id)
+                .then()
+                .statusCode(200)
+                .body("name", equalTo("Cache Teal Updated"))
+                .body("rgb", equalTo("0,100,100"))
+                .extract().header("ETag");
+        assertNotEquals(cachedTag, freshTag);
+
+        given()
+                .when().delete("/colors/{id}", id)
+                .then()
+                .statusCode(204);
+    }
+
     @Test
     void notFoundCases() {
         UUID missingId = UUID.randomUUID();
@@ -2,21 +2,41 @@ package org.acme;
 
 import static io.restassured.RestAssured.given;
 import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.greaterThan;
 import static org.hamcrest.Matchers.notNullValue;
 import static org.hamcrest.Matchers.nullValue;
+import static org.hamcrest.Matchers.startsWith;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 
 import io.quarkus.test.junit.QuarkusTest;
 import io.restassured.http.ContentType;
 import io.restassured.response.Response;
+import jakarta.inject.Inject;
 import java.math.BigDecimal;
+import java.net.URI;
+import java.util.Arrays;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.UUID;
+import org.acme.service.ProductImageStorageService;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
 import org.junit.jupiter.api.Test;
 
 @QuarkusTest
 class ProductResourceTest {
 
+    @Inject
+    ProductImageStorageService productImageStorageService;
+
+    @ConfigProperty(name = "app.object-storage.endpoint")
+    String publicEndpoint;
+
+    @ConfigProperty(name = "quarkus.s3.endpoint-override")
+    String internalEndpoint;
+
     @Test
     void listReturnsProducts() {
         given()
@@ -25,6 +45,104 @@ class ProductResourceTest {
                 .statusCode(200);
     }
 
+    @Test
+    void listNegotiatesBinaryFormats() {
+        Response smileResponse = given()
+                .accept("application/x-jackson-smile")
+                .when().get("/products")
+                .then()
+                .statusCode(200)
+                .contentType("application/x-jackson-smile")
+                .extract().response();
+        assertTrue(variesOnAccept(smileResponse));
+        byte[] smile = smileResponse.asByteArray();
+        assertTrue(smile.length > 3 && smile[0] == ':' && smile[1] == ')' && smile[2] == '\n');
+
+        given()
+                .accept("application/cbor")
+                .when().get("/products")
+                .then()
+                .statusCode(200)
+                .contentType("application/cbor");
+
+        String smileEtag = smileResponse.header("ETag");
+        Response jsonResponse = given()
+                .accept(ContentType.JSON)
+                .when().get("/products")
+                .then()
+                .statusCode(200)
+                .extract().response();
+        assertTrue(variesOnAccept(jsonResponse));
+        String jsonEtag = jsonResponse.header("ETag");
+        assertNotEquals(jsonEtag, smileEtag);
+
+        given()
+                .accept("application/x-jackson-smile")
+                .header("If-None-Match", jsonEtag)
+                .when().get("/products")
+                .then()
+                .statusCode(200)
+                .contentType("application/x-jackson-smile");
+    }
+
+    @Test
+    void listReturnsOnlyRequestedFields() {
+        String lineId = createLine();
+        Map<String, Object> payload = new HashMap<>();
+        payload.put("name", "Sparse Widget");
+        payload.put("price", new BigDecimal("9.99"));
+        payload.put("lineId", lineId);
+        given()
+                .contentType(ContentType.JSON)
+                .body(payload)
+                .when().post("/products")
+                .then()
+                .statusCode(201);
+
+        given()
+                .queryParam("fields", "id,name,price,lineId")
+                .queryParam("size", 100)
+                .when().get("/products")
+                .then()
+                .statusCode(200)
+                .body("items.size()", greaterThan(0))
+                .body("items.every { it.keySet() as List == ['id', 'name', 'price', 'lineId'] }", equalTo(true))
+                .body("items.every { it.lineId != null }", equalTo(true));
+
+        given()
+                .queryParam("fields", "id,secret")
+                .when().get("/products")
+                .then()
+                .statusCode(400);
+    }
+
+    @Test
+    void exportStreamsNdjsonAndCsv() {
+        String ndjson = given()
+                .queryParam("format", "ndjson")
+                .when().get("/products/export")
+                .then()
+                .statusCode(200)
+                .contentType("application/x-ndjson")
+                .extract().asString();
+        assertTrue(ndjson.lines().allMatch(line -> line.startsWith("{\"id\":")));
+
+        String csv = given()
+                .queryParam("format", "csv")
+                .when().get("/products/export")
+                .then()
+                .statusCode(200)
+                .contentType("text/csv")
+                .extract().asString();
+        assertTrue(csv.startsWith("id,version,name,lineId,"));
+
+        given()
+                .queryParam("format", "xml")
+                .when().get("/products/export")
+                .then()
+                .statusCode(400);
+    }
+
     @Test
     void createGetUpdateDeleteHappyPath() {
         String lineId = createLine();
@@ -62,6 +180,8 @@ class ProductResourceTest {
                 .body("setWeek", equalTo(12))
                 .body("inspiration", equalTo("Street utility trend board."))
                 .body("imageUrl", nullValue())
+                .body("thumbnailUrl", nullValue())
+                .body("previewUrl", nullValue())
                 .body("quantity", equalTo(5))
                 .extract().response();
 
@@ -133,6 +253,85 @@ class ProductResourceTest {
                 .statusCode(404);
     }
     
+    @Test
+    void batchCreateReportsPerItemResults() {
+        String lineId = createLine();
+
+        List<Map<String, Object>> payload = List.of(
+                Map.of("name", "Batch One", "lineId", lineId, "quantity", 1),
+                Map.of("name", "Batch Two", "lineId", lineId, "quantity", 2),
+                Map.of("name", "Batch Orphan", "lineId", UUID.randomUUID().toString()),
+                Map.of("lineId", lineId)
+        );
+
+        Response response = given()
+                .contentType(ContentType.JSON)
+                .body(payload)
+                .when().post("/products/batch")
+                .then()
+                .statusCode(200)
+                .body("size()", equalTo(4))
+                .body("[0].status", equalTo("CREATED"))
+                .body("[1].status", equalTo("CREATED"))
+                .body("[2].status", equalTo("REJECTED"))
+                .body("[3].status", equalTo("REJECTED"))
+                .extract().response();
+
+        given()
+                .when().get("/products/{id}", response.jsonPath().getString("[1].id"))
+                .then()
+                .statusCode(200)
+                .body("name", equalTo("Batch Two"))
+                .body("lineId", equalTo(lineId));
+
+        given()
+                .contentType(ContentType.JSON)
+                .body(List.of())
+                .when().post("/products/batch")
+                .then()
+                .statusCode(400);
+    }
+
+    @Test
+    void batchCreateRejectsItemsThatExceedColumnLimits() {
+        String lineId = createLine();
+
+        List<Map<String, Object>> payload = List.of(
+                Map.of("name", "Batch Limit One", "lineId", lineId),
+                Map.of("name", "Batch Limit Long", "lineId", lineId, "description", "x".repeat(1001)),
+                Map.of("name", "Batch Limit Two", "lineId", lineId)
+        );
+
+        Response response = given()
+                .contentType(ContentType.JSON)
+                .body(payload)
+                .when().post("/products/batch")
+                .then()
+                .statusCode(200)
+                .body("[0].status", equalTo("CREATED"))
+                .body("[1].status", equalTo("REJECTED"))
+                .body("[1].error", equalTo("Description must be at most 1000 characters"))
+                .body("[2].status", equalTo("CREATED"))
+                .extract().response();
+
+        given()
+                .when().get("/products/{id}", response.jsonPath().getString("[2].id"))
+                .then()
+                .statusCode(200)
+                .body("name", equalTo("Batch Limit Two"));
+    }
+
+    @Test
+    void imageUrlsAreSignedForThePublicEndpoint() {
+        URI url = URI.create(productImageStorageService.imageUrl("images/abc/original"));
+        URI expected = URI.create(publicEndpoint);
+
+        assertNotEquals(URI.create(internalEndpoint).getHost(), expected.getHost());
+        assertEquals(expected.getHost(), url.getHost());
+        assertEquals(expected.getPort(), url.getPort());
+        assertTrue(url.getRawQuery().contains("X-Amz-Signature="));
+    }
+
     @Test
     void optimisticLocking() {
         String lineId = createLine();
@@ -165,6 +364,135 @@ class ProductResourceTest {
         given().when().delete("/products/{id}", id).then().statusCode(204);
     }
 
+    @Test
+    void searchMatchesPrefixesAndRanksByRelevance() {
+        String lineCode = "SS26" + UUID.randomUUID().toString().substring(0, 6);
+        String lineId = createLine(lineCode);
+        String token = "zephyr" + UUID.randomUUID().toString().substring(0, 8);
+        Map<String, Object> payload = new HashMap<>();
+        payload.put("name", "Search " + token + " Parka");
+        payload.put("lineId", lineId);
+
+        String id = given()
+                .contentType(ContentType.JSON)
+                .body(payload)
+                .when().post("/products")
+                .then()
+                .statusCode(201)
+                .extract().jsonPath().getString("id");
+
+        given()
+                .queryParam("q", token.substring(0, 10) + " park")
+                .when().get("/products/search")
+                .then()
+                .statusCode(200)
+                .body("totalElements", equalTo(1))
+                .body("items[0].id", equalTo(id));
+
+        given()
+                .queryParam("q", token + " " + lineCode.toLowerCase())
+                .when().get("/products/search")
+                .then()
+                .statusCode(200)
+                .body("totalElements", equalTo(1))
+                .body("items[0].id", equalTo(id));
+
+        given()
+                .queryParam("q", token + " SS25nomatch")
+                .when().get("/products/search")
+                .then()
+                .statusCode(200)
+                .body("totalElements", equalTo(0));
+
+        given()
+                .queryParam("q", " -&| ")
+                .when().get("/products/search")
+                .then()
+                .statusCode(400);
+
+        given().when().delete("/products/{id}", id).then().statusCode(204);
+    }
+
+    @Test
+    void conditionalRequestsUseVersionETags() {
+        String lineId = createLine();
+        Map<String, Object> payload = new HashMap<>();
+        payload.put("name", "ETag Test");
+        payload.put("lineId", lineId);
+
+        String id = given()
+                .contentType(ContentType.JSON)
+                .body(payload)
+                .when().post("/products")
+                .then()
+                .statusCode(201)
+                .extract().jsonPath().getString("id");
+
+        String etag = given()
+                .when().get("/products/{id}", id)
+                .then()
+                .statusCode(200)
+                .header("ETag", startsWith("W/\"" + id + ":0"))
+                .extract().header("ETag");
+
+        given()
+                .header("If-None-Match", etag)
+                .when().get("/products/{id}", id)
+                .then()
+                .statusCode(304);
+
+        String listEtag = given()
+                .when().get("/products")
+                .then()
+                .statusCode(200)
+                .extract().header("ETag");
+        given()
+                .header("If-None-Match", listEtag)
+                .when().get("/products")
+                .then()
+                .statusCode(304);
+
+        Map<String, Object> updatePayload = new HashMap<>();
+        updatePayload.put("name", "ETag Updated");
+        updatePayload.put("lineId", lineId);
+
+        given()
+                .contentType(ContentType.JSON)
+                .header("If-Match", "W/\"" + id + ":7\"")
+                .body(updatePayload)
+                .when().put("/products/{id}", id)
+                .then()
+                .statusCode(412);
+
+        given()
+                .contentType(ContentType.JSON)
+                .header("If-Match", etag)
+                .body(updatePayload)
+                .when().put("/products/{id}", id)
+                .then()
+                .statusCode(200)
+                .body("version", equalTo(1))
+                .header("ETag", startsWith("W/\"" + id + ":1"));
+
+        given()
+                .header("If-None-Match", etag)
+                .when().get("/products/{id}", id)
+                .then()
+                .statusCode(200)
+                .body("name", equalTo("ETag Updated"));
+
+        given()
+                .header("If-Match", etag)
+                .when().delete("/products/{id}", id)
+                .then()
+                .statusCode(412);
+        given()
+                .header("If-Match", "W/\"" + id + ":1\"")
+                .when().delete("/products/{id}", id)
+                .then()
+                .statusCode(204);
+    }
+
     @Test
     void notFoundCases() {
         UUID missingId = UUID.randomUUID();
@@ -194,9 +522,19 @@ class ProductResourceTest {
                 .statusCode(404);
     }
 
+    private static boolean variesOnAccept(Response response) {
+        return response.headers().getValues("Vary").stream()
+                .flatMap(value -> Arrays.stream(value.split(",")))
+                .anyMatch(value -> value.strip().equalsIgnoreCase("Accept"));
+    }
+
     private String createLine() {
+        return createLine("TEST");
+    }
+
+    private String createLine(String lineCode) {
         Map<String, Object> payload = new HashMap<>();
-        payload.put("lineCode", "TEST");
+        payload.put("lineCode", lineCode);
         payload.put("seasonCode", "ALL");
         payload.put("brandId", UUID.randomUUID().toString());
         payload.put("marketId", UUID.randomUUID().toString());
@@ -1,23 +1,42 @@
 package org.acme;
 
 import static io.restassured.RestAssured.given;
+import static org.hamcrest.Matchers.containsString;
 import static org.hamcrest.Matchers.equalTo;
 import static org.hamcrest.Matchers.hasItem;
+import static org.hamcrest.Matchers.hasItems;
 import static org.hamcrest.Matchers.notNullValue;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 
+import io.quarkus.narayana.jta.QuarkusTransaction;
 import io.quarkus.test.junit.QuarkusTest;
 import io.restassured.http.ContentType;
 import io.restassured.response.Response;
+import jakarta.inject.Inject;
+import jakarta.persistence.EntityManager;
 import java.math.BigDecimal;
 import java.time.LocalDate;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.UUID;
+import org.acme.service.VendorQuoteArchiveService;
+import org.acme.service.VendorQuoteExpiryService;
 import org.junit.jupiter.api.Test;
 
 @QuarkusTest
 class VendorQuoteResourceTest {
 
+    @Inject
+    VendorQuoteArchiveService vendorQuoteArchiveService;
+
+    @Inject
+    VendorQuoteExpiryService vendorQuoteExpiryService;
+
+    @Inject
+    EntityManager entityManager;
+
     @Test
     void createUpdateStatusAndSoftDeleteFlow() {
         String lineId = createLine();
@@ -74,6 +93,13 @@ class VendorQuoteResourceTest {
                 .statusCode(200)
                 .body("status", equalTo("APPROVED"));
 
+        given()
+                .when().get("/q/metrics")
+                .then()
+                .statusCode(200)
+                .body(containsString("plm_quote_status_transitions_total{from=\"UNDER_REVIEW\",to=\"APPROVED\"}"))
+                .body(containsString("plm_http_server_queries"));
+
         // Fetch current version to bypass optimistic lock check and verifying business rule
         int currentVersion = given()
             .when().get("/products/{productId}/vendors/{linkId}/quotes/{quoteId}", productId, linkId, quoteId)
@@ -139,6 +165,25 @@ class VendorQuoteResourceTest {
                 .body("size()", equalTo(2))
                 .body("status", hasItem("APPROVED"));
 
+        given()
+                .when().get("/products/{productId}/quotes?sort=unitCost&size=1", productId)
+                .then()
+                .statusCode(200)
+                .body("size()", equalTo(1))
+                .body("[0].unitCost", equalTo(9.1000f))
+                .body("[0].vendorName", equalTo("Vendor Quote B1"));
+
+        given()
+                .when().get("/products/{productId}/quotes?sort=unitCost&size=1&page=1", productId)
+                .then()
+                .statusCode(200)
+                .body("[0].unitCost", equalTo(10.2000f));
+
+        given()
+                .when().get("/products/{productId}/quotes?sort=bogus", productId)
+                .then()
+                .statusCode(400);
+
         given()
                 .when().get("/products/{productId}/vendors/{linkId}/quotes", productId, linkOneId)
                 .then()
@@ -152,6 +197,431 @@ class VendorQuoteResourceTest {
                 .statusCode(200)
                 .body("size()", equalTo(1))
                 .body("[0].status", equalTo("APPROVED"));
+
+        createQuote(productId, linkOneId, "Q-200", 2, new BigDecimal("8.9000"));
+
+        given()
+                .when().get("/products/{productId}/vendors", productId)
+                .then()
+                .statusCode(200)
+                .body("find { it.id == '%s' }.quoteSummary.quoteCount".formatted(linkOneId), equalTo(2))
+                .body("find { it.id == '%s' }.quoteSummary.latestVersionNumber".formatted(linkOneId), equalTo(2))
+                .body("find { it.id == '%s' }.quoteSummary.latestStatus".formatted(linkOneId), equalTo("SUBMITTED"))
+                .body("find { it.id == '%s' }.quoteSummary.bestApprovedUnitCost".formatted(linkOneId), equalTo(9.1000f))
+                .body("find { it.id == '%s' }.quoteSummary.bestApprovedQuoteId".formatted(linkOneId), equalTo(quoteOneId));
+    }
+
+    @Test
+    void summaryPicksBestApprovedQuoteInBaseCurrency() {
+        String lineId = createLine();
+        String productId = createProduct(lineId, "Quote Product B2");
+        String vendorId = createVendor("Vendor Quote B3");
+        String linkId = createVendorLink(productId, vendorId);
+
+        String usdQuoteId = createQuote(productId, linkId, "Q-210", 1, new BigDecimal("9.1000"));
+        Map<String, Object> cnyPayload = quotePayload("Q-220", 1, new BigDecimal("50.0000"), LocalDate.now().plusDays(14));
+        cnyPayload.put("currencyCode", "CNY");
+        String cnyQuoteId = given()
+                .contentType(ContentType.JSON)
+                .body(cnyPayload)
+                .when().post("/products/{productId}/vendors/{linkId}/quotes", productId, linkId)
+                .then()
+                .statusCode(201)
+                .extract().path("id");
+        transition(productId, linkId, usdQuoteId, "APPROVED");
+        transition(productId, linkId, cnyQuoteId, "APPROVED");
+
+        given()
+                .when().get("/products/{productId}/vendors", productId)
+                .then()
+                .statusCode(200)
+                .body("find { it.id == '%s' }.quoteSummary.bestApprovedQuoteId".formatted(linkId), equalTo(cnyQuoteId))
+                .body("find { it.id == '%s' }.quoteSummary.bestApprovedUnitCost".formatted(linkId), equalTo(50.0000f))
+                .body("find { it.id == '%s' }.quoteSummary.bestApprovedCurrencyCode".formatted(linkId), equalTo("CNY"));
+    }
+
+    @Test
+    void ranksQuotesByLandedCostPerProductAndLine() {
+        String lineId = createLine();
+        String productOneId = createProduct(lineId, "Quote Product D1");
+        String productTwoId = createProduct(lineId, "Quote Product D2");
+
+        String vendorOneId = createVendor("Vendor Quote D1");
+        String vendorTwoId = createVendor("Vendor Quote D2");
+
+        String linkOneId = createVendorLink(productOneId, vendorOneId);
+        String linkTwoId = createVendorLink(productOneId, vendorTwoId);
+        String linkThreeId = createVendorLink(productTwoId, vendorOneId);
+
+        createQuote(productOneId, linkOneId, "Q-500", 1, new BigDecimal("10.2000"));
+        createQuote(productOneId, linkTwoId, "Q-600", 1, new BigDecimal("9.1000"));
+        createQuote(productTwoId, linkThreeId, "Q-700", 1, new BigDecimal("12.0000"));
+
+        given()
+                .when().get("/products/{productId}/quotes/ranking", productOneId)
+                .then()
+                .statusCode(200)
+                .body("size()", equalTo(2))
+                .body("[0].rank", equalTo(1))
+                .body("[0].vendorName", equalTo("Vendor Quote D2"))
+                .body("[0].landedCost", equalTo(10.6000f))
+                .body("[1].rank", equalTo(2))
+                .body("[1].landedCost", equalTo(11.7000f));
+
+        given()
+                .when().get("/products/{productId}/quotes/ranking?topN=1", productOneId)
+                .then()
+                .statusCode(200)
+                .body("size()", equalTo(1))
+                .body("[0].quoteNumber", equalTo("Q-600"));
+
+        given()
+                .when().get("/lines/{lineId}/quotes/ranking?topN=1&leadTimeWeight=0", lineId)
+                .then()
+                .statusCode(200)
+                .body("size()", equalTo(2))
+                .body("quoteNumber", hasItem("Q-600"))
+                .body("quoteNumber", hasItem("Q-700"));
+
+        given()
+                .when().get("/products/{productId}/quotes/ranking?topN=0", productOneId)
+                .then()
+                .statusCode(400);
+
+        given()
+                .when().get("/lines/{lineId}/quotes/ranking", UUID.randomUUID())
+                .then()
+                .statusCode(404);
+    }
+
+    @Test
+    void normalizesQuoteCostsIntoRequestedCurrency() {
+        String lineId = createLine();
+        String productId = createProduct(lineId, "Quote Product E");
+        String vendorOneId = createVendor("Vendor Quote E1");
+        String vendorTwoId = createVendor("Vendor Quote E2");
+        String linkOneId = createVendorLink(productId, vendorOneId);
+        String linkTwoId = createVendorLink(productId, vendorTwoId);
+
+        createQuote(productId, linkOneId, "Q-800", 1, new BigDecimal("9.1000"));
+        Map<String, Object> cnyQuote = quotePayload("Q-900", 1, new BigDecimal("71.4800"), LocalDate.now().plusDays(14));
+        cnyQuote.put("currencyCode", "CNY");
+        given()
+                .contentType(ContentType.JSON)
+                .body(cnyQuote)
+                .when().post("/products/{productId}/vendors/{linkId}/quotes", productId, linkTwoId)
+                .then()
+                .statusCode(201);
+
+        given()
+                .when().get("/products/{productId}/quotes?sort=unitCost", productId)
+                .then()
+                .statusCode(200)
+                .body("[0].currencyCode", equalTo("USD"))
+                .body("[0].normalizedCurrencyCode", equalTo("USD"))
+                .body("[0].normalizedUnitCost", equalTo(9.1000f))
+                .body("[1].currencyCode", equalTo("CNY"))
+                .body("[1].normalizedUnitCost", equalTo(10.0000f));
+
+        given()
+                .when().get("/products/{productId}/quotes?sort=unitCost&currency=eur", productId)
+                .then()
+                .statusCode(200)
+                .body("[0].normalizedCurrencyCode", equalTo("EUR"))
+                .body("[0].normalizedUnitCost", equalTo(8.3811f));
+
+        given()
+                .when().get("/products/{productId}/quotes/ranking", productId)
+                .then()
+                .statusCode(200)
+                .body("[0].quoteNumber", equalTo("Q-900"))
+                .body("[0].normalizedLandedCost", equalTo(10.2098f))
+                .body("[1].quoteNumber", equalTo("Q-800"));
+
+        given()
+                .when().get("/products/{productId}/quotes?currency=DOLLARS", productId)
+                .then()
+                .statusCode(400);
+    }
+
+    @Test
+    void sortsAndPagesComparisonByNormalizedUnitCost() {
+        String lineId = createLine();
+        String productId = createProduct(lineId, "Quote Product E2");
+        String vendorOneId = createVendor("Vendor Quote E3");
+        String vendorTwoId = createVendor("Vendor Quote E4");
+        String linkOneId = createVendorLink(productId, vendorOneId);
+        String linkTwoId = createVendorLink(productId, vendorTwoId);
+
+        createQuote(productId, linkOneId, "Q-810", 1, new BigDecimal("9.1000"));
+        Map<String, Object> cnyQuote = quotePayload("Q-910", 1, new BigDecimal("50.0000"), LocalDate.now().plusDays(14));
+        cnyQuote.put("currencyCode", "CNY");
+        given()
+                .contentType(ContentType.JSON)
+                .body(cnyQuote)
+                .when().post("/products/{productId}/vendors/{linkId}/quotes", productId, linkTwoId)
+                .then()
+                .statusCode(201);
+
+        given()
+                .when().get("/products/{productId}/quotes?sort=unitCost&size=1&page=0", productId)
+                .then()
+                .statusCode(200)
+                .body("size()", equalTo(1))
+                .body("[0].quoteNumber", equalTo("Q-910"))
+                .body("[0].normalizedUnitCost", equalTo(6.9950f));
+
+        given()
+                .when().get("/products/{productId}/quotes?sort=unitCost&size=1&page=1", productId)
+                .then()
+                .statusCode(200)
+                .body("[0].quoteNumber", equalTo("Q-810"));
+    }
+
+    @Test
+    void batchStatusTransitionReportsPerQuoteResults() {
+        String lineId = createLine();
+        String productId = createProduct(lineId, "Quote Product F");
+        String vendorId = createVendor("Vendor Quote F");
+        String linkId = createVendorLink(productId, vendorId);
+
+        String currentId = createQuote(productId, linkId, "Q-1000", 1, new BigDecimal("7.5000"));
+        String lapsedId = createQuote(productId, linkId, "Q-1100", 1, new BigDecimal("7.2000"), LocalDate.now().minusDays(1));
+        String missingId = UUID.randomUUID().toString();
+
+        given()
+                .contentType(ContentType.JSON)
+                .body(Map.of("quoteIds", List.of(currentId, lapsedId, missingId), "status", "UNDER_REVIEW"))
+                .when().post("/quotes/status-batch")
+                .then()
+                .statusCode(200)
+                .body("size()", equalTo(3))
+                .body("[0].outcome", equalTo("UPDATED"))
+                .body("[1].outcome", equalTo("UPDATED"))
+                .body("[2].outcome", equalTo("NOT_FOUND"));
+
+        given()
+                .contentType(ContentType.JSON)
+                .body(Map.of("quoteIds", List.of(currentId, lapsedId), "status", "APPROVED", "comment", "Batch review"))
+                .when().post("/quotes/status-batch")
+                .then()
+                .statusCode(200)
+                .body("[0].outcome", equalTo("UPDATED"))
+                .body("[0].status", equalTo("APPROVED"))
+                .body("[0].version", notNullValue())
+                .body("[1].outcome", equalTo("REJECTED"))
+                .body("[1].status", equalTo("UNDER_REVIEW"))
+                .body("[1].error", equalTo("Expired quote cannot be approved."));
+
+        given()
+                .contentType(ContentType.JSON)
+                .body(Map.of("quoteIds", List.of(currentId), "status", "APPROVED"))
+                .when().post("/quotes/status-batch")
+                .then()
+                .statusCode(200)
+                .body("[0].outcome", equalTo("UNCHANGED"));
+
+        given()
+                .when().get("/products/{productId}/vendors/{linkId}/quotes/{quoteId}", productId, linkId, currentId)
+                .then()
+                .statusCode(200)
+                .body("status", equalTo("APPROVED"))
+                .body("approvalComment", equalTo("Batch review"))
+                .body("reviewedBy", equalTo("system"));
+
+        String singleId = createQuote(productId, linkId, "Q-1050", 1, new BigDecimal("7.4000"));
+        transition(productId, linkId, singleId, "APPROVED");
+        given()
+                .when().get("/products/{productId}/vendors/{linkId}/quotes/{quoteId}", productId, linkId, singleId)
+                .then()
+                .statusCode(200)
+                .body("reviewedBy", equalTo("system"));
+
+        given()
+                .contentType(ContentType.JSON)
+                .body(Map.of("quoteIds", List.of(), "status", "APPROVED"))
+                .when().post("/quotes/status-batch")
+                .then()
+                .statusCode(400);
+
+        given()
+                .contentType(ContentType.JSON)
+                .when().post("/quotes/status-batch")
+                .then()
+                .statusCode(400);
+    }
+
+    @Test
+    void archivedQuotesLeaveHotListsButStayReadable() {
+        String lineId = createLine();
+        String productId = createProduct(lineId, "Quote Product Archive");
+        String vendorId = createVendor("Vendor Quote Archive");
+        String linkId = createVendorLink(productId, vendorId);
+
+        String deletedId = createQuote(productId, linkId, "Q-1200", 1, new BigDecimal("6.1000"));
+        String supersededId = createQuote(productId, linkId, "Q-1300", 1, new BigDecimal("6.2000"));
+        String currentId = createQuote(productId, linkId, "Q-1300", 2, new BigDecimal("6.0000"));
+
+        given()
+                .when().delete("/products/{productId}/vendors/{linkId}/quotes/{quoteId}?deletedBy={deletedBy}", productId, linkId, deletedId, "qa-user")
+                .then()
+                .statusCode(204);
+
+        given()
+                .when().get("/products/{productId}/vendors", productId)
+                .then()
+                .statusCode(200)
+                .body("find { it.id == '%s' }.quoteSummary.quoteCount".formatted(linkId), equalTo(2));
+
+        assertTrue(vendorQuoteArchiveService.archiveOlderThan(0, 0) >= 2);
+
+        given()
+                .when().get("/products/{productId}/vendors/{linkId}/quotes", productId, linkId)
+                .then()
+                .statusCode(200)
+                .body("size()", equalTo(1))
+                .body("[0].id", equalTo(currentId));
+
+        given()
+                .when().get("/products/{productId}/vendors/{linkId}/quotes?includeDeleted=true", productId, linkId)
+                .then()
+                .statusCode(200)
+                .body("size()", equalTo(3))
+                .body("id", hasItems(deletedId, supersededId, currentId));
+
+        given()
+                .when().get("/products/{productId}/vendors/{linkId}/quotes/{quoteId}", productId, linkId, supersededId)
+                .then()
+                .statusCode(404);
+
+        given()
+                .when().get("/products/{productId}/vendors/{linkId}/quotes/{quoteId}?includeDeleted=true", productId, linkId, supersededId)
+                .then()
+                .statusCode(200)
+                .body("versionNumber", equalTo(1))
+                .body("deleted", equalTo(false));
+
+        given()
+                .when().get("/products/{productId}/vendors/{linkId}/quotes/{quoteId}?includeDeleted=true", productId, linkId, deletedId)
+                .then()
+                .statusCode(200)
+                .body("deleted", equalTo(true));
+
+        given()
+                .when().get("/products/{productId}/vendors", productId)
+                .then()
+                .statusCode(200)
+                .body("find { it.id == '%s' }.quoteSummary.quoteCount".formatted(linkId), equalTo(1));
+
+        for (String quoteNumber : List.of("Q-1200", "Q-1300")) {
+            given()
+                    .contentType(ContentType.JSON)
+                    .body(quotePayload(quoteNumber, 1, new BigDecimal("6.5000"), LocalDate.now().plusDays(14)))
+                    .when().post("/products/{productId}/vendors/{linkId}/quotes", productId, linkId)
+                    .then()
+                    .statusCode(400);
+        }
+    }
+
+    @Test
+    void linkWithArchivedQuotesCannotBeRemoved() {
+        String lineId = createLine();
+        String productId = createProduct(lineId, "Quote Product Archive Link");
+        String vendorId = createVendor("Vendor Quote Archive Link");
+        String linkId = createVendorLink(productId, vendorId);
+
+        String quoteId = createQuote(productId, linkId, "Q-1250", 1, new BigDecimal("6.3000"));
+        given()
+                .when().delete("/products/{productId}/vendors/{linkId}/quotes/{quoteId}?deletedBy={deletedBy}", productId, linkId, quoteId, "qa-user")
+                .then()
+                .statusCode(204);
+        assertTrue(vendorQuoteArchiveService.archiveOlderThan(0, 0) >= 1);
+
+        given()
+                .when().delete("/products/{productId}/vendors/{linkId}", productId, linkId)
+                .then()
+                .statusCode(409);
+
+        given()
+                .when().get("/products/{productId}/vendors/{linkId}/quotes/{quoteId}?includeDeleted=true", productId, linkId, quoteId)
+                .then()
+                .statusCode(200)
+                .body("id", equalTo(quoteId));
+    }
+
+    @Test
+    void expiryJobExpiresLapsedQuotesWithOneBatchAuditRow() {
+        String lineId = createLine();
+        String productId = createProduct(lineId, "Quote Product Expiry");
+        String vendorId = createVendor("Vendor Quote Expiry");
+        String linkId = createVendorLink(productId, vendorId);
+
+        createQuote(productId, linkId, "Q-1400", 1, new BigDecimal("5.1000"));
+        String lapsedId = createQuote(productId, linkId, "Q-1500", 1, new BigDecimal("5.2000"), LocalDate.now().minusDays(1));
+
+        given()
+                .when().get("/products/{productId}/quotes/ranking", productId)
+                .then()
+                .statusCode(200)
+                .body("size()", equalTo(2));
+
+        assertTrue(vendorQuoteExpiryService.expire(LocalDate.now()) >= 1);
+
+        int version = given()
+                .when().get("/products/{productId}/vendors/{linkId}/quotes/{quoteId}", productId, linkId, lapsedId)
+                .then()
+                .statusCode(200)
+                .body("status", equalTo("EXPIRED"))
+                .body("updatedBy", equalTo("system:quote-expiry"))
+                .extract().path("version");
+
+        given()
+                .when().get("/products/{productId}/quotes/ranking", productId)
+                .then()
+                .statusCode(200)
+                .body("size()", equalTo(1))
+                .body("[0].quoteNumber", equalTo("Q-1400"));
+
+        given()
+                .contentType(ContentType.JSON)
+                .body(Map.of("status", "APPROVED", "actor", "sourcing-user"))
+                .when().patch("/products/{productId}/vendors/{linkId}/quotes/{quoteId}/status", productId, linkId, lapsedId)
+                .then()
+                .statusCode(400);
+
+        given()
+                .contentType(ContentType.JSON)
+                .body(Map.of("status", "SUBMITTED", "actor", "vendor-user"))
+                .when().patch("/products/{productId}/vendors/{linkId}/quotes/{quoteId}/status", productId, linkId, lapsedId)
+                .then()
+                .statusCode(400);
+
+        long batchRows = QuarkusTransaction.requiringNew().call(() -> ((Number) entityManager.createNativeQuery("""
+                        SELECT count(*) FROM vendor_quote_audit
+                        WHERE operation = 'BATCH_UPDATE'
+                          AND new_data -> 'quotes' @> jsonb_build_array(jsonb_build_object('id', CAST(?1 AS text)))
+                        """)
+                .setParameter(1, lapsedId)
+                .getSingleResult()).longValue());
+        long rowUpdates = QuarkusTransaction.requiringNew().call(() -> ((Number) entityManager.createNativeQuery("""
+                        SELECT count(*) FROM vendor_quote_audit
+                        WHERE operation = 'UPDATE' AND new_data ->> 'id' = ?1 AND new_data ->> 'status' = 'EXPIRED'
+                        """)
+                .setParameter(1, lapsedId)
+                .getSingleResult()).longValue());
+        assertEquals(1L, batchRows);
+        assertEquals(0L, rowUpdates);
+
+        Map<String, Object> extended = quotePayload("Q-1500", 1, new BigDecimal("5.2000"), LocalDate.now().plusDays(30));
+        extended.put("version", version);
+        given()
+                .contentType(ContentType.JSON)
+                .body(extended)
+                .when().put("/products/{productId}/vendors/{linkId}/quotes/{quoteId}", productId, linkId, lapsedId)
+                .then()
+                .statusCode(200);
+
+        transition(productId, linkId, lapsedId, "SUBMITTED");
     }
 
     @Test
@@ -173,7 +643,57 @@ class VendorQuoteResourceTest {
         given()
                 .when().get("/products/{productId}/vendors/{linkId}/quotes/{quoteId}", productId, linkId, missingId)
                 .then()
-                .statusCode(404);
+                .statusCode(404)
+                .body(equalTo("Vendor quote not found."));
+
+        given()
+                .when().get("/products/{productId}/vendors/{linkId}/quotes/{quoteId}", productId, missingId, missingId)
+                .then()
+                .statusCode(404)
+                .body(equalTo("Product vendor link not found."));
+
+        given()
+                .when().get("/products/{productId}/vendors/{linkId}/quotes/{quoteId}", missingId, linkId, missingId)
+                .then()
+                .statusCode(404)
+                .body(equalTo("Product not found."));
+
+        given()
+                .when().get("/products/{productId}/vendors/{linkId}/quotes", productId, missingId)
+                .then()
+                .statusCode(404)
+                .body(equalTo("Product vendor link not found."));
+
+        given()
+                .when().get("/products/{productId}/vendors/{linkId}/quotes", missingId, linkId)
+                .then()
+                .statusCode(404)
+                .body(equalTo("Product not found."));
+
+        String otherProductId = createProduct(lineId, "Quote Product C2");
+        given()
+                .when().get("/products/{productId}/vendors/{linkId}/quotes", otherProductId, linkId)
+                .then()
+                .statusCode(404)
+                .body(equalTo("Product vendor link not found."));
+
+        given()
+                .when().delete("/products/{productId}/vendors/{linkId}/quotes/{quoteId}", productId, linkId, missingId)
+                .then()
+                .statusCode(404)
+                .body(equalTo("Vendor quote not found."));
+
+        given()
+                .when().delete("/products/{productId}/vendors/{linkId}", missingId, linkId)
+                .then()
+                .statusCode(404)
+                .body(equalTo("Product not found."));
+
+        given()
+                .when().get("/products/{productId}/vendors/{linkId}/quotes", productId, linkId)
+                .then()
+                .statusCode(200)
+                .body("size()", equalTo(0));
 
         String quoteId = createQuote(
                 productId,